@@ -13,10 +13,18 @@ public interface IConstants {
     String GAME_NAME = "Snake 3D";
 
     /**
-     * The frames per second the game is running and rendered at.
+     * The length of a game tick in nanoseconds,
+     * i.e. the game runs at 120 ticks per second.
+     * The game is rendered independently of its ticks.
      */
     long FPS = TimeUnit.SECONDS.toNanos(1L) / 120;
 
+    /**
+     * The most ticks the game catches up on in one frame.
+     * The game slows down instead when frames take longer.
+     */
+    int MAX_TICKS_PER_FRAME = 8;
+
     /**
      * The focal length of the game's camera.
      */
@@ -53,5 +61,21 @@ public interface IConstants {
      * 90 MUST be divisible by this value.
      */
     int ROTATION_SPEED = 2;
+
+    /**
+     * The most turns the player can queue ahead.
+     */
+    int TURN_BUFFER_SIZE = 4;
+
+    /**
+     * The number of ticks between the keyframes of a replay,
+     * i.e. the most ticks played when seeking in a replay.
+     */
+    int KEYFRAME_INTERVAL = 1200;
+
+    /**
+     * The number of changes the game keeps for the consumers that follow it.
+     */
+    int CHANGE_LOG_SIZE = 1024;
     
 }
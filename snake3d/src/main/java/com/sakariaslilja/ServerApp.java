@@ -0,0 +1,47 @@
+package com.sakariaslilja;
+
+import java.io.IOException;
+
+import com.sakariaslilja.datastructures.Heading;
+import com.sakariaslilja.services.ArenaEngine;
+import com.sakariaslilja.services.GameServer;
+import com.sakariaslilja.services.RandomInputPolicy;
+
+/**
+ * Headless server for the Snake3D game, without JavaFX.
+ * Hosts an arena for clients on the local machine.
+ */
+public class ServerApp implements IConstants {
+
+    private static final int DEFAULT_PORT = 7777;
+    private static final int DEFAULT_WORLD_SIZE = 20;
+
+    /**
+     * Main method that starts the server.
+     * @param args The port, the size of the world and the number of bots, all optional.
+     * @throws IOException The port couldn't be opened
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int size = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_WORLD_SIZE;
+        int bots = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+        size = Integer.min(MAX_WORLD_SIZE, Integer.max(MIN_WORLD_SIZE, size));
+
+        long seed = System.nanoTime();
+        int appleLimit = Integer.max(1, size - 2);
+        ArenaEngine arena = new ArenaEngine(size, size, size, appleLimit, seed, null);
+        Heading[] headings = Heading.values();
+        for (int i = 0; i < bots; i++) {
+            Heading heading = headings[i % headings.length];
+            Heading normal = heading == Heading.UP || heading == Heading.DOWN ? Heading.FORWARD : Heading.UP;
+            arena.spawnSnake(heading, normal, new RandomInputPolicy(seed + i, 0.2));
+        }
+
+        GameServer server = new GameServer(arena);
+        int boundPort = server.bind(port);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        System.out.println(GAME_NAME + " server listening on localhost:" + boundPort);
+        server.run();
+    }
+
+}
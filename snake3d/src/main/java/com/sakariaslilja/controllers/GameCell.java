@@ -8,6 +8,7 @@ import com.sakariaslilja.App;
 import com.sakariaslilja.models.GameModel;
 import com.sakariaslilja.services.GameEngine;
 import com.sakariaslilja.services.GamesService;
+import com.sakariaslilja.services.SnapshotCodec;
 
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -88,7 +89,20 @@ public class GameCell extends ListCell<GameModel> {
     private void playGame() throws IOException {
         ObservableList<GameModel> list = listViewProperty().get().getItems();
         GameModel game = list.get(this.getIndex());
-        App.setEngine(new GameEngine(game));
+        GameEngine engine = new GameEngine(game);
+        byte[] snapshot = GamesService.getSnapshot(game.seed);
+        if (snapshot != null) {
+            try {
+                SnapshotCodec.restore(engine, snapshot);
+            }
+
+            // The snapshot is invalid, the game continues from its saved model
+            catch (RuntimeException e) {
+                System.out.println("Invalid snapshot of game: game_" + game.seed);
+                engine = new GameEngine(game);
+            }
+        }
+        App.setEngine(engine);
         App.setRoot("game");
     }
 
@@ -4,11 +4,20 @@ import com.sakariaslilja.App;
 import com.sakariaslilja.IConstants;
 import com.sakariaslilja.models.GameModel;
 import com.sakariaslilja.models.HighscoreModel;
+import com.sakariaslilja.models.ReplayModel;
 import com.sakariaslilja.services.GameClock;
 import com.sakariaslilja.services.GameEngine;
 import com.sakariaslilja.services.GamesService;
+import com.sakariaslilja.services.GameListener;
 import com.sakariaslilja.services.HighscoresService;
+import com.sakariaslilja.services.Input;
 import com.sakariaslilja.services.Renderer;
+import com.sakariaslilja.services.ReplayRecorder;
+import com.sakariaslilja.services.SettingsService;
+import com.sakariaslilja.services.SimulationThread;
+import com.sakariaslilja.services.SnapshotCodec;
+
+import javafx.application.Platform;
 
 import javafx.event.EventHandler;
 import java.io.IOException;
@@ -24,7 +33,7 @@ import javafx.scene.layout.VBox;
 /**
  * Controller for the game scene.
  */
-public class GameController implements IConstants {
+public class GameController implements IConstants, GameListener {
 
     @FXML
     Canvas gameCanvas;
@@ -46,6 +55,9 @@ public class GameController implements IConstants {
 
     long startTime = System.nanoTime();
     GameClock gameClock;
+    SimulationThread simulation = null;
+    volatile ReplayRecorder recorder = null;
+    volatile byte[] quickSave = null;
     
     /**
      * Method called when the scene is loaded.
@@ -63,16 +75,33 @@ public class GameController implements IConstants {
         savequitbtn.setPrefHeight(0.12 * App.getHeight());
         
         this.engine = App.getEngine();
-        engine.setGameController(this);
+        engine.setListener(this);
+        if (engine.getTick() == 0) {
+            this.recorder = new ReplayRecorder(engine);
+            engine.setRecorder(recorder);
+        }
         if (engine.isGameOver()) { pauseLabel.setText("Game Over!"); }
         this.renderer = new Renderer(gameCanvas.getGraphicsContext2D(), engine);
 
-        this.gameClock = new GameClock(engine, renderer, score);
+        if (new SettingsService().getSettings().simulationThread) {
+            this.simulation = new SimulationThread(engine);
+            this.gameClock = new GameClock(simulation, renderer, score);
+        }
+        else {
+            this.gameClock = new GameClock(engine, renderer, score);
+        }
         gameClock.start();
 
         EventHandler<KeyEvent> buttonPressed = e -> {
             if (e.getCode().equals(KeyCode.ESCAPE) || e.getCode().equals(KeyCode.P)) { this.triggerPause(); }
-            else { engine.doButtonAction(e.getCode()); }
+            else if (e.getCode().equals(KeyCode.F5)) { this.quickSave(); }
+            else if (e.getCode().equals(KeyCode.F9)) { this.quickLoad(); }
+            else {
+                Input input = toInput(e.getCode());
+                if (input == null) { return; }
+                if (simulation != null) { simulation.offer(input); }
+                else { engine.handleInput(input); }
+            }
         };
 
         bgoverlay.sceneProperty().addListener((obs, oldScene, newScene) -> {
@@ -85,23 +114,80 @@ public class GameController implements IConstants {
         });
     }
 
+    /**
+     * The game input of a key.
+     * @param keyCode The key code of the pressed key
+     * @return The input of the key, null if the key has no input
+     */
+    private static Input toInput(KeyCode keyCode) {
+        switch (keyCode) {
+            case LEFT: return Input.LEFT;
+            case RIGHT: return Input.RIGHT;
+            case UP: return Input.UP;
+            case DOWN: return Input.DOWN;
+            default: return null;
+        }
+    }
+
     /**
      * Navigates via [App] to mainpage.fxml.
      * @throws IOException The file mainpage.fxml wasn't found/couldn't be read.
      */
     @FXML
     private void gotoMainPage() throws IOException {
+        gameClock.stop();
         App.setRoot("mainpage");
     }
 
+    /**
+     * The state of a game to save, captured between two ticks.
+     */
+    private static class SavedGame {
+        GameModel model;
+        byte[] snapshot;
+        ReplayModel replay;
+    }
+
     /**
      * Saves the game.
-     * Displays icon to display if the game was successfully saved.
+     * With the simulation thread, the state is captured on that thread
+     * and the files are written on the JavaFX thread afterwards.
      */
     @FXML
     private void saveGame() {
-        GameModel model = engine.toGameModel();
-        boolean saveSuccess = GamesService.saveGame(model);
+        if (simulation == null) {
+            writeGame(captureGame(engine));
+            return;
+        }
+        boolean queued = simulation.execute(e -> {
+            SavedGame saved = captureGame(e);
+            Platform.runLater(() -> writeGame(saved));
+        });
+        if (!queued) { System.out.println("Error when saving game."); }
+    }
+
+    /**
+     * Captures the state of the game to save.
+     * Must be called by the thread that ticks the engine.
+     * @param engine The engine of the game
+     * @return The state to save
+     */
+    private SavedGame captureGame(GameEngine engine) {
+        SavedGame saved = new SavedGame();
+        saved.model = engine.toGameModel();
+        saved.snapshot = SnapshotCodec.encode(engine);
+        if (recorder != null) { saved.replay = recorder.finish(engine); }
+        return saved;
+    }
+
+    /**
+     * Writes a captured game to its files.
+     * Displays icon to display if the game was successfully saved.
+     * @param saved The state to save
+     */
+    private void writeGame(SavedGame saved) {
+        boolean saveSuccess = GamesService.saveGame(saved.model) && GamesService.saveSnapshot(saved.model.seed, saved.snapshot);
+        if (saved.replay != null) { GamesService.saveReplay(saved.replay); }
         if (saveSuccess) {
             // TODO: Add icons to display save status
             System.out.println("Game saved successfully!");
@@ -112,13 +198,44 @@ public class GameController implements IConstants {
         }
     }
 
+    /**
+     * Takes a snapshot of the game in memory.
+     * The snapshot is taken on the simulation thread when the engine runs on one.
+     */
+    private void quickSave() {
+        if (simulation != null) { simulation.execute(e -> quickSave = SnapshotCodec.encode(e)); }
+        else { quickSave = SnapshotCodec.encode(engine); }
+    }
+
+    /**
+     * Restores the game to the latest quick save, if there is one.
+     * A replay can't go back in time, so the game stops being recorded.
+     */
+    private void quickLoad() {
+        byte[] snapshot = quickSave;
+        if (snapshot == null) { return; }
+        recorder = null;
+        if (simulation != null) {
+            simulation.execute(e -> {
+                e.setRecorder(null);
+                SnapshotCodec.restore(e, snapshot);
+            });
+        }
+        else {
+            engine.setRecorder(null);
+            SnapshotCodec.restore(engine, snapshot);
+        }
+    }
+
     /**
      * Saves the game with {@code saveGame}.
      * Redirects the player to the main page.
      */
     @FXML
     private void saveAndQuit() throws IOException {
-        saveGame();
+        // Stopping the clock joins the simulation thread, so the engine can be read here
+        gameClock.stop();
+        writeGame(captureGame(engine));
         App.setRoot("mainpage");
     }
 
@@ -129,7 +246,8 @@ public class GameController implements IConstants {
     @FXML
     private void triggerPause() {
         bgoverlay.setVisible(!bgoverlay.isVisible());
-        engine.togglePause();
+        if (simulation != null) { simulation.offer(Input.PAUSE); }
+        else { engine.togglePause(); }
     }
 
     /**
@@ -144,7 +262,14 @@ public class GameController implements IConstants {
      * Saves the highscore state of the world,
      * the world itself and pauses the game screen.
      */
+    @Override
     public void playerDied() {
+        // The engine calls this from the simulation thread when it runs on one
+        if (!Platform.isFxApplicationThread()) {
+            Platform.runLater(this::playerDied);
+            return;
+        }
+
         saveGame();
         saveHighscore();
         pauseLabel.setText("Game Over!");
@@ -0,0 +1,140 @@
+package com.sakariaslilja.datastructures;
+
+import java.util.Arrays;
+
+/**
+ * Hash map from packed grid cells to values.
+ * <p> Uses open addressing with linear probing over parallel arrays,
+ * so looking up a cell allocates nothing. Packed cells are never
+ * negative, which leaves -1 free to mark empty slots. Removing a cell
+ * shifts the following entries of its probe run back, so no tombstones
+ * are left behind.
+ * @param <V> The type of the values
+ */
+public class CellMap<V> {
+
+    private static final int EMPTY = -1;
+
+    private int[] keys;
+    private Object[] values;
+    private int mask;
+    private int size = 0;
+
+    /**
+     * Creates an empty map.
+     * @param capacity The number of cells the map holds without growing
+     */
+    public CellMap(int capacity) {
+        int slots = Integer.highestOneBit(Integer.max(2, 2 * capacity - 1)) << 1;
+        this.keys = new int[slots];
+        this.values = new Object[slots];
+        this.mask = slots - 1;
+        Arrays.fill(keys, EMPTY);
+    }
+
+    /**
+     * @return The number of cells in the map
+     */
+    public int size() { return size; }
+
+    /**
+     * @return If the map has no cells
+     */
+    public boolean isEmpty() { return size == 0; }
+
+    /**
+     * @param cell The packed cell
+     * @return The value of the cell, null if the cell isn't in the map
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int cell) {
+        for (int slot = slot(cell); keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (keys[slot] == cell) { return (V) values[slot]; }
+        }
+        return null;
+    }
+
+    /**
+     * Sets the value of a cell.
+     * @param cell The packed cell
+     * @param value The value of the cell
+     */
+    public void put(int cell, V value) {
+        int slot = slot(cell);
+        while (keys[slot] != EMPTY && keys[slot] != cell) { slot = (slot + 1) & mask; }
+        if (keys[slot] == EMPTY) {
+            keys[slot] = cell;
+            size++;
+        }
+        values[slot] = value;
+        if (2 * size > keys.length) { resize(); }
+    }
+
+    /**
+     * Removes a cell from the map.
+     * @param cell The packed cell
+     * @return The value of the cell, null if the cell wasn't in the map
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int cell) {
+        int slot = slot(cell);
+        while (keys[slot] != cell) {
+            if (keys[slot] == EMPTY) { return null; }
+            slot = (slot + 1) & mask;
+        }
+        V value = (V) values[slot];
+        size--;
+
+        // Moves back the entries that probed past the removed slot
+        int hole = slot;
+        for (int next = (hole + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+            int home = slot(keys[next]);
+            // The entry is moved unless its home slot is cyclically after the hole
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+        }
+        keys[hole] = EMPTY;
+        values[hole] = null;
+        return value;
+    }
+
+    /**
+     * Removes every cell from the map.
+     */
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * @param cell The packed cell
+     * @return The slot the cell's probe run starts from
+     */
+    private int slot(int cell) {
+        // Spreads the bits of the coordinates over the low bits
+        int hash = cell * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    /**
+     * Doubles the number of slots.
+     */
+    @SuppressWarnings("unchecked")
+    private void resize() {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new int[2 * oldKeys.length];
+        values = new Object[2 * oldValues.length];
+        mask = keys.length - 1;
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) { put(oldKeys[i], (V) oldValues[i]); }
+        }
+    }
+
+}
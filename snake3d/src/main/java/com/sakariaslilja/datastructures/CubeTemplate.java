@@ -0,0 +1,56 @@
+package com.sakariaslilja.datastructures;
+
+/**
+ * The unit cube every cube entity is drawn with.
+ * <p> Holds the corner offsets and faces of the cube once,
+ * so that entities only need their position and size
+ * to write their vertices.
+ * <p> Vertex {@code i} is the corner with the offsets
+ * {@code (i & 1, (i >> 1) & 1, (i >> 2) & 1)}, i.e. the corners are
+ * ordered by x, then y, then z.
+ */
+public final class CubeTemplate {
+
+    /**
+     * The number of vertices of a cube.
+     */
+    public static final int VERTICES = 8;
+
+    private static final double[] X = {0, 1, 0, 1, 0, 1, 0, 1};
+    private static final double[] Y = {0, 0, 1, 1, 0, 0, 1, 1};
+    private static final double[] Z = {0, 0, 0, 0, 1, 1, 1, 1};
+
+    /**
+     * The vertices of each face of the cube,
+     * ordered so that the face's normal points out of the cube.
+     */
+    public static final int[][] FACES = {
+        {0, 2, 3, 1}, // Front
+        {4, 5, 7, 6}, // Rear
+        {0, 1, 5, 4}, // Top
+        {2, 6, 7, 3}, // Bottom
+        {0, 4, 6, 2}, // Left
+        {1, 3, 7, 5}  // Right
+    };
+
+    private CubeTemplate() {}
+
+    /**
+     * @param vertex The index of the vertex
+     * @return The x offset of the vertex from the cube's corner
+     */
+    public static double x(int vertex) { return X[vertex]; }
+
+    /**
+     * @param vertex The index of the vertex
+     * @return The y offset of the vertex from the cube's corner
+     */
+    public static double y(int vertex) { return Y[vertex]; }
+
+    /**
+     * @param vertex The index of the vertex
+     * @return The z offset of the vertex from the cube's corner
+     */
+    public static double z(int vertex) { return Z[vertex]; }
+
+}
@@ -0,0 +1,53 @@
+package com.sakariaslilja.datastructures;
+
+import java.util.Random;
+
+/**
+ * Random generator whose state can be saved and restored.
+ * <p> Uses the same linear congruential generator as {@code Random},
+ * so it draws the same numbers as a {@code Random} with the same seed.
+ * Unlike {@code Random} it isn't thread safe.
+ */
+public class GameRandom extends Random {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+    private static final long ADDEND = 0xBL;
+    private static final long MASK = (1L << 48) - 1;
+
+    // Set by setSeed, which Random's constructor calls, so it has no initializer
+    private long state;
+
+    /**
+     * Creates a generator with the given seed.
+     * @param seed The seed of the generator
+     */
+    public GameRandom(long seed) {
+        super(seed);
+    }
+
+    @Override
+    public synchronized void setSeed(long seed) {
+        this.state = (seed ^ MULTIPLIER) & MASK;
+        super.setSeed(seed);
+    }
+
+    @Override
+    protected int next(int bits) {
+        state = (state * MULTIPLIER + ADDEND) & MASK;
+        return (int) (state >>> (48 - bits));
+    }
+
+    /**
+     * @return The internal state of the generator
+     */
+    public long getState() { return state; }
+
+    /**
+     * Restores a state returned by {@code getState}.
+     * @param state The state to continue from
+     */
+    public void setState(long state) { this.state = state & MASK; }
+
+}
@@ -0,0 +1,74 @@
+package com.sakariaslilja.datastructures;
+
+/**
+ * Packs a grid position into a single int.
+ * <p> Each coordinate takes 10 bits and is stored with a bias,
+ * so coordinates from -512 to 511 can be packed. This covers every
+ * world size and the cells just outside the world.
+ */
+public final class GridCell {
+
+    private static final int BITS = 10;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final int BIAS = 1 << (BITS - 1);
+
+    private GridCell() {}
+
+    /**
+     * Packs the coordinates of a grid position.
+     * @param x The column of the cell
+     * @param y The row of the cell
+     * @param z The layer of the cell
+     * @return The packed cell
+     */
+    public static int pack(int x, int y, int z) {
+        return ((x + BIAS) & MASK) | (((y + BIAS) & MASK) << BITS) | (((z + BIAS) & MASK) << (2 * BITS));
+    }
+
+    /**
+     * Packs a grid position.
+     * @param cell The grid position
+     * @return The packed cell
+     */
+    public static int pack(Vector3D cell) {
+        return pack(cell.getX(), cell.getY(), cell.getZ());
+    }
+
+    /**
+     * @param cell The packed cell
+     * @return The column of the cell
+     */
+    public static int x(int cell) { return (cell & MASK) - BIAS; }
+
+    /**
+     * @param cell The packed cell
+     * @return The row of the cell
+     */
+    public static int y(int cell) { return ((cell >> BITS) & MASK) - BIAS; }
+
+    /**
+     * @param cell The packed cell
+     * @return The layer of the cell
+     */
+    public static int z(int cell) { return ((cell >> (2 * BITS)) & MASK) - BIAS; }
+
+    /**
+     * Moves a packed cell one step in a direction.
+     * @param cell The packed cell
+     * @param direction The direction to move in
+     * @return The packed neighbouring cell
+     */
+    public static int add(int cell, Vector3D direction) {
+        return pack(x(cell) + direction.getX(), y(cell) + direction.getY(), z(cell) + direction.getZ());
+    }
+
+    /**
+     * Unpacks a cell into a grid position.
+     * @param cell The packed cell
+     * @return The grid position
+     */
+    public static Vector3D toVector3D(int cell) {
+        return new Vector3D(x(cell), y(cell), z(cell));
+    }
+
+}
@@ -0,0 +1,256 @@
+package com.sakariaslilja.datastructures;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Grid of the world's cells.
+ * Answers if a cell is inside the world and how many entities
+ * occupy it in constant time.
+ * <p> A cell's index is {@code x + y * width + z * width * height},
+ * i.e. the same order the cells are iterated in: column, row, layer.
+ * <p> The free cells are counted in a Fenwick tree over the cell indices.
+ * A cell leaving or rejoining the free cells updates the tree, and the
+ * k-th free cell in index order is found by descending the tree,
+ * both in logarithmic time. Picking free cells in index order makes
+ * the pick depend only on which cells are free, not on the order
+ * they were occupied in, so a seed picks the same cells however
+ * the grid got to its state.
+ */
+public class OccupancyGrid {
+
+    private final int width;
+    private final int height;
+    private final int depth;
+    private final int[] counts;
+    private final int[] freeTree;
+    private final int highestBit;
+    private int freeCount;
+
+    /**
+     * Creates an empty grid with the given dimensions.
+     * @param width The number of columns of the grid
+     * @param height The number of rows of the grid
+     * @param depth The number of layers of the grid
+     */
+    public OccupancyGrid(int width, int height, int depth) {
+        this.width = width;
+        this.height = height;
+        this.depth = depth;
+        this.counts = new int[width * height * depth];
+        this.freeTree = new int[counts.length + 1];
+        this.highestBit = Integer.highestOneBit(Integer.max(1, counts.length));
+        clear();
+    }
+
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+    public int getDepth() { return depth; }
+
+    /**
+     * @return The number of cells in the grid
+     */
+    public int size() { return counts.length; }
+
+    /**
+     * Checks if the coordinates are inside the grid.
+     * @param x The column of the cell
+     * @param y The row of the cell
+     * @param z The layer of the cell
+     * @return If the cell is inside the grid
+     */
+    public boolean contains(int x, int y, int z) {
+        return x >= 0 && x < width && y >= 0 && y < height && z >= 0 && z < depth;
+    }
+
+    /**
+     * Checks if the grid position is inside the grid.
+     * @param cell The grid position to check
+     * @return If the cell is inside the grid
+     */
+    public boolean contains(Vector3D cell) {
+        return contains(cell.getX(), cell.getY(), cell.getZ());
+    }
+
+    /**
+     * The index of a cell. The cell must be inside the grid.
+     * @param x The column of the cell
+     * @param y The row of the cell
+     * @param z The layer of the cell
+     * @return The index of the cell
+     */
+    public int index(int x, int y, int z) {
+        return x + y * width + z * width * height;
+    }
+
+    /**
+     * @param index The index of a cell
+     * @return The column of the cell
+     */
+    public int x(int index) { return index % width; }
+
+    /**
+     * @param index The index of a cell
+     * @return The row of the cell
+     */
+    public int y(int index) { return (index / width) % height; }
+
+    /**
+     * @param index The index of a cell
+     * @return The layer of the cell
+     */
+    public int z(int index) { return index / (width * height); }
+
+    /**
+     * The grid position of a cell.
+     * @param index The index of the cell
+     * @return The grid position of the cell
+     */
+    public Vector3D cell(int index) {
+        return new Vector3D(x(index), y(index), z(index));
+    }
+
+    /**
+     * Marks the cell as occupied by one more entity.
+     * Cells outside the grid are ignored.
+     * @param cell The grid position of the entity
+     */
+    public void occupy(Vector3D cell) {
+        occupy(cell.getX(), cell.getY(), cell.getZ());
+    }
+
+    /**
+     * Marks the cell as occupied by one more entity.
+     * Cells outside the grid are ignored.
+     * @param x The column of the cell
+     * @param y The row of the cell
+     * @param z The layer of the cell
+     */
+    public void occupy(int x, int y, int z) {
+        if (!contains(x, y, z)) { return; }
+        int index = index(x, y, z);
+        if (counts[index]++ == 0) { removeFree(index); }
+    }
+
+    /**
+     * Marks the cell as occupied by one less entity.
+     * Cells outside the grid are ignored.
+     * @param cell The grid position of the entity
+     */
+    public void vacate(Vector3D cell) {
+        vacate(cell.getX(), cell.getY(), cell.getZ());
+    }
+
+    /**
+     * Marks the cell as occupied by one less entity.
+     * Cells outside the grid are ignored.
+     * @param x The column of the cell
+     * @param y The row of the cell
+     * @param z The layer of the cell
+     */
+    public void vacate(int x, int y, int z) {
+        if (!contains(x, y, z)) { return; }
+        int index = index(x, y, z);
+        if (--counts[index] == 0) { addFree(index); }
+    }
+
+    /**
+     * @return The number of cells no entity occupies
+     */
+    public int freeCount() { return freeCount; }
+
+    /**
+     * Picks a random free cell.
+     * Draws exactly one {@code nextInt(freeCount())} from the random
+     * generator, so a seeded generator picks the same cells every run.
+     * @param random The random generator to draw from
+     * @return The index of a free cell, -1 if every cell is occupied
+     */
+    public int randomFreeCell(Random random) {
+        if (freeCount == 0) { return -1; }
+        return freeCell(random.nextInt(freeCount));
+    }
+
+    /**
+     * Finds a free cell by its rank among the free cells.
+     * @param rank The number of free cells before the cell in index order
+     * @return The index of the free cell
+     */
+    public int freeCell(int rank) {
+        // Descends the tree, skipping whole subtrees with too few free cells
+        int position = 0;
+        int remaining = rank;
+        for (int bit = highestBit; bit > 0; bit >>= 1) {
+            int next = position + bit;
+            if (next < freeTree.length && freeTree[next] <= remaining) {
+                position = next;
+                remaining -= freeTree[next];
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Removes a cell from the free cells.
+     * @param index The index of the cell
+     */
+    private void removeFree(int index) {
+        for (int i = index + 1; i < freeTree.length; i += i & -i) { freeTree[i]--; }
+        freeCount--;
+    }
+
+    /**
+     * Adds a cell to the free cells.
+     * @param index The index of the cell
+     */
+    private void addFree(int index) {
+        for (int i = index + 1; i < freeTree.length; i += i & -i) { freeTree[i]++; }
+        freeCount++;
+    }
+
+    /**
+     * The number of entities occupying a cell.
+     * @param cell The grid position to check
+     * @return The number of entities in the cell, 0 if outside the grid
+     */
+    public int count(Vector3D cell) {
+        return count(cell.getX(), cell.getY(), cell.getZ());
+    }
+
+    /**
+     * The number of entities occupying a cell.
+     * @param x The column of the cell
+     * @param y The row of the cell
+     * @param z The layer of the cell
+     * @return The number of entities in the cell, 0 if outside the grid
+     */
+    public int count(int x, int y, int z) {
+        if (!contains(x, y, z)) { return 0; }
+        return counts[index(x, y, z)];
+    }
+
+    /**
+     * @param cell The grid position to check
+     * @return If any entity occupies the cell
+     */
+    public boolean isOccupied(Vector3D cell) {
+        return count(cell) > 0;
+    }
+
+    /**
+     * Marks every cell of the grid as free.
+     */
+    public void clear() {
+        Arrays.fill(counts, 0);
+
+        // Builds the tree of all free cells in linear time
+        Arrays.fill(freeTree, 1);
+        freeTree[0] = 0;
+        for (int i = 1; i < freeTree.length; i++) {
+            int parent = i + (i & -i);
+            if (parent < freeTree.length) { freeTree[parent] += freeTree[i]; }
+        }
+        freeCount = counts.length;
+    }
+
+}
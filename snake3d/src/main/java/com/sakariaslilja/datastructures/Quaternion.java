@@ -9,6 +9,12 @@ import java.text.DecimalFormatSymbols;
  */
 public class Quaternion {
 
+    /**
+     * The 24 rotations that map the axes onto the axes, as (w, x, y, z),
+     * each once as a quaternion and its negation are the same rotation.
+     */
+    private static final double[][] AXIS_ALIGNED = axisAligned();
+
     private double w;
     private double x;
     private double y;
@@ -86,7 +92,125 @@ public class Quaternion {
         vector.setY(vectorY);
         vector.setZ(vectorZ);
     }
+
+    /**
+     * Writes the 3x3 rotation matrix of this quaternion in row-major order.
+     * Applying the matrix to a vector is the same as {@code applyRotation}.
+     * @param matrix Array of at least 9 values to write the matrix into
+     */
+    public void rotationMatrix(double[] matrix) {
+        matrix[0] = 1-2*y*y-2*z*z;
+        matrix[1] = 2*x*y-2*w*z;
+        matrix[2] = 2*x*z+2*w*y;
+        matrix[3] = 2*x*y+2*w*z;
+        matrix[4] = 1-2*x*x-2*z*z;
+        matrix[5] = 2*y*z-2*w*x;
+        matrix[6] = 2*x*z-2*w*y;
+        matrix[7] = 2*y*z+2*w*x;
+        matrix[8] = 1-2*x*x-2*y*y;
+    }
+
+    /**
+     * Method for duplicating this quaternion.
+     * @return A copy of this quaternion
+     */
+    public Quaternion duplicate() {
+        return new Quaternion(w, x, y, z);
+    }
+
+    /**
+     * Copies another quaternion into this quaternion.
+     * @param other The quaternion to copy
+     */
+    public void set(Quaternion other) {
+        this.w = other.getW();
+        this.x = other.getX();
+        this.y = other.getY();
+        this.z = other.getZ();
+    }
+
+    /**
+     * Interpolates between this quaternion and another.
+     * The quaternions are blended linearly and normalized,
+     * which is accurate for the small rotations between two ticks.
+     * @param other The quaternion to interpolate towards
+     * @param alpha How far to interpolate, 0 is this quaternion and 1 the other
+     * @return The interpolated quaternion
+     */
+    public Quaternion interpolate(Quaternion other, double alpha) {
+        // Takes the shorter way around when the quaternions point in opposite directions
+        double sign = w*other.getW() + x*other.getX() + y*other.getY() + z*other.getZ() < 0 ? -1 : 1;
+        Quaternion result = new Quaternion(
+            w + alpha * (sign * other.getW() - w),
+            x + alpha * (sign * other.getX() - x),
+            y + alpha * (sign * other.getY() - y),
+            z + alpha * (sign * other.getZ() - z)
+        );
+        result.normalize();
+        return result;
+    }
     
+    /**
+     * Snaps this quaternion exactly onto the closest rotation that maps
+     * the axes onto the axes, removing the error accumulated by
+     * multiplying many small rotations together.
+     * The sign is kept, so the quaternion stays on the same side
+     * as before for interpolation.
+     */
+    public void snapToAxes() {
+        double[] closest = AXIS_ALIGNED[0];
+        double closestDot = 0;
+        for (double[] candidate : AXIS_ALIGNED) {
+            double dot = w*candidate[0] + x*candidate[1] + y*candidate[2] + z*candidate[3];
+            if (Math.abs(dot) > Math.abs(closestDot)) {
+                closest = candidate;
+                closestDot = dot;
+            }
+        }
+        double sign = closestDot < 0 ? -1 : 1;
+        w = sign * closest[0];
+        x = sign * closest[1];
+        y = sign * closest[2];
+        z = sign * closest[3];
+    }
+
+    /**
+     * @return The 24 rotations that map the axes onto the axes
+     */
+    private static double[][] axisAligned() {
+        double[][] rotations = new double[24][];
+        int count = 0;
+
+        // The identity and half turns around the axes
+        for (int i = 0; i < 4; i++) {
+            rotations[count] = new double[4];
+            rotations[count++][i] = 1;
+        }
+
+        // Quarter turns around the axes and half turns around the diagonals of faces
+        double half = Math.sqrt(0.5);
+        for (int i = 0; i < 4; i++) {
+            for (int j = i + 1; j < 4; j++) {
+                for (int sign = -1; sign <= 1; sign += 2) {
+                    rotations[count] = new double[4];
+                    rotations[count][i] = half;
+                    rotations[count++][j] = sign * half;
+                }
+            }
+        }
+
+        // Third turns around the diagonals of the cube
+        for (int signs = 0; signs < 8; signs++) {
+            rotations[count++] = new double[] {
+                0.5,
+                (signs & 1) == 0 ? 0.5 : -0.5,
+                (signs & 2) == 0 ? 0.5 : -0.5,
+                (signs & 4) == 0 ? 0.5 : -0.5
+            };
+        }
+        return rotations;
+    }
+
     protected double magnitude() {
         return Math.sqrt(w*w + x*x + y*y + z*z);
     }
@@ -0,0 +1,74 @@
+package com.sakariaslilja.datastructures;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded lock-free queue for one producer thread and one consumer thread.
+ * <p> The elements are stored in a ring buffer. The producer only writes
+ * the tail and the consumer only writes the head, so neither needs a lock.
+ * An element is written before the tail is moved past it, which makes the
+ * element visible to the consumer once it sees the new tail.
+ * @param <E> The type of the elements
+ */
+public class SpscQueue<E> {
+
+    private final Object[] buffer;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Creates an empty queue.
+     * @param capacity The least number of elements the queue can hold,
+     * rounded up to a power of two
+     */
+    public SpscQueue(int capacity) {
+        int size = Integer.highestOneBit(Integer.max(1, capacity - 1)) << 1;
+        this.buffer = new Object[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * @return The number of elements the queue can hold
+     */
+    public int capacity() { return buffer.length; }
+
+    /**
+     * Adds an element to the queue. Must only be called by the producer.
+     * @param element The element to add
+     * @return If the element was added, false if the queue is full
+     */
+    public boolean offer(E element) {
+        long t = tail.get();
+        if (t - head.get() == buffer.length) { return false; }
+        buffer[(int) t & mask] = element;
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**
+     * Removes the oldest element of the queue. Must only be called by the consumer.
+     * @return The oldest element, null if the queue is empty
+     */
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        long h = head.get();
+        if (h == tail.get()) { return null; }
+        int slot = (int) h & mask;
+        E element = (E) buffer[slot];
+        buffer[slot] = null;
+        head.lazySet(h + 1);
+        return element;
+    }
+
+    /**
+     * @return The number of elements in the queue
+     */
+    public int size() { return (int) (tail.get() - head.get()); }
+
+    /**
+     * @return If the queue has no elements
+     */
+    public boolean isEmpty() { return size() == 0; }
+
+}
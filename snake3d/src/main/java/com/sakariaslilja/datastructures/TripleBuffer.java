@@ -0,0 +1,60 @@
+package com.sakariaslilja.datastructures;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Lock-free buffer for handing state from one writer thread to one reader thread.
+ * <p> The writer fills its back buffer and publishes it, the reader reads its
+ * front buffer. A third buffer in the middle holds the latest published state.
+ * Publishing swaps the back buffer with the middle one, and reading swaps the
+ * front buffer with the middle one when a new state has been published.
+ * The writer therefore never writes into a buffer the reader is reading.
+ * @param <T> The type of the buffered state
+ */
+public class TripleBuffer<T> {
+
+    private static final int INDEX = 3;
+    private static final int PUBLISHED = 4;
+
+    private final Object[] buffers = new Object[3];
+    private final AtomicInteger middle = new AtomicInteger(1);
+    private int back = 0;
+    private int front = 2;
+
+    /**
+     * Creates the three buffers.
+     * @param factory Creates each buffer
+     */
+    public TripleBuffer(Supplier<T> factory) {
+        for (int i = 0; i < buffers.length; i++) { buffers[i] = factory.get(); }
+    }
+
+    /**
+     * The buffer to write the next state into. Must only be used by the writer.
+     * @return The back buffer
+     */
+    @SuppressWarnings("unchecked")
+    public T back() { return (T) buffers[back]; }
+
+    /**
+     * Publishes the back buffer to the reader. Must only be used by the writer.
+     */
+    public void publish() {
+        back = middle.getAndSet(back | PUBLISHED) & INDEX;
+    }
+
+    /**
+     * The latest published state. Must only be used by the reader.
+     * The state stays the same until the next call.
+     * @return The front buffer
+     */
+    @SuppressWarnings("unchecked")
+    public T front() {
+        if ((middle.get() & PUBLISHED) != 0) {
+            front = middle.getAndSet(front) & INDEX;
+        }
+        return (T) buffers[front];
+    }
+
+}
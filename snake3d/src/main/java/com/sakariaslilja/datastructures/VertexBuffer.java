@@ -0,0 +1,108 @@
+package com.sakariaslilja.datastructures;
+
+import java.util.Arrays;
+
+/**
+ * Buffer of cube vertices stored as a structure of arrays.
+ * <p> The coordinates of the vertices are stored in one array each.
+ * Cube {@code c} owns the vertices {@code 8c} to {@code 8c + 7},
+ * in the order of {@code CubeTemplate}.
+ * <p> The buffer is reused between frames, so it only allocates
+ * when it has to grow.
+ */
+public class VertexBuffer {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private double[] x = new double[INITIAL_CAPACITY * CubeTemplate.VERTICES];
+    private double[] y = new double[INITIAL_CAPACITY * CubeTemplate.VERTICES];
+    private double[] z = new double[INITIAL_CAPACITY * CubeTemplate.VERTICES];
+    private int cubeCount = 0;
+
+    /**
+     * Removes every cube from the buffer. Keeps the capacity.
+     */
+    public void clear() { cubeCount = 0; }
+
+    /**
+     * @return The number of cubes in the buffer
+     */
+    public int cubeCount() { return cubeCount; }
+
+    /**
+     * @return The number of vertices in the buffer
+     */
+    public int vertexCount() { return cubeCount * CubeTemplate.VERTICES; }
+
+    /**
+     * The x-coordinates of the vertices.
+     * Only the first {@code vertexCount()} values are in use.
+     * @return The backing array of the x-coordinates
+     */
+    public double[] x() { return x; }
+
+    /**
+     * The y-coordinates of the vertices.
+     * Only the first {@code vertexCount()} values are in use.
+     * @return The backing array of the y-coordinates
+     */
+    public double[] y() { return y; }
+
+    /**
+     * The z-coordinates of the vertices.
+     * Only the first {@code vertexCount()} values are in use.
+     * @return The backing array of the z-coordinates
+     */
+    public double[] z() { return z; }
+
+    /**
+     * Writes the vertices of a cube into the buffer.
+     * @param minX The smallest x-coordinate of the cube
+     * @param minY The smallest y-coordinate of the cube
+     * @param minZ The smallest z-coordinate of the cube
+     * @param size The length of the cube's sides
+     * @return The index of the cube
+     */
+    public int addCube(double minX, double minY, double minZ, double size) {
+        int vertex = vertexCount();
+        if (vertex == x.length) { resize(2 * x.length); }
+
+        for (int i = 0; i < CubeTemplate.VERTICES; i++) {
+            x[vertex + i] = minX + CubeTemplate.x(i) * size;
+            y[vertex + i] = minY + CubeTemplate.y(i) * size;
+            z[vertex + i] = minZ + CubeTemplate.z(i) * size;
+        }
+
+        return cubeCount++;
+    }
+
+    /**
+     * Sets the vertices to those between two buffers of the same cubes.
+     * @param previous The vertices to interpolate from
+     * @param current The vertices to interpolate towards
+     * @param alpha How far to interpolate, 0 is the previous vertices and 1 the current
+     */
+    public void interpolate(VertexBuffer previous, VertexBuffer current, double alpha) {
+        int vertexCount = current.vertexCount();
+        if (x.length < vertexCount) { resize(vertexCount); }
+
+        for (int i = 0; i < vertexCount; i++) {
+            x[i] = previous.x[i] + alpha * (current.x[i] - previous.x[i]);
+            y[i] = previous.y[i] + alpha * (current.y[i] - previous.y[i]);
+            z[i] = previous.z[i] + alpha * (current.z[i] - previous.z[i]);
+        }
+
+        cubeCount = current.cubeCount;
+    }
+
+    /**
+     * Grows the buffer.
+     * @param capacity The number of vertices the buffer needs to hold
+     */
+    private void resize(int capacity) {
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        z = Arrays.copyOf(z, capacity);
+    }
+
+}
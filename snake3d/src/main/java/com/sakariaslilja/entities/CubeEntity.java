@@ -4,6 +4,7 @@ import java.util.ArrayList;
 
 import com.sakariaslilja.datastructures.DoubleVector3D;
 import com.sakariaslilja.datastructures.Vector3D;
+import com.sakariaslilja.datastructures.VertexBuffer;
 
 /**
  * Abstract class for all cube entities
@@ -38,5 +39,23 @@ public abstract class CubeEntity extends Entity {
 
         return vertices;
     }
+
+    /**
+     * Writes the world vertices of the entity into a vertex buffer
+     * without creating any objects.
+     * NOT in base UNIT.
+     * @param buffer The buffer to write into
+     * @return The index of the entity's cube in the buffer
+     */
+    public int writeVertices(VertexBuffer buffer) {
+        int offset = (int) (-500 * size());
+        Vector3D position = this.getPosition();
+        return buffer.addCube(
+            (position.getX() + offset) * (1.0 / UNIT),
+            (position.getY() + offset) * (1.0 / UNIT),
+            (position.getZ() + offset) * (1.0 / UNIT),
+            size()
+        );
+    }
     
 }
@@ -4,14 +4,19 @@ import java.util.ArrayList;
 
 import com.sakariaslilja.IConstants;
 import com.sakariaslilja.datastructures.DoubleVector3D;
+import com.sakariaslilja.datastructures.GridCell;
 import com.sakariaslilja.datastructures.Vector3D;
 
 /**
  * Entity class for all entities.
+ * <p> The grid position is cached with integer coordinates and
+ * only computed again when the position or the heading changes.
  */
 public abstract class Entity implements IConstants {
 
     private Vector3D position;
+    private Vector3D gridPos = null;
+    private int cell;
     
     /**
      * Entity with a position.
@@ -36,8 +41,28 @@ public abstract class Entity implements IConstants {
      */
     public void setPosition(Vector3D position) {
         this.position = position;
+        this.gridPos = null;
     }
 
+    /**
+     * Sets the entity's position when its grid cell is already known.
+     * @param position The entity's new position
+     * @param cell The packed grid cell of the new position
+     */
+    protected void setPosition(Vector3D position, int cell) {
+        this.position = position;
+        if (gridPos == null || cell != this.cell) {
+            this.cell = cell;
+            this.gridPos = GridCell.toVector3D(cell);
+        }
+    }
+
+    /**
+     * Marks the cached grid position as outdated,
+     * for when something it depends on changes.
+     */
+    protected void invalidateGridPos() { this.gridPos = null; }
+
     /**
      * Getter for the grid position of the entity.
      * Values are rounded to their closest values exceptions 
@@ -51,10 +76,41 @@ public abstract class Entity implements IConstants {
      * @return Grid coordinates of this entity
      */
     public Vector3D getGridPos() {
-        Vector3D subtractOne = new Vector3D(-1, -1, -1);
-        DoubleVector3D p1 = position.add(subtractOne).toDoubleVector3D();
-        p1.mul(1.0 / UNIT);
-        return p1.toVector3D();
+        if (gridPos == null) {
+            cell = GridCell.pack(
+                gridCoordinate(position.getX(), gridOffset(0)),
+                gridCoordinate(position.getY(), gridOffset(1)),
+                gridCoordinate(position.getZ(), gridOffset(2))
+            );
+            gridPos = GridCell.toVector3D(cell);
+        }
+        return gridPos;
+    }
+
+    /**
+     * The grid position of the entity packed into an int.
+     * @return The packed grid cell of this entity
+     */
+    public int getCell() {
+        getGridPos();
+        return cell;
+    }
+
+    /**
+     * The offset added to a coordinate before rounding it to the grid.
+     * @param axis The axis of the coordinate, 0 for x, 1 for y and 2 for z
+     * @return The offset of the coordinate
+     */
+    protected int gridOffset(int axis) { return -1; }
+
+    /**
+     * Rounds a coordinate to its closest grid coordinate, halves rounded up.
+     * @param coordinate The coordinate in game units
+     * @param offset The offset to add to the coordinate before rounding
+     * @return The grid coordinate
+     */
+    protected static int gridCoordinate(int coordinate, int offset) {
+        return Math.floorDiv(coordinate + offset + UNIT / 2, UNIT);
     }
 
     /**
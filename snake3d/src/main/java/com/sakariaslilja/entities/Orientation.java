@@ -0,0 +1,128 @@
+package com.sakariaslilja.entities;
+
+import java.util.Arrays;
+
+import com.sakariaslilja.datastructures.Heading;
+import com.sakariaslilja.datastructures.Vector3D;
+
+/**
+ * Packs the frame of a movable object, its heading and normal, into a byte.
+ * <p> A frame is stored as {@code heading.ordinal() * 6 + normal.ordinal()},
+ * the same value saved games and snapshots already store. Only the 24 frames
+ * with a normal perpendicular to the heading are valid.
+ * <p> Every turn of every frame is looked up from a table built once,
+ * so turning a frame allocates nothing.
+ */
+public final class Orientation {
+
+    private static final Heading[] HEADINGS = Heading.values();
+    private static final Turn[] TURNS = Turn.values();
+    private static final int SIZE = HEADINGS.length * HEADINGS.length;
+
+    /**
+     * The 24 valid frames.
+     */
+    public static final byte[] ALL = new byte[24];
+
+    private static final boolean[] VALID = new boolean[SIZE];
+    private static final byte[][] TURN_TABLE = new byte[SIZE][TURNS.length];
+    private static final byte[] TURN_BETWEEN = new byte[SIZE * SIZE];
+
+    static {
+        int count = 0;
+        for (int frame = 0; frame < SIZE; frame++) {
+            Vector3D heading = heading((byte) frame).vec;
+            Vector3D normal = normal((byte) frame).vec;
+            if (heading.crossProd(normal).equals(new Vector3D(0, 0, 0))) { continue; }
+
+            ALL[count++] = (byte) frame;
+            VALID[frame] = true;
+            TURN_TABLE[frame][Turn.L.ordinal()] = of(normal.crossProd(heading), normal);
+            TURN_TABLE[frame][Turn.R.ordinal()] = of(heading.crossProd(normal), normal);
+            TURN_TABLE[frame][Turn.D.ordinal()] = of(normal.neg(), heading);
+            TURN_TABLE[frame][Turn.U.ordinal()] = of(normal, heading.neg());
+            TURN_TABLE[frame][Turn.N.ordinal()] = (byte) frame;
+        }
+
+        // Frames no turn leads between are N
+        Arrays.fill(TURN_BETWEEN, (byte) Turn.N.ordinal());
+        for (byte frame : ALL) {
+            for (Turn turn : TURNS) {
+                byte to = TURN_TABLE[frame][turn.ordinal()];
+                if (turn != Turn.N && to != frame) { TURN_BETWEEN[frame * SIZE + to] = (byte) turn.ordinal(); }
+            }
+        }
+    }
+
+    private Orientation() {}
+
+    /**
+     * Packs a frame.
+     * @param heading The heading of the frame
+     * @param normal The normal of the frame
+     * @return The packed frame
+     */
+    public static byte of(Heading heading, Heading normal) {
+        return (byte) (heading.ordinal() * HEADINGS.length + normal.ordinal());
+    }
+
+    /**
+     * Packs a frame given as vectors.
+     * @param heading A unit vector along an axis
+     * @param normal A unit vector along an axis
+     * @return The packed frame
+     */
+    public static byte of(Vector3D heading, Vector3D normal) {
+        return of(toHeading(heading), toHeading(normal));
+    }
+
+    /**
+     * @param frame The packed frame
+     * @return The heading of the frame
+     */
+    public static Heading heading(byte frame) { return HEADINGS[frame / HEADINGS.length]; }
+
+    /**
+     * @param frame The packed frame
+     * @return The normal of the frame
+     */
+    public static Heading normal(byte frame) { return HEADINGS[frame % HEADINGS.length]; }
+
+    /**
+     * @param frame The packed frame
+     * @return If the normal of the frame is perpendicular to its heading
+     */
+    public static boolean isValid(byte frame) {
+        return frame >= 0 && frame < SIZE && VALID[frame];
+    }
+
+    /**
+     * Turns a frame the same way {@code Snake} turns.
+     * @param frame The packed frame to turn, must be valid
+     * @param turn The turn to take
+     * @return The turned frame
+     */
+    public static byte turn(byte frame, Turn turn) {
+        return TURN_TABLE[frame][turn.ordinal()];
+    }
+
+    /**
+     * @param from The frame before the turn
+     * @param to The frame after the turn
+     * @return The turn between the frames, N if no single turn leads between them
+     */
+    public static Turn between(byte from, byte to) {
+        return TURNS[TURN_BETWEEN[from * SIZE + to]];
+    }
+
+    /**
+     * @param vec A unit vector along an axis
+     * @return The heading of the vector
+     */
+    private static Heading toHeading(Vector3D vec) {
+        if (vec.getX() != 0) { return vec.getX() < 0 ? Heading.LEFT : Heading.RIGHT; }
+        if (vec.getY() != 0) { return vec.getY() < 0 ? Heading.UP : Heading.DOWN; }
+        return vec.getZ() < 0 ? Heading.BACKWARD : Heading.FORWARD;
+    }
+
+}
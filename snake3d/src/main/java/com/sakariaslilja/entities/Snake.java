@@ -1,16 +1,18 @@
 package com.sakariaslilja.entities;
 
-import com.sakariaslilja.datastructures.DoubleVector3D;
+import com.sakariaslilja.datastructures.GridCell;
 import com.sakariaslilja.datastructures.Heading;
 import com.sakariaslilja.datastructures.Vector3D;
 import com.sakariaslilja.models.SnakeModel;
 
 /**
  * Snake class.
+ * <p> The heading and normal are stored as a packed {@code Orientation}
+ * frame, so turning the snake is a table lookup.
  */
 public class Snake extends CubeEntity implements IMovable {
 
-    private Vector3D heading, normal;
+    private byte frame;
     private Turn nextTurn;
 
     /**
@@ -22,8 +24,7 @@ public class Snake extends CubeEntity implements IMovable {
      */
     public Snake(Vector3D position, Heading heading, Heading normal, Turn nextTurn) {
         super(position);
-        this.heading = heading.vec;
-        this.normal = normal.vec;
+        this.frame = Orientation.of(heading, normal);
         this.nextTurn = nextTurn;
     }
 
@@ -47,49 +48,74 @@ public class Snake extends CubeEntity implements IMovable {
      */
     public Snake(Vector3D position, Vector3D heading, Vector3D normal, Turn nextTurn) {
         super(position);
-        this.heading = heading;
-        this.normal = normal;
+        this.frame = Orientation.of(heading, normal);
         this.nextTurn = nextTurn;
     }
 
     @Override
-    public Vector3D getHeading() { return heading; }
-    public Vector3D getNormal() { return normal; }
+    public Vector3D getHeading() { return Orientation.heading(frame).vec; }
+    public Vector3D getNormal() { return Orientation.normal(frame).vec; }
+
+    /**
+     * @return The packed frame of the snake
+     */
+    public byte getFrame() { return frame; }
 
     /**
      * Moving the snake will update its position by adding its heading to it.
+     * Only the coordinate along the heading changes, so the grid position
+     * only changes when that coordinate crosses into the next cell.
      */
     @Override
     public void move() {
-        this.setPosition(this.getPosition().add(heading.mul(STEP_SIZE)));
+        Vector3D position = this.getPosition();
+        Vector3D heading = getHeading();
+        int cell = this.getCell();
+        int axis = heading.getX() != 0 ? 0 : heading.getY() != 0 ? 1 : 2;
+        int before = coordinate(position, axis);
+        int after = before + STEP_SIZE * coordinate(heading, axis);
+        if (gridCoordinate(after, gridOffset(axis)) != gridCoordinate(before, gridOffset(axis))) {
+            cell = GridCell.add(cell, heading);
+        }
+        this.setPosition(position.add(heading.mul(STEP_SIZE)), cell);
+    }
+
+    /**
+     * @param vec The vector
+     * @param axis The axis, 0 for x, 1 for y and 2 for z
+     * @return The vector's coordinate on the axis
+     */
+    private static int coordinate(Vector3D vec, int axis) {
+        return axis == 0 ? vec.getX() : axis == 1 ? vec.getY() : vec.getZ();
     }
 
     /**
      * Turns the snake's head to the left
      */
-    public void turnLeft() { heading = normal.crossProd(heading); }
+    public void turnLeft() { turn(Turn.L); }
 
     /**
      * Turns the snake's head to the right
      */
-    public void turnRight() { heading = heading.crossProd(normal); }
+    public void turnRight() { turn(Turn.R); }
 
     /**
      * Turns the snake's head downward
      */
-    public void turnDown() {
-        Vector3D newHeading = normal.neg();
-        normal = heading;
-        heading = newHeading;
-    }
+    public void turnDown() { turn(Turn.D); }
 
     /**
      * Turns the snake's head upward
      */
-    public void turnUp() {
-        Vector3D newNormal = heading.neg();
-        heading = normal;
-        normal = newNormal;
+    public void turnUp() { turn(Turn.U); }
+
+    /**
+     * Turns the snake's head.
+     * @param turn The turn to take
+     */
+    private void turn(Turn turn) {
+        frame = Orientation.turn(frame, turn);
+        invalidateGridPos();
     }
 
     public Turn getTurn() { return nextTurn; }
@@ -103,22 +129,7 @@ public class Snake extends CubeEntity implements IMovable {
      * Applies the next turn to this snake object
      */
     public void applyTurn() {
-        switch (nextTurn) {
-            case U:
-                turnUp();
-                break;
-            case D:
-                turnDown();
-                break;
-            case L:
-                turnLeft();
-                break;
-            case R:
-                turnRight();
-                break;        
-            default:
-                break;
-        }
+        if (nextTurn != Turn.N) { turn(nextTurn); }
     }
 
     /**
@@ -129,39 +140,22 @@ public class Snake extends CubeEntity implements IMovable {
         model.x = this.getPosition().getX();
         model.y = this.getPosition().getY();
         model.z = this.getPosition().getZ();
-
-        Heading heading_;
-        if (heading.equals(Heading.BACKWARD.vec)) { heading_ = Heading.BACKWARD; }
-        else if (heading.equals(Heading.LEFT.vec)) { heading_ = Heading.LEFT; }
-        else if (heading.equals(Heading.RIGHT.vec)) { heading_ = Heading.RIGHT; }
-        else if (heading.equals(Heading.UP.vec)) { heading_ = Heading.UP; }
-        else if (heading.equals(Heading.DOWN.vec)) { heading_ = Heading.DOWN; }
-        else { heading_ = Heading.FORWARD; }
-        model.heading = heading_;
-
-        Heading normal_;
-        if (normal.equals(Heading.FORWARD.vec)) { normal_ = Heading.FORWARD; }
-        else if (normal.equals(Heading.BACKWARD.vec)) { normal_ = Heading.BACKWARD; }
-        else if (normal.equals(Heading.LEFT.vec)) { normal_ = Heading.LEFT; }
-        else if (normal.equals(Heading.RIGHT.vec)) { normal_ = Heading.RIGHT; }
-        else if (normal.equals(Heading.DOWN.vec)) { normal_ = Heading.DOWN; }
-        else { normal_ = Heading.UP; }
-        model.normal = normal_;
+        model.heading = Orientation.heading(frame);
+        model.normal = Orientation.normal(frame);
 
         model.nextTurn = this.nextTurn;
 
         return model;
     }
 
+    /**
+     * A snake moving backwards along an axis is in a cell until it
+     * has fully left it, so its offset is a unit back on that axis.
+     */
     @Override
-    public Vector3D getGridPos() {
-        Vector3D offset = new Vector3D(-1, -1, -1);
-        if (heading.exists(i -> i < 0)) {
-            offset = offset.add(heading.mul(UNIT - 1));
-        }
-        DoubleVector3D p1 = getPosition().add(offset).toDoubleVector3D();
-        p1.mul(1.0 / UNIT);
-        return p1.toVector3D();
+    protected int gridOffset(int axis) {
+        int direction = coordinate(getHeading(), axis);
+        return direction < 0 ? -UNIT : -1;
     }
 
     @Override
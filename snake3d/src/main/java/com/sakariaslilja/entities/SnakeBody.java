@@ -0,0 +1,291 @@
+package com.sakariaslilja.entities;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.sakariaslilja.IConstants;
+import com.sakariaslilja.datastructures.GridCell;
+import com.sakariaslilja.datastructures.Heading;
+import com.sakariaslilja.datastructures.Vector3D;
+import com.sakariaslilja.datastructures.VertexBuffer;
+
+/**
+ * The segments of a snake stored in primitive ring buffers.
+ * <p>
+ * Each segment is stored as the packed grid cell it is moving into and
+ * the frame (heading and normal) it is moving with. Segment 0 is the head.
+ * Every segment follows the one in front of it, so moving the snake into
+ * new cells only pushes a cell in front of the head and drops the tail.
+ * The turn each segment takes follows from the frames of neighbouring
+ * segments, so turns never need to be shifted down the body.
+ * <p>
+ * All segments are at the same point between two cells, stored as the
+ * progress towards the cells they are moving into.
+ */
+public class SnakeBody implements IConstants {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int[] cells = new int[INITIAL_CAPACITY];
+    private byte[] frames = new byte[INITIAL_CAPACITY];
+    private int head = 0;
+    private int length = 0;
+    private int progress = UNIT;
+    private byte headFrame;
+
+    /**
+     * Creates a snake body from snake segments.
+     * The first segment is the head.
+     * @param segments The segments of the snake
+     */
+    public SnakeBody(List<Snake> segments) {
+        if (segments.isEmpty()) { return; }
+
+        byte[] orientations = new byte[segments.size()];
+        for (Snake segment : segments) {
+            if (length == cells.length) { resize(); }
+            cells[length] = segment.getCell();
+            orientations[length] = segment.getFrame();
+            length++;
+        }
+
+        progress = progressOf(segments.get(0));
+        headFrame = orientations[0];
+
+        // A grid aligned snake has already turned at its cells,
+        // i.e. each segment has the frame of the segment in front of it
+        boolean aligned = isGridAligned();
+        for (int i = 0; i < length; i++) {
+            frames[i] = aligned && i < length - 1 ? orientations[i + 1] : orientations[i];
+        }
+    }
+
+    /**
+     * Creates a snake body from the state of another body.
+     * @param cells The packed grid cells of the segments, head first
+     * @param frames The frames the segments are moving with, head first
+     * @param headFrame The frame of the head
+     * @param progress The progress of every segment towards the center of its cell
+     */
+    public SnakeBody(int[] cells, int[] frames, int headFrame, int progress) {
+        while (this.cells.length < cells.length) { resize(); }
+        for (int i = 0; i < cells.length; i++) {
+            this.cells[i] = cells[i];
+            this.frames[i] = (byte) frames[i];
+        }
+        this.length = cells.length;
+        this.headFrame = (byte) headFrame;
+        this.progress = progress;
+    }
+
+    /**
+     * The progress of a segment towards the center of its grid cell.
+     * Rounded to whole steps.
+     * @param segment The segment
+     * @return The progress between one step and a unit
+     */
+    private static int progressOf(Snake segment) {
+        Vector3D center = segment.getGridPos().mul(UNIT).add(new Vector3D(500, 500, 500));
+        Vector3D remaining = center.add(segment.getPosition().neg());
+        Vector3D heading = segment.getHeading();
+        int distance = remaining.getX() * heading.getX() + remaining.getY() * heading.getY() + remaining.getZ() * heading.getZ();
+        if (distance <= 0 || distance >= UNIT) { return UNIT; }
+        int progress = UNIT - distance;
+        return Integer.max(STEP_SIZE, progress - progress % STEP_SIZE);
+    }
+
+    /**
+     * @param i The segment's index
+     * @return The ring buffer slot of the segment
+     */
+    private int slot(int i) { return (head + i) & (cells.length - 1); }
+
+    /**
+     * @return The number of segments
+     */
+    public int length() { return length; }
+
+    /**
+     * The grid position of a segment, i.e. the cell it occupies.
+     * @param i The segment's index
+     * @return The packed grid cell of the segment
+     */
+    public int cell(int i) { return cells[slot(i)]; }
+
+    /**
+     * The frame a segment is moving with, packed for saving the body.
+     * @param i The segment's index
+     * @return The packed frame of the segment
+     */
+    public int frame(int i) { return frames[slot(i)]; }
+
+    /**
+     * @return The packed frame of the head, for saving the body
+     */
+    public int headFrame() { return headFrame; }
+
+    /**
+     * @return The packed grid cell of the last segment
+     */
+    public int tailCell() { return cell(length - 1); }
+
+    /**
+     * @return The progress of every segment towards the center of its cell
+     */
+    public int progress() { return progress; }
+
+    /**
+     * @return If every segment is at the center of its cell
+     */
+    public boolean isGridAligned() { return progress == UNIT; }
+
+    /**
+     * The frame a segment is currently facing.
+     * A grid aligned segment has already turned towards its next cell.
+     * @param i The segment's index
+     * @return The frame of the segment
+     */
+    private byte orientation(int i) {
+        if (!isGridAligned()) { return frames[slot(i)]; }
+        return i == 0 ? headFrame : frames[slot(i - 1)];
+    }
+
+    /**
+     * @param i The segment's index
+     * @return The heading of the segment
+     */
+    public Heading heading(int i) { return headingOf(orientation(i)); }
+
+    /**
+     * @param i The segment's index
+     * @return The normal of the segment
+     */
+    public Heading normal(int i) { return normalOf(orientation(i)); }
+
+    /**
+     * The turn a segment takes at the center of its next cell.
+     * @param i The segment's index
+     * @return The next turn of the segment
+     */
+    public Turn nextTurn(int i) {
+        if (i == 0) { return Turn.N; }
+        return Orientation.between(orientation(i), orientation(i - 1));
+    }
+
+    /**
+     * The world position of a segment.
+     * @param i The segment's index
+     * @return The position of the segment
+     */
+    public Vector3D position(int i) {
+        int cell = cell(i);
+        Vector3D center = new Vector3D(GridCell.x(cell), GridCell.y(cell), GridCell.z(cell)).mul(UNIT).add(new Vector3D(500, 500, 500));
+        return center.add(headingOf(frames[slot(i)]).vec.mul(progress - UNIT));
+    }
+
+    /**
+     * Writes the world vertices of segments into a vertex buffer
+     * without creating any objects. Segments are unit cubes.
+     * NOT in base UNIT.
+     * @param buffer The buffer to write into
+     * @param from The index of the first segment to write
+     */
+    public void writeVertices(VertexBuffer buffer, int from) {
+        writeVertices(buffer, from, 0);
+    }
+
+    /**
+     * Writes the world vertices of segments into a vertex buffer
+     * as they were a distance back along their headings.
+     * Used for drawing the snake between two steps.
+     * NOT in base UNIT.
+     * @param buffer The buffer to write into
+     * @param from The index of the first segment to write
+     * @param lag The distance back, in game units
+     */
+    public void writeVertices(VertexBuffer buffer, int from, double lag) {
+        double offset = progress - UNIT - lag;
+        for (int i = from; i < length; i++) {
+            int slot = slot(i);
+            int cell = cells[slot];
+            Vector3D heading = headingOf(frames[slot]).vec;
+            // The corner of the segment is half a unit from its center
+            double x = GridCell.x(cell) * UNIT + heading.getX() * offset;
+            double y = GridCell.y(cell) * UNIT + heading.getY() * offset;
+            double z = GridCell.z(cell) * UNIT + heading.getZ() * offset;
+            buffer.addCube(x * (1.0 / UNIT), y * (1.0 / UNIT), z * (1.0 / UNIT), 1);
+        }
+    }
+
+    /**
+     * Moves every segment one step.
+     * When the segments leave the centers of their cells,
+     * the head enters a new cell and the tail leaves its cell.
+     */
+    public void move() {
+        if (isGridAligned()) {
+            int next = GridCell.add(cell(0), headingOf(headFrame).vec);
+            head = (head - 1) & (cells.length - 1);
+            cells[head] = next;
+            frames[head] = headFrame;
+            progress = STEP_SIZE;
+        }
+        else {
+            progress += STEP_SIZE;
+        }
+    }
+
+    /**
+     * Turns the head. Must only be used when the snake is grid aligned.
+     * @param turn The turn to take
+     */
+    public void turnHead(Turn turn) {
+        headFrame = Orientation.turn(headFrame, turn);
+    }
+
+    /**
+     * Grows the snake by one segment behind the tail.
+     * @return The packed grid cell of the new segment
+     */
+    public int grow() {
+        if (length == cells.length) { resize(); }
+        int tail = slot(length - 1);
+        int cell = GridCell.add(cells[tail], headingOf(frames[tail]).vec.neg());
+        int slot = slot(length);
+        cells[slot] = cell;
+        frames[slot] = frames[tail];
+        length++;
+        return cell;
+    }
+
+    /**
+     * Doubles the capacity of the ring buffers.
+     */
+    private void resize() {
+        int[] newCells = new int[2 * cells.length];
+        byte[] newFrames = new byte[2 * cells.length];
+        for (int i = 0; i < length; i++) {
+            newCells[i] = cells[slot(i)];
+            newFrames[i] = frames[slot(i)];
+        }
+        cells = newCells;
+        frames = newFrames;
+        head = 0;
+    }
+
+    /**
+     * Creates a snake entity for every segment.
+     * @return The segments of this snake
+     */
+    public ArrayList<Snake> toSnakes() {
+        ArrayList<Snake> segments = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            segments.add(new Snake(position(i), heading(i), normal(i), nextTurn(i)));
+        }
+        return segments;
+    }
+
+    private static Heading headingOf(byte frame) { return Orientation.heading(frame); }
+    private static Heading normalOf(byte frame) { return Orientation.normal(frame); }
+
+}
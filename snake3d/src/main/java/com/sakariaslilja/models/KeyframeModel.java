@@ -0,0 +1,58 @@
+package com.sakariaslilja.models;
+
+/**
+ * Keyframe model used for Gson (de)serialization.
+ * The full state of a game engine on one tick,
+ * which the engine can be restored to.
+ */
+public class KeyframeModel {
+
+    public long tick = 0;
+    public int score = 0;
+    public boolean gameOver = false;
+    public double qW = 1;
+    public double qX = 0;
+    public double qY = 0;
+    public double qZ = 0;
+
+    /**
+     * The state of the engine's random generator
+     */
+    public long random = 0;
+
+    /**
+     * The snake's segments as packed grid cells and frames, head first,
+     * the frame of the head and the progress towards the cells
+     */
+    public int[] snakeCells = {};
+    public int[] snakeFrames = {};
+    public int headFrame = 0;
+    public int progress = 0;
+
+    /**
+     * The packed grid cells of the apples, in the order they spawned
+     */
+    public int[] apples = {};
+
+    /**
+     * The turn being taken, -1 for none, how far it has come
+     * in degrees and the tick it was queued on
+     */
+    public int turn = -1;
+    public int turnDegrees = 0;
+    public long turnTick = 0;
+
+    /**
+     * The queued turns and the ticks they were queued on
+     */
+    public int[] pendingTurns = {};
+    public long[] pendingTicks = {};
+
+    /**
+     * The position in the replay's inputs of the first input on this tick
+     * and the tick of the input before it
+     */
+    public int inputOffset = 0;
+    public long inputTick = 0;
+
+}
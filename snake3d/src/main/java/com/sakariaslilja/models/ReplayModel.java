@@ -0,0 +1,54 @@
+package com.sakariaslilja.models;
+
+import java.util.ArrayList;
+
+/**
+ * Replay model used for Gson (de)serialization.
+ * A game is replayed from its starting state and the player's inputs.
+ */
+public class ReplayModel {
+
+    /**
+     * The version of the engine replays are recorded with,
+     * bumped whenever a change makes old replays play out differently
+     */
+    public static final int VERSION = 5;
+
+    /**
+     * The version of the engine the replay was recorded with
+     */
+    public int version = VERSION;
+
+    /**
+     * The state the game started from, including its seed and world size
+     */
+    public GameModel game = new GameModel();
+
+    /**
+     * The turn inputs in base64, one varint per input:
+     * the ticks since the previous input shifted left by two, or'd with the input's ordinal
+     */
+    public String inputs = "";
+
+    /**
+     * The number of ticks between keyframes
+     */
+    public int keyframeInterval = 0;
+
+    /**
+     * The full state of the game every {@code keyframeInterval} ticks,
+     * the keyframe at index i is of tick {@code i * keyframeInterval}
+     */
+    public ArrayList<KeyframeModel> keyframes = new ArrayList<>();
+
+    /**
+     * The number of ticks the game ran for
+     */
+    public long ticks = 0;
+
+    /**
+     * The state hash of the game after the last tick
+     */
+    public long hash = 0;
+
+}
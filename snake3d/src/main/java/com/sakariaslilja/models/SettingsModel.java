@@ -13,5 +13,8 @@ public class SettingsModel {
     public String edgeColor = "#6495ED";
     public String snakeColor = "#F5F5F5";
     public String appleColor = "#00CCCC";
+
+    // Runs the game's engine on its own thread instead of the JavaFX thread
+    public boolean simulationThread = false;
     
 }
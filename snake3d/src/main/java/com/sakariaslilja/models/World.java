@@ -6,7 +6,6 @@ import com.sakariaslilja.datastructures.Tuple;
 import com.sakariaslilja.datastructures.Vector3D;
 
 import java.util.ArrayList;
-import java.util.function.Predicate;
 
 /**
  * An instance of a world with a set width, height and depth.
@@ -132,6 +131,107 @@ public class World implements IConstants {
         return out;
     }
 
+    /**
+     * Consumer of an edge between two grid vertices.
+     */
+    @FunctionalInterface
+    public interface EdgeConsumer {
+        void accept(int x1, int y1, int z1, int x2, int y2, int z2);
+    }
+
+    /**
+     * @param coordinate The coordinate of a vertex
+     * @param size The size of the world along the coordinate's axis
+     * @return If the coordinate is on one of the two walls of the axis
+     */
+    private static boolean onWall(int coordinate, int size) {
+        return coordinate == 0 || coordinate == size;
+    }
+
+    /**
+     * Enumerates every edge of the world's walls without creating the vertices.
+     * An edge is the connection between two neighbouring vertices
+     * and is on a wall if either of its fixed coordinates is on a wall.
+     * Edges come in the same order as {@code getEdges}.
+     * @param consumer Consumer that receives each edge
+     */
+    public void forEachEdge(EdgeConsumer consumer) {
+        // Left to right
+        for (int layer = 0; layer <= depth; layer++) {
+            for (int row = 0; row <= height; row++) {
+                if (!onWall(row, height) && !onWall(layer, depth)) { continue; }
+                for (int column = 0; column < width; column++) {
+                    consumer.accept(column, row, layer, column + 1, row, layer);
+                }
+            }
+        }
+
+        // Top to bottom
+        for (int layer = 0; layer <= depth; layer++) {
+            for (int column = 0; column <= width; column++) {
+                if (!onWall(column, width) && !onWall(layer, depth)) { continue; }
+                for (int row = 0; row < height; row++) {
+                    consumer.accept(column, row, layer, column, row + 1, layer);
+                }
+            }
+        }
+
+        // Front to back
+        for (int row = 0; row <= height; row++) {
+            for (int column = 0; column <= width; column++) {
+                if (!onWall(column, width) && !onWall(row, height)) { continue; }
+                for (int layer = 0; layer < depth; layer++) {
+                    consumer.accept(column, row, layer, column, row, layer + 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Enumerates every grid line of the world's walls.
+     * A line spans the whole world and is the same as the edges
+     * of {@code forEachEdge} along it joined together.
+     * Lines come in the same order as the edges.
+     * @param consumer Consumer that receives the end points of each line
+     */
+    public void forEachLine(EdgeConsumer consumer) {
+        // Left to right
+        for (int layer = 0; layer <= depth; layer++) {
+            for (int row = 0; row <= height; row++) {
+                if (!onWall(row, height) && !onWall(layer, depth)) { continue; }
+                consumer.accept(0, row, layer, width, row, layer);
+            }
+        }
+
+        // Top to bottom
+        for (int layer = 0; layer <= depth; layer++) {
+            for (int column = 0; column <= width; column++) {
+                if (!onWall(column, width) && !onWall(layer, depth)) { continue; }
+                consumer.accept(column, 0, layer, column, height, layer);
+            }
+        }
+
+        // Front to back
+        for (int row = 0; row <= height; row++) {
+            for (int column = 0; column <= width; column++) {
+                if (!onWall(column, width) && !onWall(row, height)) { continue; }
+                consumer.accept(column, row, 0, column, row, depth);
+            }
+        }
+    }
+
+    /**
+     * Every grid line of the world's walls.
+     * Drawing the lines draws the same as drawing every edge,
+     * with one line per row of edges.
+     * @return [Tuple] array containing every line of the world's walls.
+     */
+    public ArrayList<Tuple> getLines() {
+        ArrayList<Tuple> lines = new ArrayList<Tuple>();
+        forEachLine((x1, y1, z1, x2, y2, z2) -> lines.add(new Tuple(new DoubleVector3D(x1, y1, z1), new DoubleVector3D(x2, y2, z2))));
+        return lines;
+    }
+
     /**
      * Every edge of the world's walls.
      * An edge is the connection between two vertices.
@@ -145,49 +245,8 @@ public class World implements IConstants {
      * @return [Tuple] array containing every edge present in the world's walls.
      */
     public ArrayList<Tuple> getEdges() {
-        int columns = this.width + 1;
-        int rows = this.height + 1;
-        int layers = this.depth + 1;
-        int[] dimensions = {columns, rows, layers};
-
-        Vector3D[][] verticesArr = this.getVertices();
-        int vertexCount = verticesArr[0].length;
-
         ArrayList<Tuple> edges = new ArrayList<Tuple>();
-
-        Predicate<Double> isZero = (d) -> d.doubleValue() == 0;
-
-        Predicate<DoubleVector3D> hasZero = (v) -> v.exists(isZero);
-        Predicate<DoubleVector3D> hasValidX = (v) -> v.getX() == 0 || v.getX() == width;
-        Predicate<DoubleVector3D> hasValidY = (v) -> v.getY() == 0 || v.getY() == height;
-        Predicate<DoubleVector3D> hasValidZ = (v) -> v.getZ() == 0 || v.getZ() == depth;
-
-        ArrayList<Predicate<DoubleVector3D>> predicates = new ArrayList<>();
-        predicates.add(hasValidX);
-        predicates.add(hasValidY);
-        predicates.add(hasValidZ);
-
-        for (int arr = 0; arr < verticesArr.length; arr++) {
-            ArrayList<Integer> predIndex = new ArrayList<>();
-            predIndex.add(0);
-            predIndex.add(1);
-            predIndex.add(2);
-            predIndex.remove(arr);
-
-            for (int i = 1; i < vertexCount; i++) {
-                if (i % dimensions[arr] == 0) {
-                    continue;
-                }
-                DoubleVector3D first = verticesArr[arr][i-1].toDoubleVector3D();
-                DoubleVector3D second = verticesArr[arr][i].toDoubleVector3D();
-    
-                Tuple tuple = new Tuple(first, second);
-                if (tuple.forAll(hasZero) || tuple.forAll(predicates.get(predIndex.get(0))) || tuple.forAll(predicates.get(predIndex.get(1)))) {
-                    edges.add(tuple);
-                }
-            }
-        }
-        
+        forEachEdge((x1, y1, z1, x2, y2, z2) -> edges.add(new Tuple(new DoubleVector3D(x1, y1, z1), new DoubleVector3D(x2, y2, z2))));
         return edges;
     }
     
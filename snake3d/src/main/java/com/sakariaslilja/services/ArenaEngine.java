@@ -0,0 +1,438 @@
+package com.sakariaslilja.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import com.sakariaslilja.IConstants;
+import com.sakariaslilja.datastructures.CellMap;
+import com.sakariaslilja.datastructures.GameRandom;
+import com.sakariaslilja.datastructures.GridCell;
+import com.sakariaslilja.datastructures.Heading;
+import com.sakariaslilja.datastructures.OccupancyGrid;
+import com.sakariaslilja.datastructures.Vector3D;
+import com.sakariaslilja.entities.Apple;
+import com.sakariaslilja.entities.Snake;
+import com.sakariaslilja.entities.SnakeBody;
+import com.sakariaslilja.entities.Turn;
+
+/**
+ * Headless engine for many snakes in one world, played by local players or bots.
+ * <p> Each snake moves and turns the same way the snake of {@code GameEngine}
+ * does: it stops for the ticks of a turn and then carries on. A tick runs in phases:
+ * <ol>
+ * <li> The policies of the snakes choose their inputs, in parallel.
+ * <li> Every snake turns or moves, in parallel. A snake only changes its own
+ *      state and remembers the cells its head entered and its tail left.
+ * <li> The moves are resolved in snake order on the calling thread: the left
+ *      cells are vacated and the entered cells occupied in the shared grid,
+ *      apples are eaten, and the snakes that ran into a wall, another snake or
+ *      themselves die. Two heads entering the same cell both die, as do two
+ *      snakes of one segment swapping cells.
+ * <li> Eaten apples are respawned.
+ * </ol>
+ * Only the resolve phase touches shared state, so an arena plays the same
+ * game with or without a pool, and on any number of threads.
+ */
+public class ArenaEngine implements IConstants {
+
+    // Fewer snakes than this are not worth splitting between threads
+    private static final int PARALLEL_THRESHOLD = 64;
+    private static final int NONE = -1;
+
+    private final OccupancyGrid grid;
+    private final GameRandom random;
+    private final ForkJoinPool pool;
+    private final int appleLimit;
+
+    private final ArrayList<ArenaSnake> snakes = new ArrayList<>();
+    private final ArrayList<Apple> apples = new ArrayList<>();
+    // The position of each apple in the list of apples, by its packed cell
+    private final CellMap<Integer> appleIndex;
+    private final CellMap<ArenaSnake> enteredBy = new CellMap<>(PARALLEL_THRESHOLD);
+    // The collisions of the tick by the index of the snake, grown when snakes are added
+    private boolean[] collided = new boolean[0];
+    private long tick = 0;
+
+    private ArenaListener listener = null;
+
+    /**
+     * The state of one snake in the arena.
+     */
+    private static class ArenaSnake {
+        SnakeBody body;
+        ArenaPolicy policy;
+        TurnBuffer pendingTurns = new TurnBuffer(TURN_BUFFER_SIZE);
+        Turn currentTurn = null;
+        int turnDegrees = 0;
+        boolean alive = true;
+        int score = 0;
+
+        // The cells changed by the last move, NONE if the snake didn't enter a new cell
+        int enteredCell = NONE;
+        int leftCell = NONE;
+    }
+
+    /**
+     * Creates an empty arena.
+     * @param width The width of the world
+     * @param height The height of the world
+     * @param depth The depth of the world
+     * @param appleLimit The number of apples kept in the world
+     * @param seed The seed of the apple spawns
+     * @param pool The pool to run the parallel phases on, null to run them on the calling thread
+     */
+    public ArenaEngine(int width, int height, int depth, int appleLimit, long seed, ForkJoinPool pool) {
+        this.grid = new OccupancyGrid(width, height, depth);
+        this.random = new GameRandom(seed);
+        this.pool = pool;
+        this.appleLimit = appleLimit;
+        this.appleIndex = new CellMap<>(appleLimit);
+    }
+
+    /**
+     * @param listener The listener of the arena's changes, null for none
+     */
+    public void setListener(ArenaListener listener) { this.listener = listener; }
+
+    // Arena getters
+
+    public long getTick() { return tick; }
+    public int getWorldWidth() { return grid.getWidth(); }
+    public int getWorldHeight() { return grid.getHeight(); }
+    public int getWorldDepth() { return grid.getDepth(); }
+    public ArrayList<Apple> getApples() { return apples; }
+
+    /**
+     * @return The number of snakes added to the arena, dead or alive
+     */
+    public int snakeCount() { return snakes.size(); }
+
+    /**
+     * @return The number of snakes still alive
+     */
+    public int aliveCount() {
+        int alive = 0;
+        for (ArenaSnake snake : snakes) { if (snake.alive) { alive++; } }
+        return alive;
+    }
+
+    /**
+     * @param snake The index of the snake
+     * @return The segments of the snake
+     */
+    public SnakeBody getSnakeBody(int snake) { return snakes.get(snake).body; }
+
+    /**
+     * @param snake The index of the snake
+     * @return If the snake is alive
+     */
+    public boolean isAlive(int snake) { return snakes.get(snake).alive; }
+
+    /**
+     * @param snake The index of the snake
+     * @return The number of apples the snake has eaten
+     */
+    public int getScore(int snake) { return snakes.get(snake).score; }
+
+    /**
+     * @param snake The index of the snake
+     * @return If the snake is taking a turn
+     */
+    public boolean isTurning(int snake) { return snakes.get(snake).currentTurn != null; }
+
+    /**
+     * Adds a snake to the arena.
+     * @param segments The segments of the snake, starting from the head
+     * @param policy The bot playing the snake, null for a player
+     * @return The index of the snake
+     */
+    public int addSnake(List<Snake> segments, ArenaPolicy policy) {
+        ArenaSnake snake = new ArenaSnake();
+        snake.body = new SnakeBody(segments);
+        snake.policy = policy;
+        for (int i = 0; i < snake.body.length(); i++) { occupy(snake.body.cell(i)); }
+        snakes.add(snake);
+        if (collided.length < snakes.size()) { collided = new boolean[Integer.max(2 * collided.length, snakes.size())]; }
+        if (listener != null) { listener.snakeAdded(snakes.size() - 1); }
+        return snakes.size() - 1;
+    }
+
+    /**
+     * Adds a snake of one segment at the center of a random free cell.
+     * @param heading The heading of the snake
+     * @param normal The normal of the snake
+     * @param policy The bot playing the snake, null for a player
+     * @return The index of the snake, -1 if every cell is occupied
+     */
+    public int spawnSnake(Heading heading, Heading normal, ArenaPolicy policy) {
+        int index = grid.randomFreeCell(random);
+        if (index == -1) { return -1; }
+
+        ArrayList<Snake> segments = new ArrayList<>();
+        segments.add(new Snake(center(grid.cell(index)), heading, normal));
+        return addSnake(segments, policy);
+    }
+
+    /**
+     * Adds an apple. Used for testing.
+     * @param gridPos The grid position of the apple
+     */
+    protected void addApple(Vector3D gridPos) {
+        Apple apple = new Apple(center(gridPos));
+        appleIndex.put(apple.getCell(), apples.size());
+        apples.add(apple);
+        grid.occupy(gridPos);
+        if (listener != null) { listener.appleSpawned(apple.getCell()); }
+    }
+
+    /**
+     * Queues a turn for a snake, for local players.
+     * Must be called on the thread that updates the arena.
+     * @param snake The index of the snake
+     * @param input The input of the player, pausing is ignored
+     */
+    public void handleInput(int snake, Input input) {
+        Turn turn = input.toTurn();
+        if (turn != null) { turn(snake, turn); }
+    }
+
+    /**
+     * Queues a turn for a snake, for remote players.
+     * Must be called on the thread that updates the arena.
+     * @param snake The index of the snake
+     * @param turn The turn to queue, not turning is ignored
+     */
+    public void turn(int snake, Turn turn) {
+        if (turn != Turn.N) { snakes.get(snake).pendingTurns.offer(turn, tick); }
+    }
+
+    /**
+     * Advances the arena by a number of ticks.
+     * @param ticks The number of ticks to advance
+     */
+    public void step(int ticks) {
+        for (int i = 0; i < ticks; i++) { update(); }
+    }
+
+    /**
+     * Advances the arena by one tick.
+     */
+    public void update() {
+        tick++;
+        forEachSnake(this::decide);
+        forEachSnake(this::move);
+        resolve();
+        spawnApples();
+    }
+
+    /**
+     * Runs a phase for every snake, in parallel when there are enough snakes.
+     * @param phase The phase to run for a snake's index
+     */
+    private void forEachSnake(IntConsumer phase) {
+        int count = snakes.size();
+        if (pool == null || count < PARALLEL_THRESHOLD) {
+            for (int i = 0; i < count; i++) { phase.accept(i); }
+        }
+        else {
+            pool.submit(() -> IntStream.range(0, count).parallel().forEach(phase)).join();
+        }
+    }
+
+    /**
+     * Asks a bot for its input.
+     * @param i The index of the snake
+     */
+    private void decide(int i) {
+        ArenaSnake snake = snakes.get(i);
+        if (!snake.alive || snake.policy == null) { return; }
+        Input input = snake.policy.next(this, i);
+        if (input == null) { return; }
+        Turn turn = input.toTurn();
+        if (turn != null) { snake.pendingTurns.offer(turn, tick); }
+    }
+
+    /**
+     * Turns or moves a snake one step, without touching the shared grid.
+     * @param i The index of the snake
+     */
+    private void move(int i) {
+        ArenaSnake snake = snakes.get(i);
+        snake.enteredCell = NONE;
+        snake.leftCell = NONE;
+        if (!snake.alive) { return; }
+
+        if (snake.currentTurn != null) {
+            snake.turnDegrees += ROTATION_SPEED;
+            if (snake.turnDegrees == 90) {
+                snake.turnDegrees = 0;
+                snake.body.turnHead(snake.currentTurn);
+                snake.currentTurn = null;
+            }
+            return;
+        }
+
+        SnakeBody body = snake.body;
+        boolean entersNewCell = body.isGridAligned();
+        int tailCell = body.tailCell();
+        body.move();
+        if (entersNewCell) {
+            snake.leftCell = tailCell;
+            snake.enteredCell = body.cell(0);
+        }
+        if (body.isGridAligned() && !snake.pendingTurns.isEmpty()) {
+            snake.currentTurn = snake.pendingTurns.poll();
+        }
+    }
+
+    /**
+     * Applies the moves of the snakes to the shared grid in snake order,
+     * then eats apples and kills the snakes that collided.
+     */
+    private void resolve() {
+        // Every left cell is vacated first, so a head may follow any tail
+        for (ArenaSnake snake : snakes) {
+            if (snake.leftCell != NONE) { vacate(snake.leftCell); }
+        }
+        for (int i = 0; i < snakes.size(); i++) {
+            ArenaSnake snake = snakes.get(i);
+            if (snake.enteredCell == NONE) { continue; }
+            occupy(snake.enteredCell);
+            if (listener != null) { listener.snakeMoved(i, snake.enteredCell, snake.leftCell); }
+        }
+
+        // The apple goes to the first snake if two heads enter its cell
+        for (int i = 0; i < snakes.size(); i++) {
+            ArenaSnake snake = snakes.get(i);
+            if (snake.enteredCell == NONE) { continue; }
+            Integer position = appleIndex.remove(snake.enteredCell);
+            if (position == null) { continue; }
+            int cell = snake.enteredCell;
+            removeApple(position);
+            vacate(cell);
+            snake.score++;
+            int tailCell = snake.body.grow();
+            occupy(tailCell);
+            if (listener != null) {
+                listener.appleEaten(cell);
+                listener.snakeGrew(i, tailCell);
+            }
+        }
+
+        // Every collision is found before any snake is removed, so both heads of a head-on collision die
+        for (int i = 0; i < snakes.size(); i++) {
+            int head = snakes.get(i).enteredCell;
+            collided[i] = false;
+            if (head == NONE) { continue; }
+            int x = GridCell.x(head), y = GridCell.y(head), z = GridCell.z(head);
+            collided[i] = !grid.contains(x, y, z) || grid.count(x, y, z) > 1;
+        }
+        findSwaps(collided);
+        for (int i = 0; i < snakes.size(); i++) {
+            if (!collided[i]) { continue; }
+            kill(snakes.get(i));
+            if (listener != null) { listener.snakeDied(i); }
+        }
+    }
+
+    /**
+     * Removes an apple by moving the last apple into its position.
+     * @param position The position of the apple in the list of apples
+     */
+    private void removeApple(int position) {
+        Apple last = apples.remove(apples.size() - 1);
+        if (position == apples.size()) { return; }
+        apples.set(position, last);
+        appleIndex.put(last.getCell(), position);
+    }
+
+    /**
+     * Finds the snakes of one segment that swapped cells with another
+     * snake's head. The cell a longer snake's head left still holds its
+     * body, so only a snake of one segment leaves no trace to collide with.
+     * @param collided The collisions found so far, by the index of the snake
+     */
+    private void findSwaps(boolean[] collided) {
+        enteredBy.clear();
+        for (ArenaSnake snake : snakes) {
+            if (snake.enteredCell != NONE) { enteredBy.put(snake.enteredCell, snake); }
+        }
+        for (int i = 0; i < snakes.size(); i++) {
+            ArenaSnake snake = snakes.get(i);
+            if (snake.enteredCell == NONE || snake.body.length() > 1) { continue; }
+            ArenaSnake other = enteredBy.get(snake.leftCell);
+            if (other != null && other != snake && other.leftCell == snake.enteredCell) { collided[i] = true; }
+        }
+    }
+
+    /**
+     * Removes a dead snake from the grid.
+     * @param snake The snake to kill
+     */
+    private void kill(ArenaSnake snake) {
+        snake.alive = false;
+        snake.pendingTurns.clear();
+        for (int i = 0; i < snake.body.length(); i++) { vacate(snake.body.cell(i)); }
+    }
+
+    /**
+     * Spawns apples in random free cells until the world has its limit of apples.
+     */
+    private void spawnApples() {
+        while (apples.size() < appleLimit) {
+            int index = grid.randomFreeCell(random);
+            if (index == -1) { return; }
+            addApple(grid.cell(index));
+        }
+    }
+
+    /**
+     * Hashes the whole state of the arena, to check that two arenas play alike.
+     * @return The 64-bit FNV-1a hash of the arena's state
+     */
+    public long stateHash() {
+        long hash = 0xcbf29ce484222325L;
+        hash = GameEngine.mix(hash, tick);
+        for (ArenaSnake snake : snakes) {
+            hash = GameEngine.mix(hash, snake.alive ? 1 : 0);
+            hash = GameEngine.mix(hash, snake.score);
+            hash = GameEngine.mix(hash, snake.currentTurn == null ? -1 : snake.currentTurn.ordinal());
+            hash = GameEngine.mix(hash, snake.turnDegrees);
+            hash = GameEngine.mix(hash, snake.pendingTurns.size());
+            hash = GameEngine.mix(hash, snake.body.progress());
+            hash = GameEngine.mix(hash, snake.body.length());
+            for (int i = 0; i < snake.body.length(); i++) {
+                hash = GameEngine.mix(hash, snake.body.cell(i));
+                hash = GameEngine.mix(hash, snake.body.frame(i));
+            }
+        }
+        for (Apple apple : apples) {
+            hash = GameEngine.mix(hash, apple.getCell());
+        }
+        return hash;
+    }
+
+    /**
+     * @param gridPos A grid position
+     * @return The world position of the center of the cell
+     */
+    private static Vector3D center(Vector3D gridPos) {
+        return gridPos.mul(UNIT).add(new Vector3D(500, 500, 500));
+    }
+
+    /**
+     * Marks a packed cell as occupied by one more entity.
+     * @param cell The packed cell
+     */
+    private void occupy(int cell) { grid.occupy(GridCell.x(cell), GridCell.y(cell), GridCell.z(cell)); }
+
+    /**
+     * Marks a packed cell as occupied by one less entity.
+     * @param cell The packed cell
+     */
+    private void vacate(int cell) { grid.vacate(GridCell.x(cell), GridCell.y(cell), GridCell.z(cell)); }
+
+}
@@ -0,0 +1,50 @@
+package com.sakariaslilja.services;
+
+/**
+ * Listener for the changes of an arena, called on the thread that updates it.
+ * <p> Cells are packed grid cells. Within a tick, the moves of the snakes
+ * come first, then the apples they ate and their growth, then their deaths
+ * and last the apples spawned in place of the eaten ones.
+ */
+public interface ArenaListener {
+
+    /**
+     * Called when a snake is added to the arena.
+     * @param snake The index of the snake
+     */
+    default void snakeAdded(int snake) {}
+
+    /**
+     * Called when a snake's head enters a new cell and its tail leaves one.
+     * @param snake The index of the snake
+     * @param headCell The cell the head entered, which may be outside the world
+     * @param tailCell The cell the tail left
+     */
+    default void snakeMoved(int snake, int headCell, int tailCell) {}
+
+    /**
+     * Called when a snake grows a segment behind its tail.
+     * @param snake The index of the snake
+     * @param tailCell The cell of the new tail
+     */
+    default void snakeGrew(int snake, int tailCell) {}
+
+    /**
+     * Called when a snake dies and is removed from the world.
+     * @param snake The index of the snake
+     */
+    default void snakeDied(int snake) {}
+
+    /**
+     * Called when an apple spawns into the world.
+     * @param cell The cell of the apple
+     */
+    default void appleSpawned(int cell) {}
+
+    /**
+     * Called when a snake eats an apple.
+     * @param cell The cell of the apple
+     */
+    default void appleEaten(int cell) {}
+
+}
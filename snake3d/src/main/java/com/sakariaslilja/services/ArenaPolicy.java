@@ -0,0 +1,19 @@
+package com.sakariaslilja.services;
+
+/**
+ * Plays one snake of an arena in place of a player.
+ * <p> The policies of all snakes are asked for their inputs in parallel,
+ * while no snake moves, so a policy may read the whole arena but must
+ * only change its own state.
+ */
+public interface ArenaPolicy {
+
+    /**
+     * Chooses the input of a snake for the next tick.
+     * @param arena The arena being played
+     * @param snake The index of the snake the policy plays
+     * @return The input to pass to the snake, null for none
+     */
+    Input next(ArenaEngine arena, int snake);
+
+}
@@ -0,0 +1,110 @@
+package com.sakariaslilja.services;
+
+import java.util.Arrays;
+
+/**
+ * The statistics of a batch of simulated games.
+ */
+public class BatchReport {
+
+    private final int[] scores;
+    private final long[] lengths;
+    private final long[] spawns;
+    private final long nanos;
+
+    /**
+     * Creates a report of a batch.
+     * @param scores The final score of each game
+     * @param lengths The number of ticks each game lasted
+     * @param spawns The number of apples spawned in each cell, by cell index
+     * @param nanos The time the batch took in nanoseconds
+     */
+    public BatchReport(int[] scores, long[] lengths, long[] spawns, long nanos) {
+        this.scores = scores.clone();
+        this.lengths = lengths.clone();
+        this.spawns = spawns.clone();
+        this.nanos = nanos;
+        Arrays.sort(this.scores);
+        Arrays.sort(this.lengths);
+    }
+
+    /**
+     * @return The number of games played
+     */
+    public int games() { return scores.length; }
+
+    /**
+     * @return The number of ticks played over all games
+     */
+    public long totalTicks() { return Arrays.stream(lengths).sum(); }
+
+    /**
+     * @return The ticks played per second of wall-clock time
+     */
+    public double ticksPerSecond() { return nanos == 0 ? 0 : totalTicks() * 1e9 / nanos; }
+
+    /**
+     * @return The mean final score
+     */
+    public double meanScore() { return scores.length == 0 ? 0 : Arrays.stream(scores).average().getAsDouble(); }
+
+    /**
+     * @param percentile The percentile, between 0 and 100
+     * @return The final score at the percentile
+     */
+    public int scorePercentile(double percentile) { return scores.length == 0 ? 0 : scores[rank(percentile)]; }
+
+    /**
+     * @return The number of games ending with each score, indexed by score
+     */
+    public int[] scoreHistogram() {
+        int[] histogram = new int[scores.length == 0 ? 0 : scores[scores.length - 1] + 1];
+        for (int score : scores) { histogram[score]++; }
+        return histogram;
+    }
+
+    /**
+     * @return The mean length of a game in ticks
+     */
+    public double meanLength() { return lengths.length == 0 ? 0 : (double) totalTicks() / lengths.length; }
+
+    /**
+     * @param percentile The percentile, between 0 and 100
+     * @return The length of a game in ticks at the percentile
+     */
+    public long lengthPercentile(double percentile) { return lengths.length == 0 ? 0 : lengths[rank(percentile)]; }
+
+    /**
+     * @return The number of apples spawned in each cell, by cell index
+     */
+    public long[] spawnCounts() { return spawns.clone(); }
+
+    /**
+     * @return The number of apples spawned over all games
+     */
+    public long totalSpawns() { return Arrays.stream(spawns).sum(); }
+
+    /**
+     * The nearest-rank index of a percentile in the sorted results.
+     * @param percentile The percentile, between 0 and 100
+     * @return The index of the percentile
+     */
+    private int rank(double percentile) {
+        int rank = (int) Math.ceil(percentile / 100 * scores.length) - 1;
+        return Integer.min(scores.length - 1, Integer.max(0, rank));
+    }
+
+    @Override
+    public String toString() {
+        long minSpawns = Arrays.stream(spawns).min().orElse(0);
+        long maxSpawns = Arrays.stream(spawns).max().orElse(0);
+        return String.format(
+            "games=%d ticks=%d (%.2f M ticks/s) score mean=%.2f p50=%d p99=%d max=%d length mean=%.0f p50=%d p99=%d spawns=%d per cell min=%d max=%d",
+            games(), totalTicks(), ticksPerSecond() / 1e6,
+            meanScore(), scorePercentile(50), scorePercentile(99), scorePercentile(100),
+            meanLength(), lengthPercentile(50), lengthPercentile(99),
+            totalSpawns(), minSpawns, maxSpawns
+        );
+    }
+
+}
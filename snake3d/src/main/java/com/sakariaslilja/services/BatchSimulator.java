@@ -0,0 +1,110 @@
+package com.sakariaslilja.services;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongFunction;
+import java.util.stream.IntStream;
+
+import com.sakariaslilja.datastructures.GridCell;
+import com.sakariaslilja.entities.Apple;
+import com.sakariaslilja.models.GameModel;
+
+/**
+ * Plays many seeded games at once, with no rendering or wall-clock time.
+ * <p> Each game is played by its own engine and input policy on one of
+ * the threads of a fork-join pool. Game {@code i} of a batch is seeded
+ * with {@code firstSeed + i}, and its policy is created from the same seed,
+ * so a batch plays the same games on any number of threads.
+ * <p> Used to soak test balance changes and to measure engine throughput.
+ */
+public class BatchSimulator {
+
+    private final int worldWidth;
+    private final int worldHeight;
+    private final int worldDepth;
+    private final LongFunction<InputPolicy> policies;
+    private final int maxTicks;
+
+    /**
+     * Creates a simulator for games in a world of the given size.
+     * @param worldWidth The width of the world
+     * @param worldHeight The height of the world
+     * @param worldDepth The depth of the world
+     * @param policies Creates the input policy of a game from the game's seed
+     * @param maxTicks The most ticks a game is played for
+     */
+    public BatchSimulator(int worldWidth, int worldHeight, int worldDepth, LongFunction<InputPolicy> policies, int maxTicks) {
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+        this.worldDepth = worldDepth;
+        this.policies = policies;
+        this.maxTicks = maxTicks;
+    }
+
+    /**
+     * Plays a batch of games.
+     * @param firstSeed The seed of the first game
+     * @param games The number of games to play
+     * @param parallelism The number of threads to play on
+     * @return The statistics of the batch
+     */
+    public BatchReport run(long firstSeed, int games, int parallelism) {
+        int[] scores = new int[games];
+        long[] lengths = new long[games];
+        AtomicLongArray spawns = new AtomicLongArray(worldWidth * worldHeight * worldDepth);
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        long start = System.nanoTime();
+        try {
+            pool.submit(() -> IntStream.range(0, games).parallel().forEach(i -> {
+                GameEngine engine = play(firstSeed + i, spawns);
+                scores[i] = engine.getScore();
+                lengths[i] = engine.getTick();
+            })).join();
+        }
+        finally {
+            pool.shutdown();
+        }
+        long nanos = System.nanoTime() - start;
+
+        long[] spawnCounts = new long[spawns.length()];
+        for (int i = 0; i < spawnCounts.length; i++) { spawnCounts[i] = spawns.get(i); }
+        return new BatchReport(scores, lengths, spawnCounts, nanos);
+    }
+
+    /**
+     * Plays one game until it is over or runs out of ticks.
+     * @param seed The seed of the game and its policy
+     * @param spawns The number of apples spawned in each cell, counted up by the game
+     * @return The engine of the finished game
+     */
+    protected GameEngine play(long seed, AtomicLongArray spawns) {
+        GameModel model = new GameModel();
+        model.seed = seed;
+        model.worldWidth = worldWidth;
+        model.worldHeight = worldHeight;
+        model.worldDepth = worldDepth;
+
+        GameEngine engine = new GameEngine(model);
+        InputPolicy policy = policies.apply(seed);
+        engine.setListener(new GameListener() {
+            @Override
+            public void playerDied() {}
+
+            @Override
+            public void appleSpawned(Apple apple) {
+                int cell = apple.getCell();
+                spawns.incrementAndGet(GridCell.x(cell) + GridCell.y(cell) * worldWidth + GridCell.z(cell) * worldWidth * worldHeight);
+            }
+        });
+
+        // Counts the updates, as a paused engine doesn't tick
+        for (int i = 0; i < maxTicks && !engine.isGameOver(); i++) {
+            Input input = policy.next(engine);
+            if (input != null) { engine.handleInput(input); }
+            engine.update();
+        }
+        return engine;
+    }
+
+}
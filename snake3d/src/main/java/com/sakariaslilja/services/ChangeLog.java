@@ -0,0 +1,147 @@
+package com.sakariaslilja.services;
+
+import java.lang.invoke.VarHandle;
+
+/**
+ * Bounded ring buffer of the changes a game makes to its world.
+ * <p> Every change gets the next sequence number. A consumer keeps the
+ * sequence number of the next change it wants and reads up to {@code end()},
+ * so it only does work for what changed instead of scanning the whole state.
+ * The buffer keeps the latest changes only: a consumer that falls more than
+ * the capacity behind has lost changes and must start over from the full
+ * state, as it must after a {@code RESET}.
+ * <p> Changes are stored in primitive arrays, so appending allocates nothing.
+ * There is a single writer. Other threads may read, as long as they check
+ * that the change is still available after reading it: the check is fenced
+ * so the reads before it can't be reordered after it, and the writer fences
+ * its publish before overwriting a slot, so a change that was overwritten
+ * while it was read is never reported as available.
+ */
+public class ChangeLog {
+
+    /**
+     * The kinds of changes.
+     */
+    public enum Type {
+        /**
+         * A segment was added to the snake. The argument is 0
+         * for a new head and 1 for a new tail.
+         */
+        SEGMENT_ADDED,
+        /**
+         * The tail segment of the snake was removed.
+         */
+        SEGMENT_REMOVED,
+        /**
+         * An apple spawned into the cell.
+         */
+        APPLE_SPAWNED,
+        /**
+         * The apple in the cell was eaten.
+         */
+        APPLE_EATEN,
+        /**
+         * The snake finished a turn with its head in the cell.
+         * The argument is the ordinal of the turn.
+         */
+        ROTATED,
+        /**
+         * The whole state was replaced, e.g. restored from a keyframe.
+         */
+        RESET
+    }
+
+    private static final Type[] TYPES = Type.values();
+
+    private final int mask;
+    private final long[] ticks;
+    private final byte[] types;
+    private final int[] cells;
+    private final byte[] args;
+    private volatile long end = 0;
+
+    /**
+     * Creates an empty log.
+     * @param capacity The number of changes kept, rounded up to a power of two
+     */
+    public ChangeLog(int capacity) {
+        int size = Integer.highestOneBit(Integer.max(2, capacity - 1)) << 1;
+        this.mask = size - 1;
+        this.ticks = new long[size];
+        this.types = new byte[size];
+        this.cells = new int[size];
+        this.args = new byte[size];
+    }
+
+    /**
+     * @return The number of changes kept
+     */
+    public int capacity() { return mask + 1; }
+
+    /**
+     * @return The sequence number of the next change
+     */
+    public long end() { return end; }
+
+    /**
+     * @return The sequence number of the oldest change still available
+     */
+    public long start() { return Long.max(0, end - mask); }
+
+    /**
+     * Checks if a change can still be read. The slot being overwritten
+     * next is never available, so a reader can check a change after
+     * reading it to know the writer didn't overwrite it meanwhile.
+     * @param sequence The sequence number of the change
+     * @return If the change is available
+     */
+    public boolean isAvailable(long sequence) {
+        // Keeps the reads of the change before the read of end
+        VarHandle.acquireFence();
+        return sequence >= start() && sequence < end;
+    }
+
+    /**
+     * Appends a change, overwriting the oldest one if the log is full.
+     * @param tick The tick of the change
+     * @param type The kind of the change
+     * @param cell The packed grid cell of the change
+     * @param arg The argument of the change
+     */
+    public void append(long tick, Type type, int cell, int arg) {
+        long sequence = end;
+        int slot = (int) sequence & mask;
+        // Keeps the previous publish, which made this slot unavailable, before overwriting it
+        VarHandle.storeStoreFence();
+        ticks[slot] = tick;
+        types[slot] = (byte) type.ordinal();
+        cells[slot] = cell;
+        args[slot] = (byte) arg;
+        end = sequence + 1;
+    }
+
+    /**
+     * @param sequence The sequence number of the change
+     * @return The tick of the change
+     */
+    public long tick(long sequence) { return ticks[(int) sequence & mask]; }
+
+    /**
+     * @param sequence The sequence number of the change
+     * @return The kind of the change
+     */
+    public Type type(long sequence) { return TYPES[types[(int) sequence & mask]]; }
+
+    /**
+     * @param sequence The sequence number of the change
+     * @return The packed grid cell of the change
+     */
+    public int cell(long sequence) { return cells[(int) sequence & mask]; }
+
+    /**
+     * @param sequence The sequence number of the change
+     * @return The argument of the change
+     */
+    public int arg(long sequence) { return args[(int) sequence & mask]; }
+
+}
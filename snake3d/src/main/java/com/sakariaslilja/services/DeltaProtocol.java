@@ -0,0 +1,124 @@
+package com.sakariaslilja.services;
+
+import java.nio.ByteBuffer;
+
+import com.sakariaslilja.datastructures.GridCell;
+import com.sakariaslilja.datastructures.Heading;
+
+/**
+ * The binary protocol between {@code GameServer} and {@code GameClient}.
+ * <p> The server sends one frame per tick, a varint length followed by the
+ * tick's events. A tick without changes is a frame of length zero, one byte.
+ * Every event starts with a byte of its type shifted left by three, or'd with
+ * a direction for the events that move by one cell. The snake an event
+ * changes and the cells of apples and new snakes follow as varints. Cells are
+ * sent as their index in the world, {@code x + y * width + z * width * height}.
+ * <p> A client's first frame is its welcome: the index of its snake, the
+ * size of the world, the current tick and the state of the world as the
+ * events that would build it. Every later frame is the next tick.
+ * <p> The client sends one byte per turn, the ordinal of the {@code Turn}.
+ */
+public final class DeltaProtocol {
+
+    /** The welcome of a client: snake, width, height, depth, tick */
+    public static final int WELCOME = 0;
+    /** A snake was added: snake, cell of the head */
+    public static final int JOINED = 1;
+    /** A snake's head entered the neighbouring cell in the direction: snake */
+    public static final int HEAD = 2;
+    /** A snake's tail left its cell: snake */
+    public static final int TAIL = 3;
+    /** A snake grew a segment next to its tail in the direction: snake */
+    public static final int GROW = 4;
+    /** A snake died and was removed: snake */
+    public static final int DIED = 5;
+    /** An apple spawned: cell */
+    public static final int APPLE_SPAWNED = 6;
+    /** An apple was eaten: cell */
+    public static final int APPLE_EATEN = 7;
+
+    private static final Heading[] HEADINGS = Heading.values();
+
+    private DeltaProtocol() {}
+
+    /**
+     * @param type The type of the event
+     * @param direction The direction of the event, 0 for events without one
+     * @return The first byte of the event
+     */
+    public static byte header(int type, int direction) { return (byte) ((type << 3) | direction); }
+
+    /**
+     * @param header The first byte of an event
+     * @return The type of the event
+     */
+    public static int type(byte header) { return (header & 0xFF) >>> 3; }
+
+    /**
+     * @param header The first byte of an event
+     * @return The direction of the event
+     */
+    public static Heading direction(byte header) { return HEADINGS[header & 0x7]; }
+
+    /**
+     * The direction from a cell to its neighbour.
+     * @param from The packed cell
+     * @param to The packed neighbouring cell
+     * @return The ordinal of the direction's heading
+     */
+    public static int direction(int from, int to) {
+        for (Heading heading : HEADINGS) {
+            if (GridCell.add(from, heading.vec) == to) { return heading.ordinal(); }
+        }
+        throw new IllegalArgumentException("The cells are not neighbours");
+    }
+
+    /**
+     * @param cell The packed cell
+     * @param width The width of the world
+     * @param height The height of the world
+     * @return The index of the cell in the world
+     */
+    public static int index(int cell, int width, int height) {
+        return GridCell.x(cell) + GridCell.y(cell) * width + GridCell.z(cell) * width * height;
+    }
+
+    /**
+     * @param index The index of a cell in the world
+     * @param width The width of the world
+     * @param height The height of the world
+     * @return The packed cell
+     */
+    public static int cell(int index, int width, int height) {
+        return GridCell.pack(index % width, (index / width) % height, index / (width * height));
+    }
+
+    /**
+     * Writes a value seven bits at a time, the lowest bits first.
+     * The highest bit of each byte tells if more bytes follow.
+     * @param buffer The buffer to write into
+     * @param value The non-negative value to write
+     */
+    public static void writeVarint(ByteBuffer buffer, long value) {
+        do {
+            byte b = (byte) (value & 0x7F);
+            value >>>= 7;
+            buffer.put((byte) (value == 0 ? b : b | 0x80));
+        } while (value != 0);
+    }
+
+    /**
+     * Reads a value written by {@code writeVarint}.
+     * @param buffer The buffer to read from
+     * @return The value
+     */
+    public static long readVarint(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) { return value; }
+        }
+    }
+
+}
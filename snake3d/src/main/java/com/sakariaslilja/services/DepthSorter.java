@@ -0,0 +1,155 @@
+package com.sakariaslilja.services;
+
+import java.util.Arrays;
+
+import com.sakariaslilja.datastructures.CubeTemplate;
+import com.sakariaslilja.datastructures.VertexBuffer;
+
+/**
+ * Sorts the cubes of a vertex buffer by their depth, the farthest first.
+ * <p> Each cube is sorted by a key with the depth of its centroid in the
+ * upper 32 bits and its index in the lower 32 bits. The keys are sorted
+ * with a radix sort over the depth bits.
+ * <p> The cubes barely move between frames, so the keys are first built
+ * in the previous frame's order and insertion sorted. If the order changed
+ * too much, the insertion sort gives up and the radix sort finishes the job.
+ */
+public class DepthSorter {
+
+    private static final int RADIX_BITS = 11;
+    private static final int RADIX = 1 << RADIX_BITS;
+    private static final int PASSES = 3;
+
+    private long[] keys = new long[0];
+    private long[] scratch = new long[0];
+    private int[] order = new int[0];
+    private final int[] counts = new int[RADIX];
+    private int size = 0;
+
+    /**
+     * Sorts the cubes of the buffer by their depth.
+     * @param buffer The buffer of transformed cubes
+     * @return The indices of the cubes, the farthest first.
+     * Only the first {@code buffer.cubeCount()} values are in use.
+     */
+    public int[] sort(VertexBuffer buffer) {
+        int cubeCount = buffer.cubeCount();
+        if (order.length < cubeCount) {
+            int capacity = Integer.max(cubeCount, 2 * order.length);
+            keys = new long[capacity];
+            scratch = new long[capacity];
+            order = new int[capacity];
+        }
+
+        // A changed number of cubes changes the indices, start from scratch
+        if (cubeCount != size) {
+            for (int cube = 0; cube < cubeCount; cube++) { order[cube] = cube; }
+            size = cubeCount;
+        }
+
+        double[] zs = buffer.z();
+        for (int i = 0; i < cubeCount; i++) {
+            int cube = order[i];
+            keys[i] = (long) depthKey(centroidDepth(zs, cube)) << 32 | cube;
+        }
+
+        if (!insertionSort(cubeCount)) { radixSort(cubeCount); }
+
+        for (int i = 0; i < cubeCount; i++) { order[i] = (int) keys[i]; }
+        return order;
+    }
+
+    /**
+     * @param zs The depths of the vertices
+     * @param cube The index of the cube
+     * @return The depth of the cube's centroid
+     */
+    private static double centroidDepth(double[] zs, int cube) {
+        int first = cube * CubeTemplate.VERTICES;
+        double sum = 0;
+        for (int i = first; i < first + CubeTemplate.VERTICES; i++) { sum += zs[i]; }
+        return sum / CubeTemplate.VERTICES;
+    }
+
+    /**
+     * Maps a depth to an int whose unsigned order is the reverse of the depth's,
+     * i.e. the farthest depth gets the smallest key.
+     * @param depth The depth to map
+     * @return The key of the depth
+     */
+    protected static int depthKey(double depth) {
+        int bits = Float.floatToIntBits((float) depth);
+        int ascending = bits < 0 ? ~bits : bits | Integer.MIN_VALUE;
+        return ~ascending;
+    }
+
+    /**
+     * Insertion sorts the keys. Gives up once the keys have been shifted
+     * more times than there are keys, leaving them partly sorted.
+     * @param n The number of keys
+     * @return If the keys were sorted
+     */
+    private boolean insertionSort(int n) {
+        long[] a = keys;
+        int shifts = 0;
+
+        for (int i = 1; i < n; i++) {
+            long key = a[i];
+            int j = i - 1;
+            while (j >= 0 && Long.compareUnsigned(a[j], key) > 0) {
+                a[j + 1] = a[j];
+                j--;
+                if (++shifts > n) {
+                    a[j + 1] = key;
+                    return false;
+                }
+            }
+            a[j + 1] = key;
+        }
+
+        return true;
+    }
+
+    /**
+     * Sorts the keys by their upper 32 bits with a least significant digit radix sort.
+     * @param n The number of keys
+     */
+    private void radixSort(int n) {
+        long[] from = keys;
+        long[] to = scratch;
+
+        for (int pass = 0; pass < PASSES; pass++) {
+            int shift = 32 + pass * RADIX_BITS;
+
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < n; i++) { counts[digit(from[i], shift)]++; }
+
+            int total = 0;
+            for (int d = 0; d < RADIX; d++) {
+                int count = counts[d];
+                counts[d] = total;
+                total += count;
+            }
+
+            for (int i = 0; i < n; i++) { to[counts[digit(from[i], shift)]++] = from[i]; }
+
+            long[] swap = from;
+            from = to;
+            to = swap;
+        }
+
+        // The last pass wrote the sorted keys into from
+        keys = from;
+        scratch = to;
+    }
+
+    /**
+     * @param key The key
+     * @param shift The position of the digit
+     * @return The digit of the key at the position
+     */
+    private static int digit(long key, int shift) {
+        return (int) (key >>> shift) & (RADIX - 1);
+    }
+
+}
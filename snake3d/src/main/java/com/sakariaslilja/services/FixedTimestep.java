@@ -0,0 +1,62 @@
+package com.sakariaslilja.services;
+
+/**
+ * Accumulator for running a simulation at a fixed timestep.
+ * <p> Elapsed time is accumulated and spent on whole ticks.
+ * The time left over is how far the next tick has come,
+ * which is used for rendering between ticks.
+ * <p> At most a fixed number of ticks are run per call. Time beyond that
+ * is dropped, so a slow frame can't make every following frame slower.
+ */
+public class FixedTimestep {
+
+    private final long tickLength;
+    private final int maxTicks;
+    private long accumulator = 0;
+    private long lastTime;
+    private boolean started = false;
+
+    /**
+     * Creates a timestep with the given tick length.
+     * @param tickLength The length of a tick in nanoseconds
+     * @param maxTicks The most ticks to run per call
+     */
+    public FixedTimestep(long tickLength, int maxTicks) {
+        this.tickLength = tickLength;
+        this.maxTicks = maxTicks;
+    }
+
+    /**
+     * Accumulates the time passed since the last call.
+     * The first call only starts the clock.
+     * @param now The current time in nanoseconds
+     * @return The number of ticks to run
+     */
+    public int advance(long now) {
+        if (!started) {
+            started = true;
+            lastTime = now;
+            return 0;
+        }
+
+        accumulator += now - lastTime;
+        lastTime = now;
+
+        long ticks = accumulator / tickLength;
+        if (ticks > maxTicks) {
+            ticks = maxTicks;
+            accumulator %= tickLength;
+        }
+        else {
+            accumulator -= ticks * tickLength;
+        }
+
+        return (int) ticks;
+    }
+
+    /**
+     * @return How far the next tick has come, between 0 and 1
+     */
+    public double alpha() { return (double) accumulator / tickLength; }
+
+}
@@ -0,0 +1,227 @@
+package com.sakariaslilja.services;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.sakariaslilja.datastructures.GridCell;
+import com.sakariaslilja.entities.Turn;
+
+/**
+ * Stand-in client for a {@code GameServer}, for testing and measuring the server.
+ * <p> Keeps a copy of the world built from the server's frames:
+ * the cells of every living snake and the cells of the apples.
+ * Reading frames blocks, so a client is read on a thread of its own.
+ */
+public class GameClient implements Closeable {
+
+    private final SocketChannel channel;
+    private final DataInputStream in;
+    private final ByteBuffer turn = ByteBuffer.allocate(1);
+
+    private int snake = -1;
+    private int width, height, depth;
+    private long tick = -1;
+    private long bytesReceived = 0;
+
+    private final HashMap<Integer, ArrayDeque<Integer>> snakes = new HashMap<>();
+    private final HashSet<Integer> apples = new HashSet<>();
+
+    private GameClient(SocketChannel channel) throws IOException {
+        this.channel = channel;
+        InputStream stream = Channels.newInputStream(channel);
+        this.in = new DataInputStream(new BufferedInputStream(stream));
+    }
+
+    /**
+     * Connects to a server on the loopback address and reads its welcome.
+     * @param port The port of the server
+     * @return The connected client
+     * @throws IOException The server couldn't be reached
+     */
+    public static GameClient connect(int port) throws IOException {
+        SocketChannel channel = SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        GameClient client = new GameClient(channel);
+        if (!client.receive()) { throw new EOFException("The server closed before welcoming the client"); }
+        return client;
+    }
+
+    /**
+     * @return The index of the client's snake
+     */
+    public int getSnake() { return snake; }
+
+    /**
+     * @return The tick of the last frame received
+     */
+    public long getTick() { return tick; }
+
+    /**
+     * @return The number of bytes received from the server
+     */
+    public long getBytesReceived() { return bytesReceived; }
+
+    public int getWorldWidth() { return width; }
+    public int getWorldHeight() { return height; }
+    public int getWorldDepth() { return depth; }
+
+    /**
+     * @param snake The index of a snake
+     * @return The packed cells of the snake starting from the head, null if it isn't alive
+     */
+    public List<Integer> snakeCells(int snake) {
+        ArrayDeque<Integer> cells = snakes.get(snake);
+        return cells == null ? null : new ArrayList<>(cells);
+    }
+
+    /**
+     * @return The packed cells of the apples
+     */
+    public Set<Integer> getApples() { return apples; }
+
+    /**
+     * Sends a turn of the client's snake.
+     * @param turn The turn to take
+     * @throws IOException The connection was lost
+     */
+    public void sendTurn(Turn turn) throws IOException {
+        this.turn.clear();
+        this.turn.put((byte) turn.ordinal());
+        this.turn.flip();
+        while (this.turn.hasRemaining()) { channel.write(this.turn); }
+    }
+
+    /**
+     * Reads the next frame and applies it to the copy of the world.
+     * @return If a frame was read, false if the server closed the connection
+     * @throws IOException The connection was lost
+     */
+    public boolean receive() throws IOException {
+        int length;
+        try {
+            length = readLength();
+        }
+        catch (EOFException e) {
+            return false;
+        }
+        byte[] payload = new byte[length];
+        in.readFully(payload);
+        bytesReceived += length + lengthBytes(length);
+
+        // Every frame after the welcome is the next tick
+        if (snake != -1) { tick++; }
+        apply(ByteBuffer.wrap(payload));
+        return true;
+    }
+
+    /**
+     * Applies the events of a frame.
+     * @param frame The events of the frame
+     */
+    private void apply(ByteBuffer frame) {
+        while (frame.hasRemaining()) {
+            byte header = frame.get();
+            int type = DeltaProtocol.type(header);
+            if (type == DeltaProtocol.WELCOME) {
+                snake = (int) DeltaProtocol.readVarint(frame);
+                width = (int) DeltaProtocol.readVarint(frame);
+                height = (int) DeltaProtocol.readVarint(frame);
+                depth = (int) DeltaProtocol.readVarint(frame);
+                tick = DeltaProtocol.readVarint(frame);
+            }
+            else if (type == DeltaProtocol.APPLE_SPAWNED) {
+                apples.add(cell(frame));
+            }
+            else if (type == DeltaProtocol.APPLE_EATEN) {
+                apples.remove(cell(frame));
+            }
+            else {
+                int index = (int) DeltaProtocol.readVarint(frame);
+                applySnake(type, header, index, frame);
+            }
+        }
+    }
+
+    /**
+     * Applies an event of a snake.
+     * @param type The type of the event
+     * @param header The first byte of the event
+     * @param index The index of the snake
+     * @param frame The rest of the frame
+     */
+    private void applySnake(int type, byte header, int index, ByteBuffer frame) {
+        ArrayDeque<Integer> cells = snakes.get(index);
+        switch (type) {
+            case DeltaProtocol.JOINED:
+                cells = new ArrayDeque<>();
+                cells.add(cell(frame));
+                snakes.put(index, cells);
+                break;
+            case DeltaProtocol.HEAD:
+                cells.addFirst(GridCell.add(cells.peekFirst(), DeltaProtocol.direction(header).vec));
+                break;
+            case DeltaProtocol.TAIL:
+                cells.removeLast();
+                break;
+            case DeltaProtocol.GROW:
+                cells.addLast(GridCell.add(cells.peekLast(), DeltaProtocol.direction(header).vec));
+                break;
+            case DeltaProtocol.DIED:
+                snakes.remove(index);
+                break;
+            default:
+                throw new IllegalStateException("Unknown event type: " + type);
+        }
+    }
+
+    /**
+     * @param frame The frame to read a cell index from
+     * @return The packed cell
+     */
+    private int cell(ByteBuffer frame) {
+        return DeltaProtocol.cell((int) DeltaProtocol.readVarint(frame), width, height);
+    }
+
+    /**
+     * Reads the varint length of a frame from the stream.
+     * @return The length of the frame
+     */
+    private int readLength() throws IOException {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.readByte();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) { return value; }
+        }
+    }
+
+    /**
+     * @param length The length of a frame
+     * @return The number of bytes its varint length takes
+     */
+    private static int lengthBytes(int length) {
+        int bytes = 1;
+        while ((length >>>= 7) != 0) { bytes++; }
+        return bytes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+}
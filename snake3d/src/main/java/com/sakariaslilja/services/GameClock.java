@@ -6,14 +6,26 @@ import javafx.animation.AnimationTimer;
 import javafx.scene.control.Label;
 
 /**
- * Clock that runs the game's update cycle
+ * Clock that runs the game's update cycle.
+ * <p> The engine ticks at a fixed rate, however often frames are rendered.
+ * Each frame renders once, between the last two ticks.
+ * <p> The clock either ticks the engine itself, running as many ticks
+ * as the time passed demands each frame, or renders the snapshots
+ * of an engine ticking on a simulation thread.
  */
 public class GameClock extends AnimationTimer implements IConstants {
 
     private GameEngine engine;
+    private SimulationThread simulation;
     private Renderer renderer;
     private Label score;
-    private long startTime;
+    private FixedTimestep timestep = new FixedTimestep(FPS, MAX_TICKS_PER_FRAME);
+    private GameSnapshot snapshot = new GameSnapshot();
+
+    private long lastFrame = 0;
+    private long frameTime = 0;
+    private long tickTime = 0;
+    private long renderTime = 0;
 
     /**
      * Instantiates the clock to to a game instance and a renderer
@@ -25,17 +37,75 @@ public class GameClock extends AnimationTimer implements IConstants {
         this.engine = engine;
         this.renderer = renderer;
         this.score = score;
-        this.startTime = System.nanoTime();
+        snapshot.capture(engine, System.nanoTime());
+    }
+
+    /**
+     * Instantiates the clock to render a simulation running on its own thread.
+     * Starting and stopping the clock starts and stops the simulation.
+     * @param simulation The simulation to be rendered
+     * @param renderer The renderer to be updated
+     * @param score The score label to be updated
+     */
+    public GameClock(SimulationThread simulation, Renderer renderer, Label score) {
+        this.simulation = simulation;
+        this.renderer = renderer;
+        this.score = score;
+    }
+
+    /**
+     * @return The time between the last two frames in nanoseconds
+     */
+    public long getFrameTime() { return frameTime; }
+
+    /**
+     * @return The average time of the latest ticks in nanoseconds
+     */
+    public long getTickTime() { return simulation == null ? tickTime : simulation.getTickTime(); }
+
+    /**
+     * @return The time the last frame took to render in nanoseconds
+     */
+    public long getRenderTime() { return renderTime; }
+
+    @Override
+    public void start() {
+        if (simulation != null) { simulation.start(); }
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        super.stop();
+        if (simulation != null) { simulation.stop(); }
     }
 
     @Override
-    public void handle(long arg0) {
-        long currentTime = System.nanoTime();
-        if (FPS <= (currentTime - startTime)) {
-            engine.update();
-            renderer.render();
-            score.setText("" + engine.getScore());
-            startTime = currentTime;
+    public void handle(long now) {
+        if (lastFrame != 0) { frameTime = now - lastFrame; }
+        lastFrame = now;
+
+        double alpha;
+        if (simulation == null) {
+            int ticks = timestep.advance(now);
+
+            long tickStart = System.nanoTime();
+            for (int i = 0; i < ticks; i++) { engine.update(); }
+            if (ticks > 0) {
+                tickTime = (System.nanoTime() - tickStart) / ticks;
+                snapshot.capture(engine, System.nanoTime());
+            }
+            alpha = timestep.alpha();
         }
-    } 
+        else {
+            // Renders the snapshot's tick fully once a tick has passed since its capture
+            snapshot = simulation.snapshot();
+            alpha = Math.min(1, (double) (System.nanoTime() - snapshot.getTime()) / FPS);
+        }
+
+        long renderStart = System.nanoTime();
+        renderer.render(snapshot, alpha);
+        score.setText("" + snapshot.getScore());
+        renderTime = System.nanoTime() - renderStart;
+    }
 }
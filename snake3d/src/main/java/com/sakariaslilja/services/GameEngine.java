@@ -2,56 +2,77 @@ package com.sakariaslilja.services;
 
 import java.util.ArrayList;
 import java.util.Date;
-import java.util.Random;
-import java.util.function.Predicate;
 
 import com.sakariaslilja.IConstants;
-import com.sakariaslilja.controllers.GameController;
+import com.sakariaslilja.datastructures.CellMap;
 import com.sakariaslilja.datastructures.DoubleVector3D;
+import com.sakariaslilja.datastructures.GameRandom;
+import com.sakariaslilja.datastructures.GridCell;
+import com.sakariaslilja.datastructures.Heading;
+import com.sakariaslilja.datastructures.OccupancyGrid;
 import com.sakariaslilja.datastructures.Quaternion;
 import com.sakariaslilja.datastructures.Tuple;
 import com.sakariaslilja.datastructures.Vector3D;
 import com.sakariaslilja.entities.Apple;
+import com.sakariaslilja.entities.Orientation;
 import com.sakariaslilja.entities.Snake;
+import com.sakariaslilja.entities.SnakeBody;
 import com.sakariaslilja.entities.Turn;
 import com.sakariaslilja.models.GameModel;
+import com.sakariaslilja.models.KeyframeModel;
 import com.sakariaslilja.models.HighscoreModel;
 import com.sakariaslilja.models.SnakeModel;
 import com.sakariaslilja.models.World;
 
-import javafx.scene.input.KeyCode;
-
 /**
  * The game engine.
  */
 public class GameEngine implements IConstants {
 
+    // The rotation of one tick of a turn, around each axis both ways
+    private static final Quaternion[] STEP_ROTATIONS = stepRotations();
+
     private String gameTitle;
     private long seed;
-    private Random random;
+    private GameRandom random;
     private Date creationDate;
     private int score;
 
     private int worldWidth, worldHeight, worldDepth;
     private int appleLimit;
 
-    private ArrayList<Tuple> edges;
-    private ArrayList<Vector3D> gridPositions = new ArrayList<>();
+    private ArrayList<Tuple> lines;
+    private OccupancyGrid grid;
     private ArrayList<Apple> apples = new ArrayList<>();
-    private ArrayList<Snake> snake = new ArrayList<>();
+    // The position of each apple in the list of apples, by its packed cell
+    private CellMap<Integer> appleIndex;
+    private SnakeBody snake;
 
     private boolean paused = false;
-    private boolean turningLeft = false;
-    private boolean turningRight = false;
-    private boolean turningUp = false;
-    private boolean turningDown = false;
-    private boolean isTurning = false;
     private boolean gameOver = false;
 
+    // The turns the player has queued, and the turn being taken with the tick it was queued on
+    private TurnBuffer pendingTurns = new TurnBuffer(TURN_BUFFER_SIZE);
+    private Turn currentTurn = null;
+    private Quaternion currentRotation = new Quaternion(1, 0, 0, 0);
+    private long currentTurnTick = 0;
+    private LatencyStats turnLatency = new LatencyStats();
+
     private Quaternion q;
     private int rCountHelper = 0;
+    private long tick = 0;
+
+    // The state before the last tick, for rendering between ticks
+    private DoubleVector3D previousCamera = new DoubleVector3D(0, 0, 0);
+    private Quaternion previousQ = new Quaternion(1, 0, 0, 0);
+    private boolean snakeMoved = false;
 
-    private GameController controller = null;
+    private GameListener listener = null;
+    private ReplayRecorder recorder = null;
+    private final ChangeLog changes = new ChangeLog(CHANGE_LOG_SIZE);
+
+    // Null while profiling is off, so the ticks only check the field
+    private volatile TickProfiler profiler = null;
 
     /**
      * Creates a new {@code GameEngine} instance
@@ -60,7 +81,7 @@ public class GameEngine implements IConstants {
     public GameEngine(GameModel game) {
         this.gameTitle = game.gameTitle;
         this.seed = game.seed;
-        this.random = new Random(seed);
+        this.random = new GameRandom(seed);
         this.creationDate = game.creationDate;
         this.score = game.score;
         this.worldWidth = game.worldWidth;
@@ -69,61 +90,120 @@ public class GameEngine implements IConstants {
         this.gameOver = game.gameOver;
         this.appleLimit = Integer.max(1, (int) Math.cbrt(worldWidth*worldHeight*worldDepth) - 2);
         World world = new World(worldWidth, worldHeight, worldDepth);
-        this.edges = world.getEdges();
-
-        // Adding the grid positions of the world
-        for (int layer = 0; layer < game.worldDepth; layer++) {
-            for (int row = 0; row < game.worldHeight; row++) {
-                for (int column = 0; column < game.worldWidth; column++) {
-                    gridPositions.add(new Vector3D(column, row, layer));
-                }
-            }
-        }
+        this.lines = world.getLines();
+
+        grid = new OccupancyGrid(worldWidth, worldHeight, worldDepth);
+        appleIndex = new CellMap<>(appleLimit);
         q = new Quaternion(game.qW, game.qX, game.qY, game.qZ);
 
+        ArrayList<Snake> segments = new ArrayList<>();
         for (SnakeModel snakeModel : game.snake) {
-            snake.add(snakeModel.createSnake());
+            segments.add(snakeModel.createSnake());
         }
+        setSnake(segments);
     }
 
     // Engine getters and setters
 
-    public ArrayList<Tuple> getEdges() { return edges; }
-    protected int gridPositionCount() { return gridPositions.size(); }
+    public ArrayList<Tuple> getLines() { return lines; }
+    protected int gridPositionCount() { return grid.size(); }
 
     public ArrayList<Apple> getApples() { return apples; }
     protected int countApples() { return apples.size(); }
-    public void setApples(ArrayList<Apple> apples) { this.apples = apples; }
+    /**
+     * Sets the apples of the world.
+     * Like spawned apples, they should be in different cells.
+     * @param apples The apples
+     */
+    public void setApples(ArrayList<Apple> apples) {
+        this.apples = apples;
+        indexApples();
+        occupyGrid();
+    }
 
-    public ArrayList<Snake> getSnake() { return snake; }
+    /**
+     * Creates a snake entity for each segment of the snake.
+     * The segments are a copy, changing them doesn't change the game.
+     * @return The segments of the snake, starting from the head
+     */
+    public ArrayList<Snake> getSnake() { return snake.toSnakes(); }
+
+    /**
+     * @return The segments of the snake
+     */
+    public SnakeBody getSnakeBody() { return snake; }
+
+    /**
+     * The latest changes to the snake and the apples, for consumers
+     * that follow the game without scanning its whole state every tick.
+     * @return The log of the game's changes
+     */
+    public ChangeLog getChanges() { return changes; }
 
     public int getScore() { return score; }
+    public long getSeed() { return seed; }
+    public int getWorldWidth() { return worldWidth; }
+    public int getWorldHeight() { return worldHeight; }
+    public int getWorldDepth() { return worldDepth; }
 
-    private boolean turnQueued() { return turningLeft || turningRight || turningDown || turningUp; }
+    /**
+     * @return The number of ticks the game has advanced
+     */
+    public long getTick() { return tick; }
 
-    public boolean isGameOver() { return gameOver; }
+    /**
+     * The latency of the player's turns, from the key press
+     * to the snake taking the turn, in ticks.
+     * @return The statistics of the turn latencies
+     */
+    public LatencyStats getTurnLatency() { return turnLatency; }
 
-    public void setGameController(GameController controller) { this.controller = controller; }
+    /**
+     * Turns the profiling of the ticks' phases on or off.
+     * Turning it on starts with empty timings.
+     * @param enabled If the phases are timed
+     */
+    public void setProfiling(boolean enabled) { profiler = enabled ? new TickProfiler() : null; }
+
+    public boolean isProfiling() { return profiler != null; }
 
     /**
-     * Performs the action associated with each key.
-     * @param keyCode The key code of the pressed key
+     * @return The timings of the ticks' phases, null if profiling is off
      */
-    public void doButtonAction(KeyCode keyCode) {
-        if (turnQueued()) { return; } // Stops multiple inputs
+    public TickProfiler getProfiler() { return profiler; }
 
-        if (keyCode.equals(KeyCode.LEFT)) { turningLeft = true; }
-        if (keyCode.equals(KeyCode.RIGHT)) { turningRight = true; }
-        if (keyCode.equals(KeyCode.UP)) { turningDown = true; }
-        if (keyCode.equals(KeyCode.DOWN)) { turningUp = true; }
+    public boolean isGameOver() { return gameOver; }
 
+    /**
+     * Sets the listener that is told about the game's events.
+     * @param listener The listener, null for none
+     */
+    public void setListener(GameListener listener) { this.listener = listener; }
+
+    /**
+     * Sets the recorder that records the player's inputs.
+     * Must be set before the first tick for the replay to be complete.
+     * @param recorder The recorder, null for none
+     */
+    public void setRecorder(ReplayRecorder recorder) { this.recorder = recorder; }
+
+    /**
+     * Performs the action associated with each input.
+     * Turns are queued and taken one per grid cell.
+     * Turns beyond the buffer's size are dropped.
+     * @param input The player's input
+     */
+    public void handleInput(Input input) {
+        if (recorder != null) { recorder.record(tick, input); }
+        if (input == Input.PAUSE) { togglePause(); }
+        else { pendingTurns.offer(input.toTurn(), tick); }
     }
 
     /**
      * @return The camera's location in the world
      */
     public DoubleVector3D camera() {
-        DoubleVector3D headPos = head().getPosition().toDoubleVector3D();
+        DoubleVector3D headPos = snake.position(0).toDoubleVector3D();
         headPos.mul(1.0 / UNIT);
         return headPos;
     }
@@ -134,19 +214,85 @@ public class GameEngine implements IConstants {
     public Quaternion quaternion() { return q; }
 
     /**
-     * @return The head of the game's snake entity
+     * The camera's location between the last two ticks.
+     * @param alpha How far between the ticks, 0 is the previous tick and 1 the last
+     * @return The interpolated location of the camera
+     */
+    public DoubleVector3D camera(double alpha) {
+        DoubleVector3D current = camera();
+        return new DoubleVector3D(
+            previousCamera.getX() + alpha * (current.getX() - previousCamera.getX()),
+            previousCamera.getY() + alpha * (current.getY() - previousCamera.getY()),
+            previousCamera.getZ() + alpha * (current.getZ() - previousCamera.getZ())
+        );
+    }
+
+    /**
+     * The rotations of the world between the last two ticks.
+     * @param alpha How far between the ticks, 0 is the previous tick and 1 the last
+     * @return The interpolated quaternion
+     */
+    public Quaternion quaternion(double alpha) { return previousQ.interpolate(q, alpha); }
+
+    /**
+     * How far the snake is behind its position after the last tick.
+     * @param alpha How far between the ticks, 0 is the previous tick and 1 the last
+     * @return The distance the snake lags behind, in game units
      */
-    private Snake head() { return snake.get(0); }
+    public double snakeLag(double alpha) { return snakeMoved ? (1 - alpha) * STEP_SIZE : 0; }
 
     /**
-     * @return The snake's normal vector
+     * Marks the current state as the state before the next tick.
      */
-    private DoubleVector3D normal() { return head().getNormal().toDoubleVector3D(); }
+    private void saveState() {
+        Vector3D head = snake.position(0);
+        previousCamera.setX(head.getX() * (1.0 / UNIT));
+        previousCamera.setY(head.getY() * (1.0 / UNIT));
+        previousCamera.setZ(head.getZ() * (1.0 / UNIT));
+        previousQ.set(q);
+        snakeMoved = false;
+    }
+
+    /**
+     * The rotation of the world each tick while the snake takes a turn.
+     * The snake doesn't move during the turn, so it is the same every tick.
+     * Left and right turns rotate around the snake's normal, up and down
+     * turns around its relative x-axis, i.e. the heading after a right turn.
+     * @param turn The turn the snake takes
+     * @return The rotation of one tick, shared and not to be modified
+     */
+    private Quaternion rotation(Turn turn) {
+        byte frame = Orientation.of(snake.heading(0), snake.normal(0));
+        if (turn == Turn.L) { return stepRotation(Orientation.normal(frame), false); }
+        else if (turn == Turn.R) { return stepRotation(Orientation.normal(frame), true); }
+
+        Heading xAxis = Orientation.heading(Orientation.turn(frame, Turn.R));
+        if (turn == Turn.D) { return stepRotation(xAxis, true); }
+        else { return stepRotation(xAxis, false); }
+    }
+
+    /**
+     * @param axis The axis to rotate around
+     * @param positive If the rotation is by a positive angle
+     * @return The rotation of one tick around the axis
+     */
+    private static Quaternion stepRotation(Heading axis, boolean positive) {
+        return STEP_ROTATIONS[2 * axis.ordinal() + (positive ? 1 : 0)];
+    }
 
     /**
-     * @return The relative x-axis of the snake's head
+     * @return The rotations of one tick around every axis, both ways
      */
-    private DoubleVector3D snakeXAxis() { return head().getHeading().crossProd(head().getNormal()).toDoubleVector3D(); }
+    private static Quaternion[] stepRotations() {
+        Heading[] axes = Heading.values();
+        Quaternion[] rotations = new Quaternion[2 * axes.length];
+        for (Heading axis : axes) {
+            DoubleVector3D vector = axis.vec.toDoubleVector3D();
+            rotations[2 * axis.ordinal()] = new Quaternion(vector, -ONE_DEG * ROTATION_SPEED);
+            rotations[2 * axis.ordinal() + 1] = new Quaternion(vector, ONE_DEG * ROTATION_SPEED);
+        }
+        return rotations;
+    }
 
     /**
      * Triggers the paused variable of the game.
@@ -188,9 +334,10 @@ public class GameEngine implements IConstants {
         model.qZ = q.getZ();
         model.gameOver = gameOver;
 
-        SnakeModel[] snakeModels = new SnakeModel[snake.size()];
-        for (int i = 0; i < snake.size(); i++) {
-            snakeModels[i] = snake.get(i).toSnakeModel();
+        ArrayList<Snake> segments = snake.toSnakes();
+        SnakeModel[] snakeModels = new SnakeModel[segments.size()];
+        for (int i = 0; i < segments.size(); i++) {
+            snakeModels[i] = segments.get(i).toSnakeModel();
         }
 
         model.snake = snakeModels;
@@ -198,6 +345,131 @@ public class GameEngine implements IConstants {
         return model;
     }
 
+    /**
+     * Saves the full state of the game on this tick.
+     * @return The keyframe of this tick
+     */
+    public KeyframeModel keyframe() {
+        KeyframeModel keyframe = new KeyframeModel();
+        keyframe.tick = tick;
+        keyframe.score = score;
+        keyframe.gameOver = gameOver;
+        keyframe.qW = q.getW();
+        keyframe.qX = q.getX();
+        keyframe.qY = q.getY();
+        keyframe.qZ = q.getZ();
+        keyframe.random = random.getState();
+
+        keyframe.snakeCells = new int[snake.length()];
+        keyframe.snakeFrames = new int[snake.length()];
+        for (int i = 0; i < snake.length(); i++) {
+            keyframe.snakeCells[i] = snake.cell(i);
+            keyframe.snakeFrames[i] = snake.frame(i);
+        }
+        keyframe.headFrame = snake.headFrame();
+        keyframe.progress = snake.progress();
+
+        keyframe.apples = new int[apples.size()];
+        for (int i = 0; i < apples.size(); i++) { keyframe.apples[i] = apples.get(i).getCell(); }
+
+        keyframe.turn = currentTurn == null ? -1 : currentTurn.ordinal();
+        keyframe.turnDegrees = rCountHelper;
+        keyframe.turnTick = currentTurnTick;
+        keyframe.pendingTurns = new int[pendingTurns.size()];
+        keyframe.pendingTicks = new long[pendingTurns.size()];
+        for (int i = 0; i < pendingTurns.size(); i++) {
+            keyframe.pendingTurns[i] = pendingTurns.get(i).ordinal();
+            keyframe.pendingTicks[i] = pendingTurns.tickAt(i);
+        }
+        return keyframe;
+    }
+
+    /**
+     * Restores the game to the state of a keyframe.
+     * The keyframe must be from a game with the same seed and world size.
+     * @param keyframe The keyframe to restore
+     */
+    public void restore(KeyframeModel keyframe) {
+        tick = keyframe.tick;
+        score = keyframe.score;
+        gameOver = keyframe.gameOver;
+        q = new Quaternion(keyframe.qW, keyframe.qX, keyframe.qY, keyframe.qZ);
+        random.setState(keyframe.random);
+
+        // Only the cells of the entities change, so the grid isn't cleared
+        for (int i = 0; i < snake.length(); i++) { vacate(snake.cell(i)); }
+        for (Apple apple : apples) { grid.vacate(apple.getGridPos()); }
+
+        snake = new SnakeBody(keyframe.snakeCells, keyframe.snakeFrames, keyframe.headFrame, keyframe.progress);
+        Vector3D offset = new Vector3D(500, 500, 500);
+        apples = new ArrayList<>(keyframe.apples.length);
+        for (int cell : keyframe.apples) { apples.add(new Apple(GridCell.toVector3D(cell).mul(UNIT).add(offset))); }
+        indexApples();
+
+        for (int i = 0; i < snake.length(); i++) { occupy(snake.cell(i)); }
+        for (Apple apple : apples) { grid.occupy(apple.getGridPos()); }
+
+        Turn[] turns = Turn.values();
+        currentTurn = keyframe.turn == -1 ? null : turns[keyframe.turn];
+        if (currentTurn != null) { currentRotation = rotation(currentTurn); }
+        rCountHelper = keyframe.turnDegrees;
+        currentTurnTick = keyframe.turnTick;
+        pendingTurns.clear();
+        for (int i = 0; i < keyframe.pendingTurns.length; i++) { pendingTurns.offer(turns[keyframe.pendingTurns[i]], keyframe.pendingTicks[i]); }
+        saveState();
+        changes.append(tick, ChangeLog.Type.RESET, 0, 0);
+    }
+
+    /**
+     * A hash of the state of the game.
+     * Two games in the same state have the same hash,
+     * which is used to check that a replay reproduces its game.
+     * @return The 64-bit FNV-1a hash of the game's state
+     */
+    public long stateHash() {
+        long hash = 0xcbf29ce484222325L;
+        hash = mix(hash, seed);
+        hash = mix(hash, tick);
+        hash = mix(hash, score);
+        hash = mix(hash, gameOver ? 1 : 0);
+        hash = mix(hash, Double.doubleToLongBits(q.getW()));
+        hash = mix(hash, Double.doubleToLongBits(q.getX()));
+        hash = mix(hash, Double.doubleToLongBits(q.getY()));
+        hash = mix(hash, Double.doubleToLongBits(q.getZ()));
+        hash = mix(hash, currentTurn == null ? -1 : currentTurn.ordinal());
+        hash = mix(hash, rCountHelper);
+        hash = mix(hash, random.getState());
+        hash = mix(hash, pendingTurns.size());
+        for (int i = 0; i < pendingTurns.size(); i++) {
+            hash = mix(hash, pendingTurns.get(i).ordinal());
+            hash = mix(hash, pendingTurns.tickAt(i));
+        }
+        hash = mix(hash, snake.progress());
+        hash = mix(hash, snake.length());
+        for (int i = 0; i < snake.length(); i++) {
+            hash = mix(hash, snake.cell(i));
+            hash = mix(hash, snake.heading(i).ordinal() * 8 + snake.normal(i).ordinal());
+        }
+        for (Apple apple : apples) {
+            hash = mix(hash, apple.getCell());
+        }
+        return hash;
+    }
+
+    /**
+     * Mixes a value into a hash, one byte at a time.
+     * @param hash The hash so far
+     * @param value The value to mix in
+     * @return The new hash
+     */
+    static long mix(long hash, long value) {
+        for (int i = 0; i < 8; i++) {
+            hash ^= (value >>> (8 * i)) & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
     /**
      * @return The saved score state of this model.
      */
@@ -213,69 +485,67 @@ public class GameEngine implements IConstants {
         return model;
     } 
 
+    /**
+     * Advances the game a number of ticks.
+     * The ticks are run immediately, independent of the time passed.
+     * @param ticks The number of ticks to run
+     */
+    public void step(int ticks) {
+        for (int i = 0; i < ticks; i++) { update(); }
+    }
+
     /**
      * Update method of the world.
      */
     public void update() {
+        saveState();
+
         if (paused || gameOver) {
             return;
         }
 
-        if (isTurning) {
-            Quaternion rotation;
+        tick++;
 
-            // Makes the rotation with the snake's position and the wanted direction
-            if (turningLeft) { rotation = new Quaternion(normal(), -ONE_DEG * ROTATION_SPEED); }
-            else if (turningRight) { rotation = new Quaternion(normal(), ONE_DEG * ROTATION_SPEED); }
-            else if (turningDown) { rotation = new Quaternion(snakeXAxis(), ONE_DEG * ROTATION_SPEED); }
-            else { rotation = new Quaternion(snakeXAxis(), -ONE_DEG * ROTATION_SPEED); }
+        // Read once, so the tick is profiled fully or not at all
+        TickProfiler profiler = this.profiler;
+        long time = profiler == null ? 0 : System.nanoTime();
 
+        if (currentTurn != null) {
             // Applies the rotation
-            q.mul(rotation);
+            q.mul(currentRotation);
             rCountHelper += ROTATION_SPEED;
 
             // Completed the rotation (degrees reached 90)
             if (rCountHelper == 90) { 
                 rCountHelper = 0;
-
-                if (turningLeft) { turningLeft = false; head().setTurn(Turn.L); }
-                else if (turningRight) { turningRight = false; head().setTurn(Turn.R); }
-                else if (turningDown) { turningDown = false; head().setTurn(Turn.D); }
-                else { turningUp = false; head().setTurn(Turn.U); }
-
-                isTurning = false;
-
-                applyTurns();
-                propagateTurns();
+                q.snapToAxes();
+                snake.turnHead(currentTurn);
+                changes.append(tick, ChangeLog.Type.ROTATED, snake.cell(0), currentTurn.ordinal());
+                turnLatency.record(tick - currentTurnTick);
+                currentTurn = null;
             }
+            if (profiler != null) { profiler.lap(TickProfiler.Phase.TURNS, time); }
         }
         else {
-            for (Snake segment : snake) { segment.move(); }
+            moveSnake();
+            snakeMoved = true;
+            if (profiler != null) { time = profiler.lap(TickProfiler.Phase.MOVE, time); }
             checkAppleCollisions();
+            if (profiler != null) { time = profiler.lap(TickProfiler.Phase.APPLE_COLLISIONS, time); }
             spawnApple(appleLimit);
-            if (head().getPosition().forAll(c -> (c.intValue() + 500) % 1000 == 0)) {
-                if (turnQueued()) { isTurning = true; }
-                else { applyTurns(); propagateTurns(); }
+            if (profiler != null) { time = profiler.lap(TickProfiler.Phase.SPAWN_APPLE, time); }
+            if (snake.isGridAligned() && !pendingTurns.isEmpty()) {
+                currentTurnTick = pendingTurns.peekTick();
+                currentTurn = pendingTurns.poll();
+                currentRotation = rotation(currentTurn);
             }
-            if (checkSnakeCollisions()) { killPlayer(); }
-        }
-    }
-
-    /**
-     * Gets the non-occupied grid positions.
-     * Non-occupied entails that no entity is present at the location.
-     * @param positions A collection of the occupied positions
-     * @return An ArrayList of free spaces
-     */
-    protected ArrayList<Vector3D> getAvailableGridPositions(ArrayList<Vector3D> positions) {
-        ArrayList<Vector3D> available = new ArrayList<>();
-        available.addAll(this.gridPositions);
-
-        for (Vector3D position : positions) {
-            available.removeIf( (pos) -> pos.equals(position) );
+            if (profiler != null) { time = profiler.lap(TickProfiler.Phase.TURNS, time); }
+            boolean collided = checkSnakeCollisions();
+            if (profiler != null) { profiler.lap(TickProfiler.Phase.SNAKE_COLLISIONS, time); }
+            if (collided) { killPlayer(); }
         }
 
-        return available;
+        if (recorder != null) { recorder.ticked(this); }
     }
 
     /**
@@ -287,84 +557,141 @@ public class GameEngine implements IConstants {
      */
     protected void spawnApple(int limit) {
         if (this.countApples() < limit) {
-            ArrayList<Vector3D> occupied = new ArrayList<>();
-            for (Apple apple : apples) { occupied.add(apple.getGridPos()); }
-            for (Snake segment : snake) { occupied.add(segment.getGridPos()); }
-            ArrayList<Vector3D> availableGridPositions = getAvailableGridPositions(occupied);
+            int locationIndex = grid.randomFreeCell(random);
 
-            if (availableGridPositions.size() == 0) {
+            if (locationIndex == -1) {
                 return;
             }
 
-            int locationIndex = random.nextInt(availableGridPositions.size());
             Vector3D offset = new Vector3D(500, 500, 500);
-            Apple apple = new Apple(availableGridPositions.get(locationIndex).mul(UNIT).add(offset));
+            Apple apple = new Apple(grid.cell(locationIndex).mul(UNIT).add(offset));
+            appleIndex.put(apple.getCell(), apples.size());
             apples.add(apple);
+            grid.occupy(apple.getGridPos());
+            changes.append(tick, ChangeLog.Type.APPLE_SPAWNED, apple.getCell(), 0);
+            if (listener != null) { listener.appleSpawned(apple); }
         }
     }
 
     /**
-     * Propagates the next turns to each snake segment from the previous.
-     * Iterates backwards as to not lose data.
+     * Moves the snake one step.
+     * <p> Every segment enters a new cell on the step after a grid-aligned
+     * point, which only moves the head into a new cell and the tail out of one.
      */
-    protected void propagateTurns() {
-        for (int i = snake.size() - 1; i >= 1; i--) {
-            Turn turn = snake.get(i-1).getTurn();
-            snake.get(i).setTurn(turn);
+    protected void moveSnake() {
+        boolean entersNewCell = snake.isGridAligned();
+        int tailCell = snake.tailCell();
+        snake.move();
+        if (entersNewCell) {
+            vacate(tailCell);
+            occupy(snake.cell(0));
+            changes.append(tick, ChangeLog.Type.SEGMENT_REMOVED, tailCell, 0);
+            changes.append(tick, ChangeLog.Type.SEGMENT_ADDED, snake.cell(0), 0);
         }
-        head().setTurn(Turn.N);
     }
 
     /**
-     * Applies the stored turns to each snake segment.
+     * Turns the snake's head. The rest of the body takes
+     * the same turn when it reaches the head's current cell.
+     * @param turn The turn to take
      */
-    protected void applyTurns() {
-        for (Snake s : snake) { s.applyTurn(); }
-    }
+    protected void turnSnake(Turn turn) { snake.turnHead(turn); }
 
     /**
      * Grows the snake's tail by one.
      */
     protected void growSnake() {
-        Snake tail = snake.get(snake.size() - 1);
-        Vector3D nextPos = tail.getPosition().add(tail.getHeading().neg().mul(UNIT));
-        Snake nextSegment = new Snake(nextPos, tail.getHeading(), tail.getNormal(), Turn.N);
-        snake.add(nextSegment);
+        int tail = snake.grow();
+        occupy(tail);
+        changes.append(tick, ChangeLog.Type.SEGMENT_ADDED, tail, 1);
     }
 
     /**
      * Testing method for setting the engine's snake.
+     * The segments are copied into the engine.
      * Used for testing.
      * @param snake The snake to set this world's snake as.
      */
-    protected void setSnake(ArrayList<Snake> snake) { this.snake = snake; }
+    protected void setSnake(ArrayList<Snake> snake) {
+        this.snake = new SnakeBody(snake);
+        occupyGrid();
+        saveState();
+    }
+
+    /**
+     * Marks a packed cell as occupied by one more entity.
+     * @param cell The packed cell
+     */
+    private void occupy(int cell) { grid.occupy(GridCell.x(cell), GridCell.y(cell), GridCell.z(cell)); }
+
+    /**
+     * Marks a packed cell as occupied by one less entity.
+     * @param cell The packed cell
+     */
+    private void vacate(int cell) { grid.vacate(GridCell.x(cell), GridCell.y(cell), GridCell.z(cell)); }
+
+    /**
+     * Resets the grid to have the grid position of each
+     * snake segment and apple marked as occupied.
+     */
+    private void occupyGrid() {
+        grid.clear();
+        for (int i = 0; i < snake.length(); i++) { occupy(snake.cell(i)); }
+        for (Apple apple : apples) { grid.occupy(apple.getGridPos()); }
+        changes.append(tick, ChangeLog.Type.RESET, 0, 0);
+    }
+
+    /**
+     * Indexes the apples' positions in the list by their packed grid cells.
+     */
+    private void indexApples() {
+        appleIndex.clear();
+        for (int i = 0; i < apples.size(); i++) { appleIndex.put(apples.get(i).getCell(), i); }
+    }
+
+    /**
+     * Removes an apple by moving the last apple into its position.
+     * @param position The position of the apple in the list of apples
+     */
+    private void removeApple(int position) {
+        Apple last = apples.remove(apples.size() - 1);
+        if (position == apples.size()) { return; }
+        apples.set(position, last);
+        appleIndex.put(last.getCell(), position);
+    }
 
     /**
      * Checks apple collisions. If an apple is collided with,
      * the score increases by one.
+     * <p> The head's cell is looked up in the apple index, which also
+     * knows the apple's position in the list, so eating takes constant time.
      */
     protected boolean checkAppleCollisions() {
-        Predicate<Apple> collided = a -> a.getGridPos().equals(head().getGridPos());
-        boolean appleEaten = apples.removeIf(collided);
-        if (appleEaten) { incrementScore(); growSnake(); return true; }
-        else { return false; }
+        int head = snake.cell(0);
+        Integer position = appleIndex.remove(head);
+        if (position == null) { return false; }
+
+        removeApple(position);
+        vacate(head);
+        changes.append(tick, ChangeLog.Type.APPLE_EATEN, head, 0);
+        incrementScore();
+        growSnake();
+        return true;
     }
 
     /**
-     * Checks if the snake has collided with itself.
+     * Checks if the snake has collided with itself or left the world.
      * If the player collides with themselves, their game
      * is over and is saved to the highscores.
      * The game is also removed from the saved games.
+     * <p> The head occupies its own cell, so another segment
+     * in the same cell makes the count larger than one.
      */
     protected boolean checkSnakeCollisions() {
-        Vector3D headGridPos = head().getGridPos();
-        if (!gridPositions.contains(headGridPos)) { return true; }
-        for (int i = 1; i < snake.size(); i++) {
-            if (snake.get(i).getGridPos().equals(headGridPos)) {
-                return true;
-            }
-        }
-        return false;
+        int head = snake.cell(0);
+        int x = GridCell.x(head), y = GridCell.y(head), z = GridCell.z(head);
+        if (!grid.contains(x, y, z)) { return true; }
+        return grid.count(x, y, z) > 1;
     }
 
     /**
@@ -372,11 +699,7 @@ public class GameEngine implements IConstants {
      */
     private void killPlayer() {
         gameOver = true;
-        try {
-            controller.playerDied();
-        } catch (NullPointerException e) {
-            System.out.println("Warning: No controller is assigned to this game instance.");
-        }
+        if (listener != null) { listener.playerDied(); }
     }
     
 }
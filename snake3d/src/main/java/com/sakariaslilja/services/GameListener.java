@@ -0,0 +1,21 @@
+package com.sakariaslilja.services;
+
+import com.sakariaslilja.entities.Apple;
+
+/**
+ * Listener for the events of a game.
+ */
+public interface GameListener {
+
+    /**
+     * Called when the player dies and the game is over.
+     */
+    void playerDied();
+
+    /**
+     * Called when an apple spawns into the world.
+     * @param apple The new apple
+     */
+    default void appleSpawned(Apple apple) {}
+
+}
@@ -0,0 +1,423 @@
+package com.sakariaslilja.services;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+import com.sakariaslilja.IConstants;
+import com.sakariaslilja.datastructures.Heading;
+import com.sakariaslilja.entities.SnakeBody;
+import com.sakariaslilja.entities.Turn;
+
+/**
+ * Hosts an arena for clients on the local machine.
+ * <p> Every client that connects plays a snake of its own. One thread
+ * accepts clients, reads their turns, ticks the arena and sends each tick's
+ * changes to every client in the {@code DeltaProtocol}, all with non-blocking
+ * channels on one selector. Each tick's frame is encoded once and shared by
+ * every client. A client that falls too far behind is disconnected.
+ * <p> The snake of a client that disconnects carries on without a player.
+ */
+public class GameServer implements ArenaListener, Closeable, IConstants {
+
+    // The most frames waiting to be sent to a client before it is dropped
+    private static final int MAX_PENDING_FRAMES = 1024;
+    private static final Turn[] TURNS = Turn.values();
+
+    private final ArenaEngine arena;
+    private final long tickNanos;
+    private final int width;
+    private final int height;
+
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private final ArrayList<Client> clients = new ArrayList<>();
+    private ByteBuffer events = ByteBuffer.allocate(1 << 12);
+    private final ByteBuffer input = ByteBuffer.allocate(256);
+    private volatile boolean running = false;
+
+    private volatile long ticks = 0;
+    private volatile long bytesSent = 0;
+
+    /**
+     * A connected client and the frames waiting to be sent to it.
+     */
+    private static class Client {
+        final SocketChannel channel;
+        final int snake;
+        final ArrayDeque<ByteBuffer> pending = new ArrayDeque<>();
+
+        Client(SocketChannel channel, int snake) {
+            this.channel = channel;
+            this.snake = snake;
+        }
+    }
+
+    /**
+     * Creates a server for an arena. The server becomes the arena's listener.
+     * @param arena The arena to host
+     * @param tickNanos The length of a tick in nanoseconds
+     */
+    public GameServer(ArenaEngine arena, long tickNanos) {
+        this.arena = arena;
+        this.tickNanos = tickNanos;
+        this.width = arena.getWorldWidth();
+        this.height = arena.getWorldHeight();
+        arena.setListener(this);
+    }
+
+    /**
+     * Creates a server for an arena that ticks at the game's speed.
+     * @param arena The arena to host
+     */
+    public GameServer(ArenaEngine arena) {
+        this(arena, FPS);
+    }
+
+    /**
+     * Starts listening on the loopback address.
+     * @param port The port to listen on, 0 for any free port
+     * @return The port the server listens on
+     * @throws IOException The port couldn't be opened
+     */
+    public int bind(int port) throws IOException {
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        running = true;
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * @return The number of ticks the server has run
+     */
+    public long getTicks() { return ticks; }
+
+    /**
+     * @return The number of bytes sent to clients
+     */
+    public long getBytesSent() { return bytesSent; }
+
+    /**
+     * @return The mean number of bytes sent per tick, to all clients together
+     */
+    public double bytesPerTick() { return ticks == 0 ? 0 : (double) bytesSent / ticks; }
+
+    /**
+     * Serves clients and ticks the arena until the server is closed.
+     * Must be called after {@code bind}, on the thread that owns the arena.
+     * @throws IOException The selector failed
+     */
+    public void run() throws IOException {
+        long nextTick = System.nanoTime() + tickNanos;
+        try {
+            while (running) {
+                long wait = nextTick - System.nanoTime();
+                if (wait > 0) { selector.select(Long.max(1, TimeUnit.NANOSECONDS.toMillis(wait))); }
+                else { selector.selectNow(); }
+                handleKeys();
+
+                long now = System.nanoTime();
+                if (now - nextTick >= 0) {
+                    tick();
+                    nextTick += tickNanos;
+                    // Skips the ticks it can't catch up on instead of spiraling
+                    if (now - nextTick > MAX_TICKS_PER_FRAME * tickNanos) { nextTick = now + tickNanos; }
+                }
+            }
+        }
+        finally {
+            shutdown();
+        }
+    }
+
+    /**
+     * Stops the server. The frames already ticked are still sent.
+     * Can be called from any thread.
+     */
+    @Override
+    public void close() {
+        running = false;
+        if (selector != null) { selector.wakeup(); }
+    }
+
+    /**
+     * Accepts new clients and reads the turns of connected ones.
+     */
+    private void handleKeys() throws IOException {
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+            if (!key.isValid()) { continue; }
+            if (key.isAcceptable()) { accept(); }
+            else {
+                Client client = (Client) key.attachment();
+                if (key.isReadable()) { read(client); }
+                if (key.isValid() && key.isWritable()) { flush(client); }
+            }
+        }
+    }
+
+    /**
+     * Accepts a client, spawns its snake and welcomes it.
+     */
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) { return; }
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+
+        Heading[] headings = Heading.values();
+        Heading heading = headings[clients.size() % headings.length];
+        Heading normal = heading == Heading.UP || heading == Heading.DOWN ? Heading.FORWARD : Heading.UP;
+        int snake = arena.spawnSnake(heading, normal, null);
+        if (snake == -1) {
+            channel.close();
+            return;
+        }
+
+        Client client = new Client(channel, snake);
+        channel.register(selector, SelectionKey.OP_READ, client);
+        clients.add(client);
+        send(client, welcome(snake));
+    }
+
+    /**
+     * Reads a client's turns.
+     * @param client The client to read from
+     */
+    private void read(Client client) throws IOException {
+        input.clear();
+        int read;
+        try {
+            read = client.channel.read(input);
+        }
+        catch (IOException e) {
+            read = -1;
+        }
+        if (read == -1) {
+            disconnect(client);
+            return;
+        }
+        input.flip();
+        while (input.hasRemaining()) {
+            int turn = input.get();
+            if (turn >= 0 && turn < TURNS.length) { arena.turn(client.snake, TURNS[turn]); }
+        }
+    }
+
+    /**
+     * Advances the arena and sends the tick's changes to every client.
+     */
+    private void tick() throws IOException {
+        arena.update();
+        events.flip();
+        ByteBuffer frame = ByteBuffer.allocate(events.remaining() + 5);
+        DeltaProtocol.writeVarint(frame, events.remaining());
+        frame.put(events);
+        frame.flip();
+        events.clear();
+
+        for (Client client : new ArrayList<>(clients)) { send(client, frame.duplicate()); }
+        ticks++;
+    }
+
+    /**
+     * Queues a frame for a client and sends as much as the socket takes.
+     * @param client The client to send to
+     * @param frame The frame to send
+     */
+    private void send(Client client, ByteBuffer frame) throws IOException {
+        if (client.pending.size() >= MAX_PENDING_FRAMES) {
+            disconnect(client);
+            return;
+        }
+        client.pending.add(frame);
+        flush(client);
+    }
+
+    /**
+     * Sends a client's waiting frames until its socket is full.
+     * @param client The client to send to
+     */
+    private void flush(Client client) throws IOException {
+        try {
+            while (!client.pending.isEmpty()) {
+                ByteBuffer frame = client.pending.peek();
+                bytesSent += client.channel.write(frame);
+                if (frame.hasRemaining()) { break; }
+                client.pending.poll();
+            }
+        }
+        catch (IOException e) {
+            disconnect(client);
+            return;
+        }
+        SelectionKey key = client.channel.keyFor(selector);
+        if (key != null && key.isValid()) {
+            key.interestOps(client.pending.isEmpty() ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        }
+    }
+
+    /**
+     * Closes a client's connection. Its snake stays in the arena.
+     * @param client The client to disconnect
+     */
+    private void disconnect(Client client) throws IOException {
+        clients.remove(client);
+        client.pending.clear();
+        client.channel.close();
+    }
+
+    /**
+     * Sends the frames already ticked and closes every connection.
+     */
+    private void shutdown() throws IOException {
+        // Closing the selector deregisters the channels, so they can block
+        selector.close();
+        for (Client client : clients) {
+            try {
+                client.channel.configureBlocking(true);
+                for (ByteBuffer frame : client.pending) {
+                    while (frame.hasRemaining()) { bytesSent += client.channel.write(frame); }
+                }
+            }
+            catch (IOException e) {
+                // The client is gone, nothing left to send
+            }
+            client.channel.close();
+        }
+        clients.clear();
+        serverChannel.close();
+    }
+
+    /**
+     * Encodes a client's welcome: its snake, the world and its state.
+     * The client's own snake is left out, it joins in the next tick's events.
+     * @param snake The index of the client's snake
+     * @return The welcome frame
+     */
+    private ByteBuffer welcome(int snake) {
+        ByteBuffer state = ByteBuffer.allocate(64 + 10 * arena.getApples().size() + 10 * arena.snakeCount() + stateSegments());
+        state.put(DeltaProtocol.header(DeltaProtocol.WELCOME, 0));
+        DeltaProtocol.writeVarint(state, snake);
+        DeltaProtocol.writeVarint(state, arena.getWorldWidth());
+        DeltaProtocol.writeVarint(state, arena.getWorldHeight());
+        DeltaProtocol.writeVarint(state, arena.getWorldDepth());
+        DeltaProtocol.writeVarint(state, arena.getTick());
+
+        for (int i = 0; i < arena.snakeCount(); i++) {
+            if (i == snake || !arena.isAlive(i)) { continue; }
+            SnakeBody body = arena.getSnakeBody(i);
+            writeJoined(state, i, body.cell(0));
+            for (int j = 1; j < body.length(); j++) { writeGrow(state, i, body.cell(j - 1), body.cell(j)); }
+        }
+        arena.getApples().forEach(apple -> writeCell(state, DeltaProtocol.APPLE_SPAWNED, apple.getCell()));
+
+        state.flip();
+        ByteBuffer frame = ByteBuffer.allocate(state.remaining() + 5);
+        DeltaProtocol.writeVarint(frame, state.remaining());
+        frame.put(state);
+        frame.flip();
+        return frame;
+    }
+
+    /**
+     * @return The number of segments of the living snakes
+     */
+    private int stateSegments() {
+        int segments = 0;
+        for (int i = 0; i < arena.snakeCount(); i++) {
+            if (arena.isAlive(i)) { segments += 4 * arena.getSnakeBody(i).length(); }
+        }
+        return segments;
+    }
+
+    // Events
+
+    /**
+     * Makes room for an event in the tick's events.
+     */
+    private void reserve() {
+        if (events.remaining() >= 16) { return; }
+        ByteBuffer larger = ByteBuffer.allocate(2 * events.capacity());
+        events.flip();
+        larger.put(events);
+        events = larger;
+    }
+
+    @Override
+    public void snakeAdded(int snake) {
+        reserve();
+        writeJoined(events, snake, arena.getSnakeBody(snake).cell(0));
+    }
+
+    @Override
+    public void snakeMoved(int snake, int headCell, int tailCell) {
+        SnakeBody body = arena.getSnakeBody(snake);
+        // The head entered the cell next to the segment behind it
+        int neck = body.length() > 1 ? body.cell(1) : tailCell;
+        reserve();
+        events.put(DeltaProtocol.header(DeltaProtocol.HEAD, DeltaProtocol.direction(neck, headCell)));
+        DeltaProtocol.writeVarint(events, snake);
+        events.put(DeltaProtocol.header(DeltaProtocol.TAIL, 0));
+        DeltaProtocol.writeVarint(events, snake);
+    }
+
+    @Override
+    public void snakeGrew(int snake, int tailCell) {
+        SnakeBody body = arena.getSnakeBody(snake);
+        reserve();
+        writeGrow(events, snake, body.cell(body.length() - 2), tailCell);
+    }
+
+    @Override
+    public void snakeDied(int snake) {
+        reserve();
+        events.put(DeltaProtocol.header(DeltaProtocol.DIED, 0));
+        DeltaProtocol.writeVarint(events, snake);
+    }
+
+    @Override
+    public void appleSpawned(int cell) {
+        reserve();
+        writeCell(events, DeltaProtocol.APPLE_SPAWNED, cell);
+    }
+
+    @Override
+    public void appleEaten(int cell) {
+        reserve();
+        writeCell(events, DeltaProtocol.APPLE_EATEN, cell);
+    }
+
+    private void writeJoined(ByteBuffer buffer, int snake, int cell) {
+        buffer.put(DeltaProtocol.header(DeltaProtocol.JOINED, 0));
+        DeltaProtocol.writeVarint(buffer, snake);
+        DeltaProtocol.writeVarint(buffer, DeltaProtocol.index(cell, width, height));
+    }
+
+    private void writeGrow(ByteBuffer buffer, int snake, int from, int to) {
+        buffer.put(DeltaProtocol.header(DeltaProtocol.GROW, DeltaProtocol.direction(from, to)));
+        DeltaProtocol.writeVarint(buffer, snake);
+    }
+
+    private void writeCell(ByteBuffer buffer, int type, int cell) {
+        buffer.put(DeltaProtocol.header(type, 0));
+        DeltaProtocol.writeVarint(buffer, DeltaProtocol.index(cell, width, height));
+    }
+
+}
@@ -0,0 +1,112 @@
+package com.sakariaslilja.services;
+
+import java.util.ArrayList;
+
+import com.sakariaslilja.datastructures.DoubleVector3D;
+import com.sakariaslilja.datastructures.Quaternion;
+import com.sakariaslilja.datastructures.VertexBuffer;
+import com.sakariaslilja.entities.Apple;
+
+/**
+ * Everything the renderer needs of the game's state after a tick.
+ * <p> The state before the tick is kept alongside it,
+ * so frames can be rendered between the two.
+ * <p> A snapshot is only written by the engine's thread when it is captured,
+ * and read only after it has been published, so it can be read
+ * without touching the engine.
+ */
+public class GameSnapshot {
+
+    private long tick = 0;
+    private long time = 0;
+    private int score = 0;
+    private boolean gameOver = false;
+
+    private DoubleVector3D camera = new DoubleVector3D(0, 0, 0);
+    private DoubleVector3D previousCamera = new DoubleVector3D(0, 0, 0);
+    private Quaternion rotation = new Quaternion(1, 0, 0, 0);
+    private Quaternion previousRotation = new Quaternion(1, 0, 0, 0);
+
+    private VertexBuffer cubes = new VertexBuffer();
+    private VertexBuffer previousCubes = new VertexBuffer();
+    private int snakeCubes = 0;
+
+    /**
+     * Captures the engine's state after its last tick.
+     * @param engine The engine to capture
+     * @param time The time of the capture in nanoseconds
+     */
+    public void capture(GameEngine engine, long time) {
+        this.tick = engine.getTick();
+        this.time = time;
+        this.score = engine.getScore();
+        this.gameOver = engine.isGameOver();
+
+        camera = engine.camera(1);
+        previousCamera = engine.camera(0);
+        rotation = engine.quaternion(1);
+        previousRotation = engine.quaternion(0);
+
+        // The head is not drawn, the camera is inside it
+        cubes.clear();
+        previousCubes.clear();
+        engine.getSnakeBody().writeVertices(cubes, 1, engine.snakeLag(1));
+        engine.getSnakeBody().writeVertices(previousCubes, 1, engine.snakeLag(0));
+        snakeCubes = cubes.cubeCount();
+
+        ArrayList<Apple> apples = engine.getApples();
+        for (int i = 0; i < apples.size(); i++) {
+            apples.get(i).writeVertices(cubes);
+            apples.get(i).writeVertices(previousCubes);
+        }
+    }
+
+    /**
+     * @return The number of ticks the engine had run
+     */
+    public long getTick() { return tick; }
+
+    /**
+     * @return The time of the capture in nanoseconds
+     */
+    public long getTime() { return time; }
+
+    public int getScore() { return score; }
+    public boolean isGameOver() { return gameOver; }
+
+    /**
+     * @return The number of cubes of the snake, which come before the apples
+     */
+    public int snakeCubes() { return snakeCubes; }
+
+    /**
+     * The camera's location between the tick and the one before it.
+     * @param alpha How far between the ticks, 0 is the previous tick and 1 this one
+     * @return The interpolated location of the camera
+     */
+    public DoubleVector3D camera(double alpha) {
+        return new DoubleVector3D(
+            previousCamera.getX() + alpha * (camera.getX() - previousCamera.getX()),
+            previousCamera.getY() + alpha * (camera.getY() - previousCamera.getY()),
+            previousCamera.getZ() + alpha * (camera.getZ() - previousCamera.getZ())
+        );
+    }
+
+    /**
+     * The rotations of the world between the tick and the one before it.
+     * @param alpha How far between the ticks, 0 is the previous tick and 1 this one
+     * @return The interpolated quaternion
+     */
+    public Quaternion quaternion(double alpha) { return previousRotation.interpolate(rotation, alpha); }
+
+    /**
+     * Writes every cube entity's world vertices between the tick
+     * and the one before it into a vertex buffer.
+     * @param buffer The buffer to write into
+     * @param alpha How far between the ticks, 0 is the previous tick and 1 this one
+     */
+    public void writeVertices(VertexBuffer buffer, double alpha) {
+        buffer.interpolate(previousCubes, cubes, alpha);
+    }
+
+}
@@ -15,6 +15,7 @@ import java.util.stream.Stream;
 import com.google.gson.JsonSyntaxException;
 import com.sakariaslilja.App;
 import com.sakariaslilja.models.GameModel;
+import com.sakariaslilja.models.ReplayModel;
 
 /**
  * Service for reading the files in the games folder
@@ -28,6 +29,11 @@ public class GamesService implements Snake3DGson {
         return Files.isRegularFile(p) && fileName.startsWith("game_") && fileName.endsWith(".json");
     };
 
+    protected static Predicate<Path> isReplayFile = (p) -> {
+        String fileName = p.getFileName().toString();
+        return Files.isRegularFile(p) && fileName.startsWith("replay_") && fileName.endsWith(".json");
+    };
+
     /**
      * Reads all the game files and their contents that are located in the games folder.
      * @return An ArrayList of game models
@@ -105,6 +111,7 @@ public class GamesService implements Snake3DGson {
             Files.createDirectories(Paths.get(GAMES_DIRECTORY));
             Path gamePath = Paths.get(GAMES_DIRECTORY + File.separator + "game_" + game.seed + ".json");
             boolean deleted = Files.deleteIfExists(gamePath);
+            Files.deleteIfExists(snapshotPath(game.seed));
             if (deleted) { System.out.println("deleted successfully"); return true; }
             else { System.out.println("deleting failed"); return false; }
         } 
@@ -116,4 +123,129 @@ public class GamesService implements Snake3DGson {
         }
     }
     
+    /**
+     * Saves a snapshot of a game's engine to the games folder, next to the file of the game.
+     * @param seed The seed of the game
+     * @param snapshot The snapshot from {@code SnapshotCodec}
+     */
+    public static boolean saveSnapshot(long seed, byte[] snapshot) {
+        try {
+            Files.createDirectories(Paths.get(GAMES_DIRECTORY));
+            Files.write(snapshotPath(seed), snapshot);
+            return true;
+        }
+
+        // Unhandled exception
+        catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Reads the snapshot of a game's engine.
+     * @param seed The seed of the game
+     * @return The snapshot, null if the game has none
+     */
+    public static byte[] getSnapshot(long seed) {
+        try {
+            return Files.readAllBytes(snapshotPath(seed));
+        }
+
+        // The game was saved without a snapshot
+        catch (NoSuchFileException e) {
+            return null;
+        }
+
+        // Unhandled exception
+        catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * @param seed The seed of a game
+     * @return The path of the game's snapshot file
+     */
+    private static Path snapshotPath(long seed) {
+        return Paths.get(GAMES_DIRECTORY + File.separator + "snapshot_" + seed + ".bin");
+    }
+
+    /**
+     * Saves a replay file to the games folder, next to the file of its game.
+     * @param replay The replay to save
+     */
+    public static boolean saveReplay(ReplayModel replay) {
+        try {
+            Files.createDirectories(Paths.get(GAMES_DIRECTORY));
+            File replayFile = new File(GAMES_DIRECTORY + File.separator + "replay_" + replay.game.seed + ".json");
+            BufferedWriter writer = new BufferedWriter(new FileWriter(replayFile));
+            writer.write(gson.toJson(replay));
+            writer.close();
+            return true;
+        }
+
+        // Unhandled exception
+        catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Reads all the replay files that are located in the games folder.
+     * @return An ArrayList of replay models
+     */
+    public static ArrayList<ReplayModel> getReplays() {
+        try {
+            Files.createDirectories(Paths.get(GAMES_DIRECTORY));
+            Stream<Path> pathStream = Files.walk(Paths.get(GAMES_DIRECTORY));
+            ArrayList<Path> replayPaths = new ArrayList<>();
+            pathStream.forEach(p -> replayPaths.add(p));
+            pathStream.close();
+            replayPaths.removeIf(isReplayFile.negate());
+            ArrayList<ReplayModel> replays = new ArrayList<>();
+
+            for (Path p : replayPaths) {
+                try {
+                    replays.add(gson.fromJson(ReadFileService.readFile(p), ReplayModel.class));
+                }
+
+                // File wasn't found, shouldn't be possible
+                catch (NoSuchFileException e) {
+                    System.out.println(p.getFileName().toString() + " couldn't be found.");
+                }
+
+                // JSON-syntax is invalid in the replay file
+                catch (JsonSyntaxException e) {
+                    System.out.println("Invalid JSON syntax in file: " + p.getFileName());
+                }
+            }
+            return replays;
+        }
+
+        catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Deletes a replay if it is found in the games folder
+     * @param seed The seed of the replay's game
+     */
+    public static boolean deleteReplay(long seed) {
+        try {
+            Files.createDirectories(Paths.get(GAMES_DIRECTORY));
+            return Files.deleteIfExists(Paths.get(GAMES_DIRECTORY + File.separator + "replay_" + seed + ".json"));
+        }
+
+        // Unhandled exception
+        catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
 }
@@ -0,0 +1,42 @@
+package com.sakariaslilja.services;
+
+import com.sakariaslilja.entities.Turn;
+
+/**
+ * The player's inputs to the game, independent of the keys they come from.
+ */
+public enum Input {
+    /**
+     * Turns the snake left.
+     */
+    LEFT,
+    /**
+     * Turns the snake right.
+     */
+    RIGHT,
+    /**
+     * Tilts the world up, i.e. turns the snake down.
+     */
+    UP,
+    /**
+     * Tilts the world down, i.e. turns the snake up.
+     */
+    DOWN,
+    /**
+     * Pauses or resumes the game.
+     */
+    PAUSE;
+
+    /**
+     * @return The turn the snake takes for this input, null for pausing
+     */
+    public Turn toTurn() {
+        switch (this) {
+            case LEFT: return Turn.L;
+            case RIGHT: return Turn.R;
+            case UP: return Turn.D;
+            case DOWN: return Turn.U;
+            default: return null;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.sakariaslilja.services;
+
+/**
+ * Plays a game in place of a player.
+ */
+public interface InputPolicy {
+
+    /**
+     * Chooses the input for the next tick.
+     * @param engine The game being played
+     * @return The input to pass to the engine, null for none
+     */
+    Input next(GameEngine engine);
+
+}
@@ -0,0 +1,49 @@
+package com.sakariaslilja.services;
+
+/**
+ * Running statistics of measured latencies.
+ */
+public class LatencyStats {
+
+    private long count = 0;
+    private long total = 0;
+    private long max = 0;
+    private long last = 0;
+
+    /**
+     * Records a measured latency.
+     * @param latency The latency to record
+     */
+    public void record(long latency) {
+        count++;
+        total += latency;
+        max = Long.max(max, latency);
+        last = latency;
+    }
+
+    /**
+     * @return The number of recorded latencies
+     */
+    public long count() { return count; }
+
+    /**
+     * @return The mean of the recorded latencies, 0 if none were recorded
+     */
+    public double mean() { return count == 0 ? 0 : (double) total / count; }
+
+    /**
+     * @return The largest recorded latency
+     */
+    public long max() { return max; }
+
+    /**
+     * @return The latest recorded latency
+     */
+    public long last() { return last; }
+
+    @Override
+    public String toString() {
+        return String.format("n=%d mean=%.1f max=%d last=%d", count, mean(), max, last);
+    }
+
+}
@@ -0,0 +1,47 @@
+package com.sakariaslilja.services;
+
+import java.util.Random;
+
+import com.sakariaslilja.IConstants;
+import com.sakariaslilja.entities.SnakeBody;
+
+/**
+ * Input policy that turns in a random direction at random cells.
+ * Decides once for each cell the snake enters,
+ * so a seeded policy plays the same game every run.
+ */
+public class RandomInputPolicy implements InputPolicy, ArenaPolicy, IConstants {
+
+    private static final Input[] TURNS = {Input.LEFT, Input.RIGHT, Input.UP, Input.DOWN};
+
+    private final Random random;
+    private final double turnChance;
+
+    /**
+     * Creates a policy with its own random generator.
+     * @param seed The seed of the random generator
+     * @param turnChance The chance of turning at a cell, between 0 and 1
+     */
+    public RandomInputPolicy(long seed, double turnChance) {
+        this.random = new Random(seed);
+        this.turnChance = turnChance;
+    }
+
+    @Override
+    public Input next(GameEngine engine) { return next(engine.getSnakeBody()); }
+
+    @Override
+    public Input next(ArenaEngine arena, int snake) { return next(arena.getSnakeBody(snake)); }
+
+    /**
+     * @param body The snake the policy plays
+     * @return The input for the next tick, null for none
+     */
+    private Input next(SnakeBody body) {
+        // The snake has just entered a new cell
+        if (body.progress() != STEP_SIZE) { return null; }
+        if (random.nextDouble() >= turnChance) { return null; }
+        return TURNS[random.nextInt(TURNS.length)];
+    }
+
+}
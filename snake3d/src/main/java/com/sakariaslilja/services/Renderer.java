@@ -1,18 +1,13 @@
 package com.sakariaslilja.services;
 
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.function.Consumer;
-import java.util.function.Predicate;
 
 import com.sakariaslilja.App;
 import com.sakariaslilja.IConstants;
-import com.sakariaslilja.datastructures.ColoredCollector;
+import com.sakariaslilja.datastructures.CubeTemplate;
 import com.sakariaslilja.datastructures.DoubleVector3D;
-import com.sakariaslilja.datastructures.Quaternion;
 import com.sakariaslilja.datastructures.Tuple;
-import com.sakariaslilja.entities.Apple;
-import com.sakariaslilja.entities.Snake;
+import com.sakariaslilja.datastructures.VertexBuffer;
 import com.sakariaslilja.models.SettingsModel;
 
 import javafx.scene.canvas.GraphicsContext;
@@ -25,8 +20,22 @@ public class Renderer implements IConstants {
 
     // Local variables
     private GraphicsContext g;
-    private ArrayList<Tuple> edges;
+    private ArrayList<Tuple> lines;
     private GameEngine engine;
+    private ViewTransform view = new ViewTransform();
+
+    // The cube entities' vertices, the number of snake cubes among them and their sorter
+    private VertexBuffer vertices = new VertexBuffer();
+    private int snakeCubes = 0;
+    private DepthSorter sorter = new DepthSorter();
+
+    // Scratch buffers for the points of a face
+    private double[] xPoints = new double[4];
+    private double[] yPoints = new double[4];
+
+    // Scratch buffers for the end points of a line
+    private DoubleVector3D start = new DoubleVector3D(0, 0, 0);
+    private DoubleVector3D end = new DoubleVector3D(0, 0, 0);
 
     private Color backgroundColor;
     private Color strokeColor;
@@ -35,14 +44,13 @@ public class Renderer implements IConstants {
 
     /**
      * Renderer instance.
-     * Sets the world offset vector.
+     * Reads the colors from the settings.
      * @param g The graphics context onto which to draw
-     * @param edges The edges of the world
-     * @param normalVector The normal vector of the camera
+     * @param engine The engine of the game to draw
      */
     public Renderer(GraphicsContext g, GameEngine engine) {
         this.g = g;
-        this.edges = engine.getEdges();
+        this.lines = engine.getLines();
         this.engine = engine;
 
         // Initialize colors
@@ -56,11 +64,16 @@ public class Renderer implements IConstants {
 
     /**
      * Render function that calls all other functions of Renderer in order.
+     * Renders the state between a snapshot's tick and the one before it.
+     * @param snapshot The snapshot of the game to render
+     * @param alpha How far between the ticks, 0 is the previous tick and 1 the snapshot's
      */
-    public void render() {
+    public void render(GameSnapshot snapshot, double alpha) {
+        view.update(snapshot.camera(alpha), snapshot.quaternion(alpha), App.getWidth(), App.getHeight());
         this.clearCanvas(g);
         this.drawEdges(g);
-        drawCubeEntities(g, getCubeEntities());
+        fillVertexBuffer(snapshot, alpha);
+        drawCubeEntities(g);
     }
 
     /**
@@ -69,184 +82,116 @@ public class Renderer implements IConstants {
      */
     private void clearCanvas(GraphicsContext g) {
         g.setFill(backgroundColor);
-        g.fillRect(0, 0, App.getWidth(), App.getHeight());
+        g.fillRect(0, 0, view.getWidth(), view.getHeight());
     }
 
     /**
-     * Draws the edges onto the canvas
+     * Draws the edges onto the canvas.
+     * Each grid line of the walls is drawn as one line,
+     * clipped to the camera's near plane.
      * @param g The canvas onto which to draw
      */
     private void drawEdges(GraphicsContext g) {
         g.setStroke(strokeColor);
 
-        for (Tuple edge : edges) {
-            Tuple copy = edge.duplicate();
-            copy.forEach(applyMatricesFunc);
-            boolean allPositive = copy.forAll(hasPositiveZ);
-            if (allPositive){
-                DoubleVector3D point1 = copy.value1;
-                DoubleVector3D point2 = copy.value2;
+        for (Tuple line : lines) {
+            copy(line.value1, start);
+            copy(line.value2, end);
+            view.toCamera(start);
+            view.toCamera(end);
+            if (!ViewTransform.clipToNearPlane(start, end)) { continue; }
 
-                g.strokeLine(point1.getX(), point1.getY(), point2.getX(), point2.getY());
-            }
+            view.project(start);
+            view.project(end);
+            g.strokeLine(start.getX(), start.getY(), end.getX(), end.getY());
         }
     }
 
     /**
-     * @return Each entity's rendered vertices
+     * Copies the values of a vector into another.
+     * @param from The vector to copy
+     * @param to The vector to copy into
      */
-    private Object[] getCubeEntities() {
-        ArrayList<Snake> snake = engine.getSnake();
-        ArrayList<Apple> apples = engine.getApples();
-
-        Object[] entities = new Object[snake.size() - 1 + apples.size()];
-
-        int index = 0;
-        while (index < snake.size() - 1) {
-            ArrayList<DoubleVector3D> vertices = snake.get(index + 1).getVertices();
-            vertices.forEach(applyMatricesFunc);
-            entities[index] = new ColoredCollector<ArrayList<DoubleVector3D>>(vertices, snakeColor);
-            index++;
-        }
-
-        int offset = index;
-        index = 0;
-
-        while (index < apples.size()) {
-            ArrayList<DoubleVector3D> vertices = apples.get(index).getVertices();
-            vertices.forEach(applyMatricesFunc);
-            entities[index + offset] = new ColoredCollector<ArrayList<DoubleVector3D>>(vertices, appleColor);
-            index++;
-        }
+    private static void copy(DoubleVector3D from, DoubleVector3D to) {
+        to.setX(from.getX());
+        to.setY(from.getY());
+        to.setZ(from.getZ());
+    }
 
-        return entities;
+    /**
+     * Writes every cube entity's vertices into the vertex buffer and
+     * transforms them to the screen. The snake's segments come first,
+     * followed by the apples.
+     * @param snapshot The snapshot of the game to render
+     * @param alpha How far between the snapshot's tick and the one before it
+     */
+    protected void fillVertexBuffer(GameSnapshot snapshot, double alpha) {
+        snapshot.writeVertices(vertices, alpha);
+        snakeCubes = snapshot.snakeCubes();
+        view.apply(vertices);
     }
 
     /**
-     * Draws each cube entity in order of their z-coordinate.
-     * <p> I.e. sorts the cube entities by their z-coordinate and draws them.
+     * Draws each cube entity in order of their depth.
+     * <p> I.e. sorts the cube entities by the depth of their centers
+     * and draws them, the farthest first.
      * @param g The graphics context onto which to draw
-     * @param entities The list of entities to draw
      */
-    @SuppressWarnings("unchecked")
-    private void drawCubeEntities(GraphicsContext g, Object[] entities) {
-        Arrays.parallelSort(entities, new EntityZComparator());
-        
-        for (Object o : entities) {
-            ColoredCollector<ArrayList<DoubleVector3D>> entity = (ColoredCollector<ArrayList<DoubleVector3D>>) o;
-            drawCubeEntity(g, entity.color(), entity.obj());
+    private void drawCubeEntities(GraphicsContext g) {
+        int[] order = sorter.sort(vertices);
+
+        for (int i = 0; i < vertices.cubeCount(); i++) {
+            int cube = order[i];
+            drawCubeEntity(g, cube < snakeCubes ? snakeColor : appleColor, cube);
         }
     }
 
     /**
      * Draws the cube entity onto the canvas.
      * A cube consists of 6 faces, each which can be represented as a
-     * 4-sided polygon. 
+     * 4-sided polygon. At most 3 faces face the camera,
+     * the faces facing away from the camera are not drawn.
      * @param g The canvas onto which to draw
      * @param color The color of the entity
-     * @param entity The entity do draw
+     * @param cube The index of the entity's cube in the vertex buffer
      */
-    private void drawCubeEntity(GraphicsContext g, Color color, ArrayList<DoubleVector3D> vertices) {
-        // The vertices used to make up each respective face, ordered so that a square can be drawn
-        DoubleVector3D[] frontFace  = {vertices.get(0), vertices.get(1), vertices.get(3), vertices.get(2)};
-        DoubleVector3D[] rearFace   = {vertices.get(4), vertices.get(5), vertices.get(7), vertices.get(6)};
-        DoubleVector3D[] topFace    = {vertices.get(0), vertices.get(1), vertices.get(5), vertices.get(4)};
-        DoubleVector3D[] bottomFace = {vertices.get(2), vertices.get(3), vertices.get(7), vertices.get(6)};
-        DoubleVector3D[] leftFace   = {vertices.get(0), vertices.get(2), vertices.get(6), vertices.get(4)};
-        DoubleVector3D[] rightFace  = {vertices.get(1), vertices.get(3), vertices.get(7), vertices.get(5)};
-
-        DoubleVector3D[][] faces = {frontFace, rearFace, topFace, bottomFace, leftFace, rightFace};
+    private void drawCubeEntity(GraphicsContext g, Color color, int cube) {
+        double[] xs = vertices.x();
+        double[] ys = vertices.y();
+        double[] zs = vertices.z();
+        int first = cube * CubeTemplate.VERTICES;
 
         g.setFill(color);
-        
-        for (DoubleVector3D[] face : faces) {
-            // Don't draw if any of the points are behind the camera
-            if (face[0].getZ() < 0 || face[1].getZ() < 0 || face[2].getZ() < 0 || face[3].getZ() < 0) { continue; }
 
-            double[] xPoints = new double[face.length];
-            double[] yPoints = new double[face.length];
+        for (int[] face : CubeTemplate.FACES) {
+            boolean behindCamera = false;
 
             for (int i = 0; i < face.length; i++) {
-                xPoints[i] = face[i].getX();
-                yPoints[i] = face[i].getY();
+                int vertex = first + face[i];
+                // Don't draw if any of the points are behind the camera
+                if (zs[vertex] < 0) { behindCamera = true; break; }
+                xPoints[i] = xs[vertex];
+                yPoints[i] = ys[vertex];
             }
 
-            g.fillPolygon(xPoints, yPoints, xPoints.length);
-        }
-    }
-
-    /**
-     * Applies the translation matrix and world offset correction to the vertex.
-     * @param vertex Vertex to translate
-     */
-    protected void translate(DoubleVector3D vertex) {
-        DoubleVector3D camera = engine.camera().duplicate();
-        camera.neg();
-        vertex.add(camera);
-    }
-
-    /**
-     * Applies the rotation matrices to the vertex in the order:
-     * <p> rotZ, rotY, rotX
-     * @param vertex The vertex to rotate
-     */
-    protected void rotate(DoubleVector3D vertex) {
-        Quaternion rotation = engine.quaternion();
-        rotation.applyRotation(vertex);
-    }
-
-    /**
-     * Applies the camera transform matrix
-     * @param vertex The vertex to transform
-     */
-    private void cameraTransform(DoubleVector3D vertex) {
-        double newX = vertex.getX() * FOCAL_LENGTH / (0.0001 * 2);
-        double newY = vertex.getY() * FOCAL_LENGTH / (0.0001 * 2);
-
-        vertex.setX(newX);
-        vertex.setY(newY);
-    }
-
-    /**
-     * Applies the perpective correction matrix to the vertex.
-     * @param vertex The vertex to correct
-     */
-    protected void perspectiveCorrection(DoubleVector3D vertex) {
-        double oneOverZ = 1.0 / vertex.getZ();
-        vertex.setX(vertex.getX() * oneOverZ);
-        vertex.setY(vertex.getY() * oneOverZ);
-    }
+            if (behindCamera || !isFrontFacing(xPoints, yPoints)) { continue; }
 
-    /**
-     * Centers the vertex on the screen.
-     * @param vertex Vertex to translate
-     */
-    private void centerOnScreen(DoubleVector3D vertex) {
-        vertex.setX(vertex.getX() + 0.5 * App.getWidth());
-        vertex.setY(vertex.getY() + 0.5 * App.getHeight());
+            g.fillPolygon(xPoints, yPoints, face.length);
+        }
     }
 
     /**
-     * Applies every rendering matrix in order.
-     * @param vertex The vertex to render
-     * @return The rendered vertex
+     * Checks if a rendered face faces the camera.
+     * The face's vertices must be ordered so that its normal points out of the cube.
+     * Such a face faces the camera exactly when the cross product
+     * of its first two edges on the screen is negative.
+     * @param xPoints The x-coordinates of the face on the screen
+     * @param yPoints The y-coordinates of the face on the screen
+     * @return If the face faces the camera
      */
-    private void applyMatrices(DoubleVector3D vertex) {
-        translate(vertex);
-        rotate(vertex);
-        cameraTransform(vertex);
-        perspectiveCorrection(vertex);
-        centerOnScreen(vertex);
+    protected static boolean isFrontFacing(double[] xPoints, double[] yPoints) {
+        double cross = (xPoints[1] - xPoints[0]) * (yPoints[2] - yPoints[0]) - (yPoints[1] - yPoints[0]) * (xPoints[2] - xPoints[0]);
+        return cross < 0;
     }
 
-    /**
-     * Consumer function that applies the matrices to a vertex.
-     */
-    private Consumer<DoubleVector3D> applyMatricesFunc = v -> applyMatrices(v);
-
-    /**
-     * Predicate that checks if the z-coordinate of a DoubleVector3D is positive
-     */
-    private Predicate<DoubleVector3D> hasPositiveZ = (v) -> v.getZ() > Double.MIN_VALUE;
-    
 }
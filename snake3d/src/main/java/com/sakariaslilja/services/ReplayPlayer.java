@@ -0,0 +1,194 @@
+package com.sakariaslilja.services;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+import com.sakariaslilja.IConstants;
+import com.sakariaslilja.models.KeyframeModel;
+import com.sakariaslilja.models.ReplayModel;
+
+/**
+ * Plays a recorded game through a new engine.
+ * <p> Each input is passed to the engine on the tick it was recorded on,
+ * before the engine runs that tick, just like in the recorded game.
+ * <p> The replay can be seeked to any tick. The engine is restored to
+ * the last keyframe before the tick and played from there, so a seek
+ * plays at most one keyframe interval of ticks.
+ */
+public class ReplayPlayer implements IConstants {
+
+    private static final Input[] INPUTS = Input.values();
+
+    private final ReplayModel replay;
+    private final GameEngine engine;
+    private final byte[] bytes;
+    private final KeyframeModel start;
+    private int position = 0;
+    private long nextTick = -1;
+    private Input nextInput = null;
+
+    /**
+     * Creates a player at the start of a replay.
+     * @param replay The replay to play
+     * @throws IllegalArgumentException If the replay was recorded with another version of the engine
+     */
+    public ReplayPlayer(ReplayModel replay) {
+        if (replay.version != ReplayModel.VERSION) {
+            throw new IllegalArgumentException("Unsupported replay version: " + replay.version);
+        }
+        this.replay = replay;
+        this.engine = new GameEngine(replay.game);
+        this.bytes = Base64.getDecoder().decode(replay.inputs);
+        this.start = engine.keyframe();
+        readInput(0);
+    }
+
+    /**
+     * @return The engine the replay is played through
+     */
+    public GameEngine getEngine() { return engine; }
+
+    /**
+     * @return If every recorded tick has been played
+     */
+    public boolean isFinished() { return engine.getTick() >= replay.ticks || engine.isGameOver(); }
+
+    /**
+     * Plays one tick of the replay.
+     */
+    public void step() {
+        while (nextInput != null && nextTick == engine.getTick()) {
+            engine.handleInput(nextInput);
+            readInput(nextTick);
+        }
+        engine.update();
+    }
+
+    /**
+     * Moves the replay to a tick.
+     * @param tick The tick to move to, clamped to the ticks of the replay
+     */
+    public void seek(long tick) {
+        long target = Long.max(0, Long.min(tick, replay.ticks));
+        long current = engine.getTick();
+        if (target < current || target - current > replay.keyframeInterval) { restore(keyframeBefore(target)); }
+        while (engine.getTick() < target && !engine.isGameOver()) { step(); }
+    }
+
+    /**
+     * Moves the replay forward.
+     * @param ticks The number of ticks to move forward
+     */
+    public void fastForward(long ticks) { seek(engine.getTick() + ticks); }
+
+    /**
+     * Moves the replay back.
+     * @param ticks The number of ticks to move back
+     */
+    public void rewind(long ticks) { seek(engine.getTick() - ticks); }
+
+    /**
+     * The last keyframe on or before a tick.
+     * @param tick The tick to find the keyframe of
+     * @return The keyframe, the start of the game if the replay has no keyframes
+     */
+    private KeyframeModel keyframeBefore(long tick) {
+        if (replay.keyframes.isEmpty() || replay.keyframeInterval <= 0) { return start; }
+        int index = (int) Long.min(tick / replay.keyframeInterval, replay.keyframes.size() - 1);
+        return replay.keyframes.get(index);
+    }
+
+    /**
+     * Restores the engine and the inputs to a keyframe.
+     * @param keyframe The keyframe to restore
+     */
+    private void restore(KeyframeModel keyframe) {
+        engine.restore(keyframe);
+        position = keyframe.inputOffset;
+        readInput(keyframe.inputTick);
+    }
+
+    /**
+     * Plays the rest of the replay as fast as possible.
+     * @return The engine after the last recorded tick
+     */
+    public GameEngine play() {
+        while (!isFinished()) { step(); }
+        return engine;
+    }
+
+    /**
+     * Plays the rest of the replay at the speed of the game.
+     * Blocks the calling thread until the replay is finished.
+     * @return The engine after the last recorded tick
+     */
+    public GameEngine playRealTime() {
+        FixedTimestep timestep = new FixedTimestep(FPS, MAX_TICKS_PER_FRAME);
+        while (!isFinished()) {
+            int ticks = timestep.advance(System.nanoTime());
+            for (int i = 0; i < ticks && !isFinished(); i++) { step(); }
+            LockSupport.parkNanos(FPS / 4);
+        }
+        return engine;
+    }
+
+    /**
+     * @return If the replay ended in the recorded state
+     */
+    public boolean matches() {
+        return engine.getTick() == replay.ticks && engine.stateHash() == replay.hash;
+    }
+
+    /**
+     * Reads the next recorded input.
+     * @param tick The tick of the previous input
+     */
+    private void readInput(long tick) {
+        if (position == bytes.length) {
+            nextInput = null;
+            return;
+        }
+
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = bytes[position++];
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+
+        nextTick = tick + (value >>> 2);
+        nextInput = INPUTS[(int) (value & 3)];
+    }
+
+    /**
+     * Plays replays unthrottled in parallel and checks their final states.
+     * @param replays The replays to verify
+     * @param parallelism The number of threads to play on
+     * @return The replays that didn't end in their recorded states,
+     * or were recorded with another version of the engine
+     */
+    public static List<ReplayModel> verify(List<ReplayModel> replays, int parallelism) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.submit(() -> replays.parallelStream()
+                .filter(replay -> {
+                    if (replay.version != ReplayModel.VERSION) { return true; }
+                    ReplayPlayer player = new ReplayPlayer(replay);
+                    player.play();
+                    return !player.matches();
+                })
+                .collect(Collectors.toCollection(ArrayList::new))
+            ).join();
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+}
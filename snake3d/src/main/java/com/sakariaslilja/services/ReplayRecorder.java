@@ -0,0 +1,107 @@
+package com.sakariaslilja.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+
+import com.sakariaslilja.IConstants;
+import com.sakariaslilja.models.GameModel;
+import com.sakariaslilja.models.KeyframeModel;
+import com.sakariaslilja.models.ReplayModel;
+
+/**
+ * Records the inputs of a game for replaying.
+ * <p> The engine is deterministic given its starting state, so only
+ * the turn inputs are recorded, with the tick they were given on.
+ * Pauses don't change the game and aren't recorded.
+ * <p> Every {@code KEYFRAME_INTERVAL} ticks the full state of the game
+ * is saved as a keyframe, so the replay can be seeked without playing
+ * it from the start.
+ * <p> The inputs may be recorded on the simulation thread while
+ * the replay is finished on another, so both are synchronized.
+ */
+public class ReplayRecorder implements IConstants {
+
+    private final GameModel game;
+    private final int keyframeInterval;
+    private final ArrayList<KeyframeModel> keyframes = new ArrayList<>();
+    private byte[] bytes = new byte[64];
+    private int length = 0;
+    private long lastTick = 0;
+
+    /**
+     * Creates a recorder for a game that hasn't ticked yet.
+     * @param engine The engine of the game
+     */
+    public ReplayRecorder(GameEngine engine) {
+        this(engine, KEYFRAME_INTERVAL);
+    }
+
+    /**
+     * Creates a recorder for a game that hasn't ticked yet.
+     * @param engine The engine of the game
+     * @param keyframeInterval The number of ticks between keyframes
+     */
+    public ReplayRecorder(GameEngine engine, int keyframeInterval) {
+        this.game = engine.toGameModel();
+        this.keyframeInterval = keyframeInterval;
+        ticked(engine);
+    }
+
+    /**
+     * Saves a keyframe if the engine is on a keyframe's tick.
+     * Called by the engine after each tick.
+     * @param engine The engine of the game
+     */
+    public synchronized void ticked(GameEngine engine) {
+        if (engine.getTick() != (long) keyframes.size() * keyframeInterval) { return; }
+        KeyframeModel keyframe = engine.keyframe();
+        keyframe.inputOffset = length;
+        keyframe.inputTick = lastTick;
+        keyframes.add(keyframe);
+    }
+
+    /**
+     * Records an input.
+     * @param tick The tick of the engine when the input was given
+     * @param input The player's input
+     * @throws IllegalArgumentException If the tick is before the previous input's
+     */
+    public synchronized void record(long tick, Input input) {
+        if (input == Input.PAUSE) { return; }
+        if (tick < lastTick) { throw new IllegalArgumentException("A replay can't go back in time"); }
+        writeVarint(((tick - lastTick) << 2) | input.ordinal());
+        lastTick = tick;
+    }
+
+    /**
+     * Creates the replay of the game so far.
+     * @param engine The engine of the recorded game
+     * @return The replay of the game
+     */
+    public synchronized ReplayModel finish(GameEngine engine) {
+        ReplayModel replay = new ReplayModel();
+        replay.game = game;
+        replay.inputs = Base64.getEncoder().encodeToString(Arrays.copyOf(bytes, length));
+        replay.keyframeInterval = keyframeInterval;
+        replay.keyframes = new ArrayList<>(keyframes);
+        replay.ticks = engine.getTick();
+        replay.hash = engine.stateHash();
+        return replay;
+    }
+
+    /**
+     * Writes a value seven bits at a time, the lowest bits first.
+     * The highest bit of each byte tells if more bytes follow.
+     * @param value The non-negative value to write
+     */
+    private void writeVarint(long value) {
+        do {
+            if (length == bytes.length) { bytes = Arrays.copyOf(bytes, 2 * bytes.length); }
+            byte b = (byte) (value & 0x7F);
+            value >>>= 7;
+            bytes[length++] = (byte) (value == 0 ? b : b | 0x80);
+        } while (value != 0);
+    }
+
+}
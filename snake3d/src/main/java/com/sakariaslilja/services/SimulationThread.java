@@ -0,0 +1,124 @@
+package com.sakariaslilja.services;
+
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import com.sakariaslilja.IConstants;
+import com.sakariaslilja.datastructures.SpscQueue;
+import com.sakariaslilja.datastructures.TripleBuffer;
+
+/**
+ * Runs the game's engine on its own thread.
+ * <p> The engine ticks at a fixed rate, independently of the JavaFX thread.
+ * Inputs reach the engine through a lock-free queue, and the state
+ * after each tick is published as a snapshot for the renderer.
+ * <p> Once started, the engine must only be used by the simulation thread.
+ */
+public class SimulationThread implements Runnable, IConstants {
+
+    private static final int INPUT_CAPACITY = 64;
+
+    private final GameEngine engine;
+    private final SpscQueue<Input> inputs = new SpscQueue<>(INPUT_CAPACITY);
+    private final SpscQueue<Consumer<GameEngine>> tasks = new SpscQueue<>(INPUT_CAPACITY);
+    private final TripleBuffer<GameSnapshot> snapshots = new TripleBuffer<>(GameSnapshot::new);
+    private final FixedTimestep timestep = new FixedTimestep(FPS, MAX_TICKS_PER_FRAME);
+
+    private volatile boolean running = false;
+    private volatile long tickTime = 0;
+    private Thread thread;
+
+    /**
+     * Creates a simulation of the engine and publishes its current state.
+     * @param engine The engine to run
+     */
+    public SimulationThread(GameEngine engine) {
+        this.engine = engine;
+        publish();
+    }
+
+    /**
+     * Starts ticking the engine on a new thread.
+     */
+    public void start() {
+        running = true;
+        thread = new Thread(this, "Simulation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops ticking the engine and waits for the thread to finish.
+     */
+    public void stop() {
+        running = false;
+        if (thread == null) { return; }
+
+        thread.interrupt();
+        try { thread.join(); }
+        catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+    }
+
+    /**
+     * Passes an input to the engine. Must only be called by one thread.
+     * @param input The player's input
+     * @return If the input was queued, false if the queue is full
+     */
+    public boolean offer(Input input) { return inputs.offer(input); }
+
+    /**
+     * Runs a task with the engine on the simulation thread, between two ticks.
+     * Must only be called by one thread.
+     * @param task The task to run
+     * @return If the task was queued, false if the queue is full
+     */
+    public boolean execute(Consumer<GameEngine> task) { return tasks.offer(task); }
+
+    /**
+     * The state after the latest tick. Must only be called by one thread.
+     * @return The latest published snapshot
+     */
+    public GameSnapshot snapshot() { return snapshots.front(); }
+
+    /**
+     * @return The average time of the latest ticks in nanoseconds
+     */
+    public long getTickTime() { return tickTime; }
+
+    @Override
+    public void run() {
+        while (running) {
+            drainInput();
+
+            int ticks = timestep.advance(System.nanoTime());
+            if (ticks > 0) {
+                long start = System.nanoTime();
+                for (int i = 0; i < ticks; i++) { engine.update(); }
+                tickTime = (System.nanoTime() - start) / ticks;
+                publish();
+            }
+
+            // Sleeps until the next tick is due
+            LockSupport.parkNanos((long) ((1 - timestep.alpha()) * FPS));
+        }
+    }
+
+    /**
+     * Passes the queued inputs to the engine and runs the queued tasks.
+     */
+    private void drainInput() {
+        Input input;
+        while ((input = inputs.poll()) != null) { engine.handleInput(input); }
+        Consumer<GameEngine> task;
+        while ((task = tasks.poll()) != null) { task.accept(engine); }
+    }
+
+    /**
+     * Captures the engine's state into the back snapshot and publishes it.
+     */
+    private void publish() {
+        snapshots.back().capture(engine, System.nanoTime());
+        snapshots.publish();
+    }
+
+}
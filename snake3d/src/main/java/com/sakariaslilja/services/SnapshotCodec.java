@@ -0,0 +1,270 @@
+package com.sakariaslilja.services;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+import com.sakariaslilja.IConstants;
+import com.sakariaslilja.datastructures.CellMap;
+import com.sakariaslilja.datastructures.GridCell;
+import com.sakariaslilja.entities.Orientation;
+import com.sakariaslilja.entities.Turn;
+import com.sakariaslilja.models.GameModel;
+import com.sakariaslilja.models.KeyframeModel;
+
+/**
+ * Binary codec of the complete state of a game engine.
+ * <p> Unlike {@code GameModel}, a snapshot includes the apples, the turns
+ * being taken and the position of the random generator, so a restored game
+ * continues exactly like the game it was taken of.
+ * <p> A snapshot starts with a header of the game's seed and world size,
+ * followed by the engine's keyframe. All values are big-endian.
+ */
+public final class SnapshotCodec implements IConstants {
+
+    private static final int MAGIC = 0x53334453; // "S3DS"
+    private static final short VERSION = 1;
+
+    private static final int HEADER_BYTES = 4 + 2 + 8 + 3 * 2;
+    // Packed grid cells use the lowest 30 bits
+    private static final int CELL_BITS = 30;
+    // The turns that can be taken, every turn but going straight
+    private static final int TURNS = Turn.N.ordinal();
+
+    private static final int STATE_BYTES = 8 + 4 + 1 + 4 * 8 + 8 + 4 + 1 + 4 + 4 + 1 + 2 + 8 + 1;
+
+    private SnapshotCodec() {}
+
+    /**
+     * Takes a snapshot of an engine.
+     * @param engine The engine to take a snapshot of
+     * @return The snapshot
+     */
+    public static byte[] encode(GameEngine engine) {
+        KeyframeModel keyframe = engine.keyframe();
+        ByteBuffer buffer = ByteBuffer.allocate(size(keyframe));
+        write(engine, keyframe, buffer);
+        return buffer.array();
+    }
+
+    /**
+     * Restores an engine to a snapshot.
+     * @param engine The engine to restore, of the same game as the snapshot
+     * @param snapshot The snapshot
+     * @throws IllegalArgumentException If the snapshot is invalid or of another game
+     */
+    public static void restore(GameEngine engine, byte[] snapshot) {
+        restore(engine, ByteBuffer.wrap(snapshot));
+    }
+
+    /**
+     * Restores an engine to a snapshot read from a buffer.
+     * @param engine The engine to restore, of the same game as the snapshot
+     * @param buffer The buffer to read the snapshot from
+     * @throws IllegalArgumentException If the snapshot is invalid or of another game
+     */
+    public static void restore(GameEngine engine, ByteBuffer buffer) {
+        GameModel game = readHeader(buffer);
+        if (game.seed != engine.getSeed() || game.worldWidth != engine.getWorldWidth()
+            || game.worldHeight != engine.getWorldHeight() || game.worldDepth != engine.getWorldDepth()) {
+            throw new IllegalArgumentException("The snapshot is of another game");
+        }
+        // The state is read and checked in full before the engine changes
+        engine.restore(readState(buffer, game));
+    }
+
+    /**
+     * Creates a new engine in the state of a snapshot.
+     * @param snapshot The snapshot
+     * @return The restored engine
+     * @throws IllegalArgumentException If the snapshot is invalid
+     */
+    public static GameEngine decode(byte[] snapshot) {
+        ByteBuffer buffer = ByteBuffer.wrap(snapshot);
+        GameModel game = readHeader(buffer);
+        KeyframeModel keyframe = readState(buffer, game);
+        GameEngine engine = new GameEngine(game);
+        engine.restore(keyframe);
+        return engine;
+    }
+
+    /**
+     * @param keyframe The state of an engine
+     * @return The number of bytes in the snapshot of the state
+     */
+    private static int size(KeyframeModel keyframe) {
+        return HEADER_BYTES + STATE_BYTES
+            + keyframe.snakeCells.length * (4 + 1)
+            + keyframe.apples.length * 4
+            + keyframe.pendingTurns.length * (1 + 8);
+    }
+
+    /**
+     * Writes a snapshot.
+     * @param engine The engine of the game, for its seed and world size
+     * @param keyframe The state of the game
+     * @param buffer The buffer to write into
+     */
+    private static void write(GameEngine engine, KeyframeModel keyframe, ByteBuffer buffer) {
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putLong(engine.getSeed());
+        buffer.putShort((short) engine.getWorldWidth());
+        buffer.putShort((short) engine.getWorldHeight());
+        buffer.putShort((short) engine.getWorldDepth());
+
+        buffer.putLong(keyframe.tick);
+        buffer.putInt(keyframe.score);
+        buffer.put((byte) (keyframe.gameOver ? 1 : 0));
+        buffer.putDouble(keyframe.qW);
+        buffer.putDouble(keyframe.qX);
+        buffer.putDouble(keyframe.qY);
+        buffer.putDouble(keyframe.qZ);
+        buffer.putLong(keyframe.random);
+
+        buffer.putInt(keyframe.progress);
+        buffer.put((byte) keyframe.headFrame);
+        buffer.putInt(keyframe.snakeCells.length);
+        for (int i = 0; i < keyframe.snakeCells.length; i++) {
+            buffer.putInt(keyframe.snakeCells[i]);
+            buffer.put((byte) keyframe.snakeFrames[i]);
+        }
+
+        buffer.putInt(keyframe.apples.length);
+        for (int apple : keyframe.apples) { buffer.putInt(apple); }
+
+        buffer.put((byte) keyframe.turn);
+        buffer.putShort((short) keyframe.turnDegrees);
+        buffer.putLong(keyframe.turnTick);
+        buffer.put((byte) keyframe.pendingTurns.length);
+        for (int i = 0; i < keyframe.pendingTurns.length; i++) {
+            buffer.put((byte) keyframe.pendingTurns[i]);
+            buffer.putLong(keyframe.pendingTicks[i]);
+        }
+    }
+
+    /**
+     * Reads the header of a snapshot.
+     * @param buffer The buffer to read from
+     * @return A new game with the seed and world size of the snapshot
+     * @throws IllegalArgumentException If the buffer doesn't hold a snapshot
+     */
+    private static GameModel readHeader(ByteBuffer buffer) {
+        if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a snapshot");
+        }
+        short version = buffer.getShort();
+        if (version != VERSION) { throw new IllegalArgumentException("Unsupported snapshot version: " + version); }
+
+        GameModel game = new GameModel();
+        game.seed = buffer.getLong();
+        game.worldWidth = buffer.getShort();
+        game.worldHeight = buffer.getShort();
+        game.worldDepth = buffer.getShort();
+        if (!validSize(game.worldWidth) || !validSize(game.worldHeight) || !validSize(game.worldDepth)) {
+            throw new IllegalArgumentException("Invalid world size in snapshot");
+        }
+        return game;
+    }
+
+    /**
+     * Reads the state of a game and checks that it can be restored.
+     * @param buffer The buffer to read from, after the header
+     * @param game The game of the snapshot, for its world size
+     * @return The state of the game
+     * @throws IllegalArgumentException If the state is truncated or invalid
+     */
+    private static KeyframeModel readState(ByteBuffer buffer, GameModel game) {
+        try {
+            KeyframeModel keyframe = new KeyframeModel();
+            keyframe.tick = buffer.getLong();
+            keyframe.score = buffer.getInt();
+            keyframe.gameOver = buffer.get() != 0;
+            keyframe.qW = buffer.getDouble();
+            keyframe.qX = buffer.getDouble();
+            keyframe.qY = buffer.getDouble();
+            keyframe.qZ = buffer.getDouble();
+            keyframe.random = buffer.getLong();
+            check(keyframe.tick >= 0, "Negative tick");
+            check(Double.isFinite(keyframe.qW) && Double.isFinite(keyframe.qX)
+                && Double.isFinite(keyframe.qY) && Double.isFinite(keyframe.qZ), "Invalid rotation");
+
+            keyframe.progress = buffer.getInt();
+            keyframe.headFrame = buffer.get();
+            // The snake only enters a cell when its progress steps onto a unit
+            check(keyframe.progress >= STEP_SIZE && keyframe.progress <= UNIT
+                && keyframe.progress % STEP_SIZE == 0, "Invalid snake progress");
+            check(Orientation.isValid((byte) keyframe.headFrame), "Invalid head frame");
+            int length = buffer.getInt();
+            check(length >= 1 && (long) length * (4 + 1) <= buffer.remaining(), "Invalid snake length");
+            keyframe.snakeCells = new int[length];
+            keyframe.snakeFrames = new int[length];
+            for (int i = 0; i < length; i++) {
+                keyframe.snakeCells[i] = buffer.getInt();
+                keyframe.snakeFrames[i] = buffer.get();
+                // The head may have left the world, so the cells only need to be packed cells
+                check(keyframe.snakeCells[i] >>> CELL_BITS == 0, "Invalid snake cell");
+                check(Orientation.isValid((byte) keyframe.snakeFrames[i]), "Invalid snake frame");
+            }
+
+            int appleCount = buffer.getInt();
+            check(appleCount >= 0 && (long) appleCount * 4 <= buffer.remaining(), "Invalid apple count");
+            keyframe.apples = new int[appleCount];
+            CellMap<Boolean> appleCells = new CellMap<>(appleCount);
+            for (int i = 0; i < appleCount; i++) {
+                int apple = buffer.getInt();
+                check(apple >>> CELL_BITS == 0 && insideWorld(apple, game), "Apple outside the world");
+                check(appleCells.get(apple) == null, "Two apples in a cell");
+                appleCells.put(apple, true);
+                keyframe.apples[i] = apple;
+            }
+
+            keyframe.turn = buffer.get();
+            keyframe.turnDegrees = buffer.getShort();
+            keyframe.turnTick = buffer.getLong();
+            check(keyframe.turn >= -1 && keyframe.turn < TURNS, "Invalid turn");
+            check(keyframe.turnDegrees >= 0 && keyframe.turnDegrees < 90
+                && keyframe.turnDegrees % ROTATION_SPEED == 0, "Invalid turn progress");
+            int pending = buffer.get();
+            check(pending >= 0 && pending <= TURN_BUFFER_SIZE, "Invalid number of pending turns");
+            keyframe.pendingTurns = new int[pending];
+            keyframe.pendingTicks = new long[pending];
+            for (int i = 0; i < pending; i++) {
+                keyframe.pendingTurns[i] = buffer.get();
+                keyframe.pendingTicks[i] = buffer.getLong();
+                check(keyframe.pendingTurns[i] >= 0 && keyframe.pendingTurns[i] < TURNS, "Invalid pending turn");
+            }
+            return keyframe;
+        }
+        catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("The snapshot is truncated", e);
+        }
+    }
+
+    /**
+     * @param size The size of the world along an axis
+     * @return If a game can be played in a world of the size
+     */
+    private static boolean validSize(int size) {
+        return size >= MIN_WORLD_SIZE && size <= MAX_WORLD_SIZE;
+    }
+
+    /**
+     * @param cell A packed grid cell
+     * @param game The game of the snapshot
+     * @return If the cell is inside the game's world
+     */
+    private static boolean insideWorld(int cell, GameModel game) {
+        int x = GridCell.x(cell), y = GridCell.y(cell), z = GridCell.z(cell);
+        return x >= 0 && x < game.worldWidth && y >= 0 && y < game.worldHeight && z >= 0 && z < game.worldDepth;
+    }
+
+    /**
+     * @param valid If a part of the snapshot is valid
+     * @param message What is wrong if it isn't
+     * @throws IllegalArgumentException If the part isn't valid
+     */
+    private static void check(boolean valid, String message) {
+        if (!valid) { throw new IllegalArgumentException(message + " in snapshot"); }
+    }
+
+}
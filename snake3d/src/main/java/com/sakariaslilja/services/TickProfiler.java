@@ -0,0 +1,85 @@
+package com.sakariaslilja.services;
+
+/**
+ * Per-phase timings of the game engine's ticks.
+ * <p> The engine measures each phase of a tick with {@code System.nanoTime()}
+ * and records the nanoseconds into the phase's histogram. The histograms
+ * are written by the thread that ticks the engine, so reading them from
+ * another thread gives approximate numbers while the game runs.
+ */
+public class TickProfiler {
+
+    /**
+     * The measured phases of a tick.
+     */
+    public enum Phase {
+        /**
+         * Moving every segment of the snake one step.
+         */
+        MOVE,
+        /**
+         * Eating the apple at the snake's head.
+         */
+        APPLE_COLLISIONS,
+        /**
+         * Spawning apples up to the limit.
+         */
+        SPAWN_APPLE,
+        /**
+         * Rotating the world for a turn and taking the next queued turn.
+         */
+        TURNS,
+        /**
+         * Checking if the snake hit itself or left the world.
+         */
+        SNAKE_COLLISIONS
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private final LatencyHistogram[] histograms = new LatencyHistogram[PHASES.length];
+
+    /**
+     * Creates a profiler without any recorded timings.
+     */
+    public TickProfiler() {
+        for (int i = 0; i < histograms.length; i++) { histograms[i] = new LatencyHistogram(); }
+    }
+
+    /**
+     * Records the time from the start of a phase until now.
+     * @param phase The phase that ended
+     * @param start The {@code System.nanoTime()} the phase started on
+     * @return The current {@code System.nanoTime()}, the start of the next phase
+     */
+    public long lap(Phase phase, long start) {
+        long now = System.nanoTime();
+        histograms[phase.ordinal()].record(now - start);
+        return now;
+    }
+
+    /**
+     * @param phase A phase of a tick
+     * @return The nanoseconds the phase has taken
+     */
+    public LatencyHistogram histogram(Phase phase) { return histograms[phase.ordinal()]; }
+
+    /**
+     * Forgets every recorded timing.
+     */
+    public void reset() {
+        for (LatencyHistogram histogram : histograms) { histogram.reset(); }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (Phase phase : PHASES) {
+            LatencyHistogram histogram = histogram(phase);
+            builder.append(String.format("%-16s n=%d p50=%dns p99=%dns max=%dns%n", phase,
+                histogram.count(), histogram.percentile(50), histogram.percentile(99), histogram.max()));
+        }
+        return builder.toString();
+    }
+
+}
@@ -0,0 +1,88 @@
+package com.sakariaslilja.services;
+
+import com.sakariaslilja.entities.Turn;
+
+/**
+ * Bounded ring buffer of the turns the player has queued.
+ * <p> Each turn is stored with the tick it was queued on,
+ * so the time it waited can be measured once it is taken.
+ */
+public class TurnBuffer {
+
+    private final Turn[] turns;
+    private final long[] ticks;
+    private int head = 0;
+    private int size = 0;
+
+    /**
+     * Creates an empty buffer.
+     * @param capacity The most turns the buffer holds
+     */
+    public TurnBuffer(int capacity) {
+        this.turns = new Turn[capacity];
+        this.ticks = new long[capacity];
+    }
+
+    /**
+     * @return The number of queued turns
+     */
+    public int size() { return size; }
+
+    /**
+     * @return If no turns are queued
+     */
+    public boolean isEmpty() { return size == 0; }
+
+    /**
+     * Queues a turn.
+     * @param turn The turn to queue
+     * @param tick The tick the turn was queued on
+     * @return If the turn was queued, false if the buffer is full
+     */
+    public boolean offer(Turn turn, long tick) {
+        if (size == turns.length) { return false; }
+        int slot = (head + size) % turns.length;
+        turns[slot] = turn;
+        ticks[slot] = tick;
+        size++;
+        return true;
+    }
+
+    /**
+     * @param i The index of the turn, 0 is the oldest
+     * @return The queued turn
+     */
+    public Turn get(int i) { return turns[(head + i) % turns.length]; }
+
+    /**
+     * @param i The index of the turn, 0 is the oldest
+     * @return The tick the turn was queued on
+     */
+    public long tickAt(int i) { return ticks[(head + i) % ticks.length]; }
+
+    /**
+     * Removes every queued turn.
+     */
+    public void clear() {
+        while (size > 0) { poll(); }
+    }
+
+    /**
+     * @return The tick the oldest turn was queued on. The buffer must not be empty.
+     */
+    public long peekTick() { return ticks[head]; }
+
+    /**
+     * Takes the oldest turn.
+     * @return The oldest turn, null if the buffer is empty
+     */
+    public Turn poll() {
+        if (size == 0) { return null; }
+        Turn turn = turns[head];
+        turns[head] = null;
+        head = (head + 1) % turns.length;
+        size--;
+        return turn;
+    }
+
+}
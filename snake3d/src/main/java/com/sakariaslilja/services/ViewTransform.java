@@ -0,0 +1,136 @@
+package com.sakariaslilja.services;
+
+import com.sakariaslilja.IConstants;
+import com.sakariaslilja.datastructures.DoubleVector3D;
+import com.sakariaslilja.datastructures.Quaternion;
+import com.sakariaslilja.datastructures.VertexBuffer;
+
+/**
+ * The camera's view of the world for a single frame.
+ * <p> Holds the camera offset, the rotation matrix, the focal scale
+ * and the center of the screen, so that transforming a vertex
+ * is a handful of multiplications without any allocation.
+ */
+public class ViewTransform implements IConstants {
+
+    /**
+     * Scales camera space coordinates to screen coordinates.
+     */
+    private static final double FOCAL_SCALE = FOCAL_LENGTH / (0.0001 * 2);
+
+    /**
+     * The smallest depth that is drawn. Lines are clipped to this plane.
+     */
+    public static final double NEAR_PLANE = 0.01;
+
+    private double cameraX, cameraY, cameraZ;
+    private final double[] rotation = new double[9];
+    private double width, height;
+    private double centerX, centerY;
+
+    /**
+     * Sets the view for a frame.
+     * @param camera The camera's location in the world
+     * @param q The rotation of the world
+     * @param width The width of the screen
+     * @param height The height of the screen
+     */
+    public void update(DoubleVector3D camera, Quaternion q, double width, double height) {
+        cameraX = camera.getX();
+        cameraY = camera.getY();
+        cameraZ = camera.getZ();
+        q.rotationMatrix(rotation);
+        this.width = width;
+        this.height = height;
+        centerX = 0.5 * width;
+        centerY = 0.5 * height;
+    }
+
+    public double getWidth() { return width; }
+    public double getHeight() { return height; }
+
+    /**
+     * Transforms a world vertex to the screen.
+     * The x and y coordinates become screen coordinates
+     * and the z coordinate is the depth from the camera.
+     * @param vertex The vertex to transform
+     */
+    public void apply(DoubleVector3D vertex) {
+        toCamera(vertex);
+        project(vertex);
+    }
+
+    /**
+     * Transforms every vertex of a vertex buffer to the screen.
+     * @param buffer The buffer whose vertices to transform
+     * @see #apply(DoubleVector3D)
+     */
+    public void apply(VertexBuffer buffer) {
+        double[] xs = buffer.x();
+        double[] ys = buffer.y();
+        double[] zs = buffer.z();
+        double[] m = rotation;
+
+        for (int i = 0, n = buffer.vertexCount(); i < n; i++) {
+            double x = xs[i] - cameraX;
+            double y = ys[i] - cameraY;
+            double z = zs[i] - cameraZ;
+
+            double rz = m[6]*x + m[7]*y + m[8]*z;
+            double scale = FOCAL_SCALE / rz;
+            xs[i] = (m[0]*x + m[1]*y + m[2]*z) * scale + centerX;
+            ys[i] = (m[3]*x + m[4]*y + m[5]*z) * scale + centerY;
+            zs[i] = rz;
+        }
+    }
+
+    /**
+     * Transforms a world vertex to camera space,
+     * i.e. translates and rotates it.
+     * @param vertex The vertex to transform
+     */
+    public void toCamera(DoubleVector3D vertex) {
+        double x = vertex.getX() - cameraX;
+        double y = vertex.getY() - cameraY;
+        double z = vertex.getZ() - cameraZ;
+
+        double[] m = rotation;
+        vertex.setX(m[0]*x + m[1]*y + m[2]*z);
+        vertex.setY(m[3]*x + m[4]*y + m[5]*z);
+        vertex.setZ(m[6]*x + m[7]*y + m[8]*z);
+    }
+
+    /**
+     * Projects a camera space vertex onto the screen.
+     * The z coordinate is kept as the depth from the camera.
+     * @param vertex The vertex to project
+     */
+    public void project(DoubleVector3D vertex) {
+        double scale = FOCAL_SCALE / vertex.getZ();
+        vertex.setX(vertex.getX() * scale + centerX);
+        vertex.setY(vertex.getY() * scale + centerY);
+    }
+
+    /**
+     * Clips a camera space line to the near plane.
+     * The end behind the near plane is moved onto it.
+     * @param start The start of the line
+     * @param end The end of the line
+     * @return If any of the line is in front of the near plane
+     */
+    public static boolean clipToNearPlane(DoubleVector3D start, DoubleVector3D end) {
+        boolean startVisible = start.getZ() >= NEAR_PLANE;
+        boolean endVisible = end.getZ() >= NEAR_PLANE;
+        if (startVisible && endVisible) { return true; }
+        if (!startVisible && !endVisible) { return false; }
+
+        DoubleVector3D behind = startVisible ? end : start;
+        DoubleVector3D front = startVisible ? start : end;
+        double t = (NEAR_PLANE - behind.getZ()) / (front.getZ() - behind.getZ());
+        behind.setX(behind.getX() + t * (front.getX() - behind.getX()));
+        behind.setY(behind.getY() + t * (front.getY() - behind.getY()));
+        behind.setZ(NEAR_PLANE);
+        return true;
+    }
+
+}
@@ -0,0 +1,65 @@
+package com.sakariaslilja.datastructures;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class CellMapTests {
+
+    @Test
+    @DisplayName("CellMap put, get and remove")
+    public void putGetRemove() {
+        CellMap<String> map = new CellMap<>(2);
+        int a = GridCell.pack(0, 0, 0);
+        int b = GridCell.pack(1, 2, 3);
+
+        assertTrue(map.isEmpty(), "A new map should be empty");
+        map.put(a, "a");
+        map.put(b, "b");
+        map.put(b, "c");
+        assertEquals(2, map.size(), "Putting a cell again should replace its value");
+        assertEquals("a", map.get(a), "The value of a cell should be found");
+        assertEquals("c", map.get(b), "The value of a cell should be found");
+
+        assertEquals("a", map.remove(a), "Removing a cell should return its value");
+        assertNull(map.get(a), "A removed cell should not be found");
+        assertNull(map.remove(a), "A cell can only be removed once");
+        assertEquals("c", map.get(b), "Removing a cell should keep the other cells");
+    }
+
+    @Test
+    @DisplayName("CellMap matches HashMap")
+    public void matchesHashMap() {
+        CellMap<Integer> map = new CellMap<>(4);
+        HashMap<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(0);
+
+        // Few distinct cells, so probe runs collide and removals shift entries back
+        for (int i = 0; i < 20_000; i++) {
+            int cell = GridCell.pack(random.nextInt(8), random.nextInt(8), random.nextInt(8));
+            if (random.nextBoolean()) {
+                map.put(cell, i);
+                expected.put(cell, i);
+            }
+            else {
+                assertEquals(expected.remove(cell), map.remove(cell), "Removing should match a HashMap");
+            }
+            assertEquals(expected.size(), map.size(), "The size should match a HashMap");
+        }
+        for (int x = 0; x < 8; x++) {
+            for (int y = 0; y < 8; y++) {
+                for (int z = 0; z < 8; z++) {
+                    int cell = GridCell.pack(x, y, z);
+                    assertEquals(expected.get(cell), map.get(cell), "Every cell should match a HashMap");
+                }
+            }
+        }
+    }
+
+}
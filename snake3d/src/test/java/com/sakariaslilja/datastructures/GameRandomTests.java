@@ -0,0 +1,38 @@
+package com.sakariaslilja.datastructures;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class GameRandomTests {
+
+    @Test
+    @DisplayName("GameRandom matches Random")
+    public void matchesRandom() {
+        Random random = new Random(1234);
+        GameRandom gameRandom = new GameRandom(1234);
+        for (int i = 1; i < 1000; i++) {
+            assertEquals(random.nextInt(i), gameRandom.nextInt(i), "GameRandom should draw the same numbers as Random");
+        }
+        assertEquals(random.nextDouble(), gameRandom.nextDouble(), "GameRandom should draw the same numbers as Random");
+    }
+
+    @Test
+    @DisplayName("GameRandom state")
+    public void state() {
+        GameRandom random = new GameRandom(99);
+        random.nextInt(10);
+        long state = random.getState();
+        int first = random.nextInt(1000);
+        int second = random.nextInt(1000);
+
+        GameRandom restored = new GameRandom(0);
+        restored.setState(state);
+        assertEquals(first, restored.nextInt(1000), "A restored generator should continue from the saved state");
+        assertEquals(second, restored.nextInt(1000), "A restored generator should continue from the saved state");
+    }
+
+}
@@ -0,0 +1,137 @@
+package com.sakariaslilja.datastructures;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class OccupancyGridTests {
+
+    @Test
+    @DisplayName("OccupancyGrid contains")
+    public void contains() {
+        OccupancyGrid grid = new OccupancyGrid(3, 4, 5);
+
+        assertEquals(60, grid.size(), "The grid should have a cell for each position");
+        assertTrue(grid.contains(new Vector3D(0, 0, 0)), "The first cell should be inside the grid");
+        assertTrue(grid.contains(new Vector3D(2, 3, 4)), "The last cell should be inside the grid");
+        assertFalse(grid.contains(new Vector3D(-1, 0, 0)), "Negative coordinates should be outside the grid");
+        assertFalse(grid.contains(new Vector3D(3, 0, 0)), "The width should be exclusive");
+        assertFalse(grid.contains(new Vector3D(0, 4, 0)), "The height should be exclusive");
+        assertFalse(grid.contains(new Vector3D(0, 0, 5)), "The depth should be exclusive");
+    }
+
+    @Test
+    @DisplayName("OccupancyGrid index")
+    public void index() {
+        OccupancyGrid grid = new OccupancyGrid(3, 4, 5);
+
+        assertEquals(0, grid.index(0, 0, 0), "The first cell should have index 0");
+        assertEquals(1 + 2 * 3 + 3 * 3 * 4, grid.index(1, 2, 3), "The index should follow column, row, layer order");
+        assertEquals(grid.size() - 1, grid.index(2, 3, 4), "The last cell should have the last index");
+    }
+
+    @Test
+    @DisplayName("OccupancyGrid occupy and vacate")
+    public void occupyAndVacate() {
+        OccupancyGrid grid = new OccupancyGrid(2, 2, 2);
+        Vector3D cell = new Vector3D(1, 0, 1);
+
+        assertFalse(grid.isOccupied(cell), "A new grid should be empty");
+
+        grid.occupy(cell);
+        grid.occupy(cell);
+        assertEquals(2, grid.count(cell), "Each occupant should be counted");
+
+        grid.vacate(cell);
+        assertTrue(grid.isOccupied(cell), "The cell should still have an occupant");
+
+        grid.vacate(cell);
+        assertFalse(grid.isOccupied(cell), "The cell should be free after all occupants leave");
+
+        Vector3D outside = new Vector3D(5, 5, 5);
+        grid.occupy(outside);
+        assertEquals(0, grid.count(outside), "Cells outside the grid should be ignored");
+
+        grid.occupy(cell);
+        grid.clear();
+        assertFalse(grid.isOccupied(cell), "Clearing should free every cell");
+    }
+
+    @Test
+    @DisplayName("OccupancyGrid cell")
+    public void cell() {
+        OccupancyGrid grid = new OccupancyGrid(3, 4, 5);
+
+        for (int i = 0; i < grid.size(); i++) {
+            Vector3D cell = grid.cell(i);
+            assertEquals(i, grid.index(cell.getX(), cell.getY(), cell.getZ()), "The cell should map back to its index");
+        }
+    }
+
+    @Test
+    @DisplayName("OccupancyGrid random free cell")
+    public void randomFreeCell() {
+        OccupancyGrid grid = new OccupancyGrid(2, 2, 2);
+        Random random = new Random(0);
+
+        for (int i = 0; i < grid.size() - 1; i++) { grid.occupy(grid.cell(i)); }
+
+        assertEquals(1, grid.freeCount(), "Only one cell should be free");
+        assertEquals(grid.size() - 1, grid.randomFreeCell(random), "The only free cell should be picked");
+
+        grid.occupy(grid.cell(grid.size() - 1));
+        assertEquals(-1, grid.randomFreeCell(random), "No cell should be picked from a full grid");
+
+        grid.vacate(grid.cell(3));
+        grid.vacate(grid.cell(5));
+        for (int i = 0; i < 20; i++) {
+            int picked = grid.randomFreeCell(random);
+            assertTrue(picked == 3 || picked == 5, "Only vacated cells should be picked");
+        }
+    }
+
+    @Test
+    @DisplayName("OccupancyGrid free cells in index order")
+    public void freeCell() {
+        OccupancyGrid first = new OccupancyGrid(3, 4, 5);
+        OccupancyGrid second = new OccupancyGrid(3, 4, 5);
+        int[] occupied = {7, 0, 59, 30, 31, 12};
+
+        // The same cells are occupied in a different order, with extra cells vacated again
+        for (int index : occupied) { first.occupy(first.cell(index)); }
+        for (int i = occupied.length - 1; i >= 0; i--) { second.occupy(second.cell(occupied[i])); }
+        second.occupy(second.cell(40));
+        second.vacate(second.cell(40));
+
+        int rank = 0;
+        for (int index = 0; index < first.size(); index++) {
+            if (first.isOccupied(first.cell(index))) { continue; }
+            assertEquals(index, first.freeCell(rank), "The free cells should be in index order");
+            assertEquals(index, second.freeCell(rank), "The free cells shouldn't depend on the order of occupying");
+            rank++;
+        }
+        assertEquals(first.freeCount(), rank, "Every free cell should have a rank");
+    }
+
+    @Test
+    @DisplayName("OccupancyGrid free cells skip occupied cells")
+    public void freeCellsSkipOccupied() {
+        OccupancyGrid grid = new OccupancyGrid(5, 5, 5);
+        Vector3D first = new Vector3D(0, 0, 0);
+        assertEquals(0, grid.freeCell(0), "Every cell should be free in an empty grid");
+
+        grid.occupy(first);
+        assertEquals(grid.size() - 1, grid.freeCount(), "An occupied cell shouldn't be free");
+        assertEquals(1, grid.freeCell(0), "The free cells should skip the occupied cell");
+
+        grid.vacate(first);
+        assertEquals(grid.size(), grid.freeCount(), "A vacated cell should be free again");
+        assertEquals(0, grid.freeCell(0), "A vacated cell should be picked again");
+    }
+
+}
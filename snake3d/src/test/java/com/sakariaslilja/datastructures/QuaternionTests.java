@@ -67,6 +67,23 @@ public class QuaternionTests {
         assertEquals(expected, qMagnitude, "The magnitude should be correct");
     }
 
+    @Test
+    @DisplayName("Quaternion rotationMatrix")
+    public void rotationMatrix() {
+        Quaternion q = new Quaternion(new DoubleVector3D(1, 2, 3), 1.2);
+        double[] matrix = new double[9];
+        q.rotationMatrix(matrix);
+
+        DoubleVector3D vector = new DoubleVector3D(-4, 5, 0.5);
+        q.applyRotation(vector);
+
+        double x = -4, y = 5, z = 0.5;
+        double error = 0.000000001;
+        assertEquals(vector.getX(), matrix[0]*x + matrix[1]*y + matrix[2]*z, error, "The matrix should rotate like the quaternion");
+        assertEquals(vector.getY(), matrix[3]*x + matrix[4]*y + matrix[5]*z, error, "The matrix should rotate like the quaternion");
+        assertEquals(vector.getZ(), matrix[6]*x + matrix[7]*y + matrix[8]*z, error, "The matrix should rotate like the quaternion");
+    }
+
     @Test
     @DisplayName("Quaternion normalize")
     public void normalize() {
@@ -77,4 +94,37 @@ public class QuaternionTests {
         assertEquals(expected.toString(), q.toString(), "The normalize method should work as expected");
     }
 
+    @Test
+    @DisplayName("Quaternion interpolate")
+    public void interpolate() {
+        DoubleVector3D axis = new DoubleVector3D(0, 1, 0);
+        Quaternion from = new Quaternion(axis, 0.2);
+        Quaternion to = new Quaternion(axis, 0.4);
+
+        assertEquals(from.toString(), from.interpolate(to, 0).toString(), "Interpolating by 0 should give the first quaternion");
+        assertEquals(to.toString(), from.interpolate(to, 1).toString(), "Interpolating by 1 should give the other quaternion");
+
+        Quaternion halfway = from.interpolate(to, 0.5);
+        Quaternion expected = new Quaternion(axis, 0.3);
+        double error = 0.000000001;
+        assertEquals(expected.getW(), halfway.getW(), error, "Interpolating halfway should rotate halfway");
+        assertEquals(expected.getY(), halfway.getY(), error, "Interpolating halfway should rotate halfway");
+    }
+
+    @Test
+    @DisplayName("Quaternion snapToAxes")
+    public void snapToAxes() {
+        DoubleVector3D axis = new DoubleVector3D(1, 0, 0);
+        Quaternion q = new Quaternion(axis, Math.PI / 2 + 0.01);
+        q.snapToAxes();
+        assertEquals(new Quaternion(Math.sqrt(0.5), Math.sqrt(0.5), 0, 0), q, "A quarter turn should snap exactly");
+
+        q = new Quaternion(-0.51, 0.49, -0.5, 0.5);
+        q.snapToAxes();
+        assertEquals(new Quaternion(-0.5, 0.5, -0.5, 0.5), q, "The snapped quaternion should keep its sign");
+
+        q = new Quaternion(0.01, 0.02, -0.999, 0);
+        q.snapToAxes();
+        assertEquals(new Quaternion(0, 0, -1, 0), q, "A half turn should snap exactly");
+    }
 }
@@ -0,0 +1,49 @@
+package com.sakariaslilja.datastructures;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class SpscQueueTests {
+
+    @Test
+    @DisplayName("SpscQueue offer and poll")
+    public void offerAndPoll() {
+        SpscQueue<Integer> queue = new SpscQueue<>(3);
+        assertEquals(4, queue.capacity(), "The capacity should be rounded up to a power of two");
+        assertNull(queue.poll(), "An empty queue should have nothing to poll");
+
+        for (int i = 0; i < 4; i++) { assertTrue(queue.offer(i), "A queue with room should accept elements"); }
+        assertEquals(false, queue.offer(4), "A full queue should reject elements");
+
+        for (int i = 0; i < 4; i++) { assertEquals(i, queue.poll(), "Elements should be polled in order"); }
+        assertTrue(queue.isEmpty(), "Polling every element should empty the queue");
+    }
+
+    @Test
+    @DisplayName("SpscQueue between two threads")
+    public void twoThreads() throws InterruptedException {
+        SpscQueue<Integer> queue = new SpscQueue<>(16);
+        int count = 10_000;
+
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < count; i++) {
+                while (!queue.offer(i)) { Thread.yield(); }
+            }
+        });
+        producer.start();
+
+        for (int i = 0; i < count; i++) {
+            Integer element;
+            while ((element = queue.poll()) == null) { Thread.yield(); }
+            assertEquals(i, element, "Every element should arrive once and in order");
+        }
+
+        producer.join();
+        assertTrue(queue.isEmpty(), "Every element should have been polled");
+    }
+
+}
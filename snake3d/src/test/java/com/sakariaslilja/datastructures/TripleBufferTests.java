@@ -0,0 +1,33 @@
+package com.sakariaslilja.datastructures;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TripleBufferTests {
+
+    @Test
+    @DisplayName("TripleBuffer publish")
+    public void publish() {
+        TripleBuffer<int[]> buffer = new TripleBuffer<>(() -> new int[1]);
+        int[] initial = buffer.front();
+
+        buffer.back()[0] = 1;
+        assertEquals(initial, buffer.front(), "Unpublished states shouldn't be read");
+
+        buffer.publish();
+        int[] first = buffer.front();
+        assertEquals(1, first[0], "The published state should be read");
+        assertNotSame(first, buffer.back(), "The writer shouldn't write into the state being read");
+
+        buffer.back()[0] = 2;
+        buffer.publish();
+        buffer.back()[0] = 3;
+        buffer.publish();
+        assertNotSame(first, buffer.back(), "The writer shouldn't write into the state being read");
+        assertEquals(3, buffer.front()[0], "The latest published state should be read");
+    }
+
+}
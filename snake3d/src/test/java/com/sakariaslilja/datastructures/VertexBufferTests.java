@@ -0,0 +1,34 @@
+package com.sakariaslilja.datastructures;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class VertexBufferTests {
+
+    @Test
+    @DisplayName("VertexBuffer addCube")
+    public void addCube() {
+        VertexBuffer buffer = new VertexBuffer();
+        int cubes = 1000;
+
+        for (int i = 0; i < cubes; i++) {
+            assertEquals(i, buffer.addCube(i, 2 * i, 3 * i, 0.5), "Cubes should be indexed in order");
+        }
+
+        assertEquals(cubes, buffer.cubeCount(), "Every cube should be in the buffer");
+        assertEquals(cubes * CubeTemplate.VERTICES, buffer.vertexCount(), "Every cube should have 8 vertices");
+
+        for (int i = 0; i < CubeTemplate.VERTICES; i++) {
+            int vertex = 10 * CubeTemplate.VERTICES + i;
+            assertEquals(10 + 0.5 * CubeTemplate.x(i), buffer.x()[vertex], "The x-coordinates should follow the template");
+            assertEquals(20 + 0.5 * CubeTemplate.y(i), buffer.y()[vertex], "The y-coordinates should follow the template");
+            assertEquals(30 + 0.5 * CubeTemplate.z(i), buffer.z()[vertex], "The z-coordinates should follow the template");
+        }
+
+        buffer.clear();
+        assertEquals(0, buffer.cubeCount(), "Clearing should remove every cube");
+    }
+
+}
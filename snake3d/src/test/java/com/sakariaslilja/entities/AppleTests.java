@@ -9,6 +9,7 @@ import org.junit.jupiter.api.Test;
 
 import com.sakariaslilja.datastructures.DoubleVector3D;
 import com.sakariaslilja.datastructures.Vector3D;
+import com.sakariaslilja.datastructures.VertexBuffer;
 
 public class AppleTests {
 
@@ -56,5 +57,19 @@ public class AppleTests {
         }
         
     }
-    
+
+    @Test
+    @DisplayName("Apple writeVertices")
+    public void writeVertices() {
+        Apple apple = new Apple(new Vector3D(1500, 2500, 500));
+        VertexBuffer buffer = new VertexBuffer();
+        ArrayList<DoubleVector3D> expected = apple.getVertices();
+
+        assertEquals(0, apple.writeVertices(buffer), "The apple should be the first cube of the buffer");
+
+        for (int i = 0; i < expected.size(); i++) {
+            DoubleVector3D actual = new DoubleVector3D(buffer.x()[i], buffer.y()[i], buffer.z()[i]);
+            assertEquals(expected.get(i), actual, "The written vertices should be the apple's vertices");
+        }
+    }
 }
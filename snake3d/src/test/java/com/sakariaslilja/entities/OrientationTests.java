@@ -0,0 +1,63 @@
+package com.sakariaslilja.entities;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.sakariaslilja.datastructures.Heading;
+import com.sakariaslilja.datastructures.Vector3D;
+
+public class OrientationTests {
+
+    @Test
+    @DisplayName("Orientation valid frames")
+    public void validFrames() {
+        HashSet<Byte> frames = new HashSet<>();
+        for (byte frame : Orientation.ALL) {
+            assertTrue(Orientation.isValid(frame), "Every listed frame should be valid");
+            Vector3D heading = Orientation.heading(frame).vec;
+            Vector3D normal = Orientation.normal(frame).vec;
+            assertFalse(heading.equals(normal) || heading.equals(normal.neg()), "The normal should be perpendicular to the heading");
+            frames.add(frame);
+        }
+        assertEquals(24, frames.size(), "There should be 24 distinct frames");
+        assertFalse(Orientation.isValid(Orientation.of(Heading.UP, Heading.DOWN)), "A normal along the heading should not be valid");
+    }
+
+    @Test
+    @DisplayName("Orientation turn tables")
+    public void turnTables() {
+        for (byte frame : Orientation.ALL) {
+            Vector3D heading = Orientation.heading(frame).vec;
+            Vector3D normal = Orientation.normal(frame).vec;
+
+            assertEquals(Orientation.of(normal.crossProd(heading), normal), Orientation.turn(frame, Turn.L), "Turning left should match the vectors");
+            assertEquals(Orientation.of(heading.crossProd(normal), normal), Orientation.turn(frame, Turn.R), "Turning right should match the vectors");
+            assertEquals(Orientation.of(normal.neg(), heading), Orientation.turn(frame, Turn.D), "Turning down should match the vectors");
+            assertEquals(Orientation.of(normal, heading.neg()), Orientation.turn(frame, Turn.U), "Turning up should match the vectors");
+            assertEquals(frame, Orientation.turn(frame, Turn.N), "Not turning should keep the frame");
+
+            for (Turn turn : Turn.values()) {
+                byte turned = Orientation.turn(frame, turn);
+                assertTrue(Orientation.isValid(turned), "A turned frame should be valid");
+                assertEquals(turn, Orientation.between(frame, turned), "The turn between frames should be the turn taken");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Orientation of vectors")
+    public void ofVectors() {
+        for (Heading heading : Heading.values()) {
+            for (Heading normal : Heading.values()) {
+                assertEquals(Orientation.of(heading, normal), Orientation.of(heading.vec, normal.vec), "Vectors should pack like their headings");
+            }
+        }
+    }
+
+}
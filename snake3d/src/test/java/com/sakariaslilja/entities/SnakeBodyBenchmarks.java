@@ -0,0 +1,70 @@
+package com.sakariaslilja.entities;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.sakariaslilja.IConstants;
+import com.sakariaslilja.datastructures.Heading;
+import com.sakariaslilja.datastructures.Vector3D;
+
+/**
+ * Benchmarks for the snake body.
+ * Run with: mvn test -Pbenchmark
+ */
+public class SnakeBodyBenchmarks implements IConstants {
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 1_000_000;
+
+    // Results are accumulated so the JIT can't remove the measured calls
+    private static int sink = 0;
+
+    /**
+     * @param length The number of segments
+     * @return A snake body with the given number of segments
+     */
+    private static SnakeBody body(int length) {
+        ArrayList<Snake> segments = new ArrayList<>();
+        segments.add(new Snake(new Vector3D(500, 500, 500), Heading.FORWARD, Heading.UP));
+        SnakeBody body = new SnakeBody(segments);
+        for (int i = 1; i < length; i++) { body.grow(); }
+        return body;
+    }
+
+    /**
+     * Moves the snake and turns it at every cell, so it circles in place.
+     * @param body The snake body to move
+     * @param rounds The number of steps to move
+     * @return The average nanoseconds of a step
+     */
+    private static double moveNanos(SnakeBody body, int rounds) {
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            body.move();
+            if (body.isGridAligned()) { body.turnHead(Turn.R); }
+            sink += body.cell(0);
+        }
+        return (System.nanoTime() - start) / (double) rounds;
+    }
+
+    @Test
+    @DisplayName("Benchmark: snake step cost by snake length")
+    public void moveBySnakeLength() {
+        int[] lengths = {10, 1_000, 100_000};
+        double[] nanos = new double[lengths.length];
+
+        for (int i = 0; i < lengths.length; i++) {
+            SnakeBody body = body(lengths[i]);
+            moveNanos(body, WARMUP_ROUNDS * ROUNDS);
+            nanos[i] = moveNanos(body, ROUNDS);
+            System.out.printf("SnakeBody.move %d segments: %.1f ns/tick%n", lengths[i], nanos[i]);
+        }
+
+        assertTrue(nanos[lengths.length - 1] < 10 * nanos[0], "Moving the snake should not scale with its length");
+    }
+
+}
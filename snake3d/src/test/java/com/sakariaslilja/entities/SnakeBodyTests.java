@@ -0,0 +1,136 @@
+package com.sakariaslilja.entities;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.sakariaslilja.IConstants;
+import com.sakariaslilja.datastructures.CubeTemplate;
+import com.sakariaslilja.datastructures.DoubleVector3D;
+import com.sakariaslilja.datastructures.GridCell;
+import com.sakariaslilja.datastructures.Heading;
+import com.sakariaslilja.datastructures.Vector3D;
+import com.sakariaslilja.datastructures.VertexBuffer;
+
+public class SnakeBodyTests implements IConstants {
+
+    /**
+     * @return A snake body with only a head at the center of cell (0, 0, 0) heading forward
+     */
+    private SnakeBody body() {
+        ArrayList<Snake> segments = new ArrayList<>();
+        segments.add(new Snake(new Vector3D(500, 500, 500), Heading.FORWARD, Heading.UP));
+        return new SnakeBody(segments);
+    }
+
+    @Test
+    @DisplayName("SnakeBody from segments")
+    public void fromSegments() {
+        SnakeBody body = body();
+
+        assertEquals(1, body.length(), "The body should have one segment");
+        assertTrue(body.isGridAligned(), "A snake at the center of its cell should be grid aligned");
+        assertEquals(GridCell.pack(0, 0, 0), body.cell(0), "The head should be in the first cell");
+        assertEquals(Heading.FORWARD, body.heading(0), "The heading should be kept");
+        assertEquals(Heading.UP, body.normal(0), "The normal should be kept");
+    }
+
+    @Test
+    @DisplayName("SnakeBody move")
+    public void move() {
+        SnakeBody body = body();
+        body.grow();
+
+        body.move();
+        assertEquals(GridCell.pack(0, 0, 1), body.cell(0), "The head should enter the next cell after leaving the center");
+        assertEquals(GridCell.pack(0, 0, 0), body.cell(1), "The tail should enter the head's old cell");
+        assertEquals(new Vector3D(500, 500, 500 + STEP_SIZE), body.position(0), "The head should move one step");
+
+        for (int step = 1; step < UNIT / STEP_SIZE; step++) { body.move(); }
+        assertTrue(body.isGridAligned(), "The snake should reach the center of the next cell");
+        assertEquals(new Vector3D(500, 500, 1500), body.position(0), "The head should be at the center of its cell");
+        assertEquals(new Vector3D(500, 500, 500), body.position(1), "The tail should be at the center of its cell");
+    }
+
+    @Test
+    @DisplayName("SnakeBody grow")
+    public void grow() {
+        SnakeBody body = body();
+        int length = 100;
+
+        for (int i = 1; i < length; i++) {
+            int cell = body.grow();
+            assertEquals(GridCell.pack(0, 0, -i), cell, "The snake should grow behind the tail");
+        }
+
+        assertEquals(length, body.length(), "The snake should have grown");
+        for (int i = 0; i < length; i++) {
+            assertEquals(GridCell.pack(0, 0, -i), body.cell(i), "The segments should keep their order when the buffers grow");
+        }
+    }
+
+    @Test
+    @DisplayName("SnakeBody turns")
+    public void turns() {
+        SnakeBody body = body();
+        body.grow();
+        body.turnHead(Turn.R);
+
+        assertEquals(Heading.RIGHT, body.heading(0), "The head should turn right");
+        assertEquals(Turn.R, body.nextTurn(1), "The tail should take the same turn");
+
+        for (int step = 0; step < UNIT / STEP_SIZE; step++) { body.move(); }
+
+        assertEquals(GridCell.pack(1, 0, 0), body.cell(0), "The head should move right");
+        assertEquals(Heading.RIGHT, body.heading(1), "The tail should turn at the same cell");
+        assertEquals(Turn.N, body.nextTurn(1), "The tail should not turn again");
+    }
+
+    @Test
+    @DisplayName("SnakeBody toSnakes")
+    public void toSnakes() {
+        SnakeBody body = body();
+        body.grow();
+        body.grow();
+        body.move();
+        body.move();
+
+        ArrayList<Snake> segments = body.toSnakes();
+        SnakeBody copy = new SnakeBody(segments);
+
+        assertEquals(body.length(), copy.length(), "The copy should have every segment");
+        assertEquals(body.progress(), copy.progress(), "The copy should have the same progress");
+        for (int i = 0; i < body.length(); i++) {
+            assertEquals(body.cell(i), copy.cell(i), "The copy should have the same cells");
+            assertEquals(body.position(i), copy.position(i), "The copy should have the same positions");
+            assertEquals(body.heading(i), copy.heading(i), "The copy should have the same headings");
+        }
+    }
+
+    @Test
+    @DisplayName("SnakeBody writeVertices")
+    public void writeVertices() {
+        SnakeBody body = body();
+        for (int i = 0; i < 3; i++) { body.grow(); }
+        body.move();
+        body.move();
+
+        VertexBuffer buffer = new VertexBuffer();
+        body.writeVertices(buffer, 1);
+        assertEquals(body.length() - 1, buffer.cubeCount(), "Every segment after the first should be written");
+
+        ArrayList<Snake> segments = body.toSnakes();
+        for (int segment = 1; segment < body.length(); segment++) {
+            ArrayList<DoubleVector3D> expected = segments.get(segment).getVertices();
+            for (int i = 0; i < CubeTemplate.VERTICES; i++) {
+                int vertex = (segment - 1) * CubeTemplate.VERTICES + i;
+                DoubleVector3D actual = new DoubleVector3D(buffer.x()[vertex], buffer.y()[vertex], buffer.z()[vertex]);
+                assertEquals(expected.get(i), actual, "The written vertices should be the segment's vertices");
+            }
+        }
+    }
+}
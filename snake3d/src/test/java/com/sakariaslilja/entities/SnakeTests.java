@@ -6,6 +6,8 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import com.sakariaslilja.IConstants;
+import com.sakariaslilja.datastructures.DoubleVector3D;
+import com.sakariaslilja.datastructures.GridCell;
 import com.sakariaslilja.datastructures.Heading;
 import com.sakariaslilja.datastructures.Vector3D;
 import com.sakariaslilja.models.SnakeModel;
@@ -102,6 +104,34 @@ public class SnakeTests implements IConstants {
         assertEquals(expectedGridPos, snake.getGridPos(), "The gridPos should move when after the center of block");
     }
 
+    @Test
+    @DisplayName("Snake grid position while moving")
+    public void gridPosWhileMoving() {
+        for (Heading heading : Heading.values()) {
+            Heading normal = heading == Heading.UP || heading == Heading.DOWN ? Heading.FORWARD : Heading.UP;
+            Snake snake = new Snake(new Vector3D(1500, 1500, 1500), heading, normal);
+            for (int i = 0; i < 4 * UNIT / STEP_SIZE; i++) {
+                snake.move();
+                Vector3D expected = roundedGridPos(snake);
+                assertEquals(expected, snake.getGridPos(), "The cached gridPos should follow the snake " + heading);
+                assertEquals(GridCell.pack(expected), snake.getCell(), "The packed cell should follow the snake " + heading);
+            }
+        }
+    }
+
+    /**
+     * The grid position rounded from the snake's position without caching.
+     */
+    private static Vector3D roundedGridPos(Snake snake) {
+        Vector3D offset = new Vector3D(-1, -1, -1);
+        if (snake.getHeading().exists(i -> i < 0)) {
+            offset = offset.add(snake.getHeading().mul(UNIT - 1));
+        }
+        DoubleVector3D p1 = snake.getPosition().add(offset).toDoubleVector3D();
+        p1.mul(1.0 / UNIT);
+        return p1.toVector3D();
+    }
+
     @Test
     @DisplayName("Snake toSnakeModel")
     public void toSnakeModelTest() {
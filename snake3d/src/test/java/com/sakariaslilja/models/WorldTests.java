@@ -154,5 +154,57 @@ public class WorldTests implements IConstants {
         assertEquals(true, edgesAreValid, "No invalid edges should be present in new edges");
         assertEquals(true, edgesContainAllValidVertices, "All valid vertices should be found in edges");
     }
-    
+
+    @Test
+    @DisplayName("World forEachEdge")
+    public void forEachEdge() {
+        int width = 2;
+        int height = 3;
+        int depth = 4;
+
+        World world = new World(width, height, depth);
+        ArrayList<Tuple> edges = world.getEdges();
+        int[] count = {0};
+
+        world.forEachEdge((x1, y1, z1, x2, y2, z2) -> {
+            assertEquals(1, Math.abs(x2 - x1) + Math.abs(y2 - y1) + Math.abs(z2 - z1), "Edges should connect neighbouring vertices");
+            boolean onWall = x1 == 0 || x2 == width || y1 == 0 || y2 == height || z1 == 0 || z2 == depth;
+            assertEquals(true, onWall, "Edges should be on the world's walls");
+            count[0]++;
+        });
+
+        assertEquals(edges.size(), count[0], "Every edge should be enumerated");
+    }
+
+    @Test
+    @DisplayName("World forEachLine")
+    public void forEachLine() {
+        int width = 2;
+        int height = 3;
+        int depth = 4;
+
+        World world = new World(width, height, depth);
+        ArrayList<Tuple> edges = world.getEdges();
+        ArrayList<Tuple> splitLines = new ArrayList<>();
+
+        world.forEachLine((x1, y1, z1, x2, y2, z2) -> {
+            int length = Math.abs(x2 - x1) + Math.abs(y2 - y1) + Math.abs(z2 - z1);
+            boolean spansWorld = length == width && x2 - x1 == width || length == height && y2 - y1 == height || length == depth && z2 - z1 == depth;
+            assertEquals(true, spansWorld, "Lines should span the whole world");
+
+            int dx = (x2 - x1) / length;
+            int dy = (y2 - y1) / length;
+            int dz = (z2 - z1) / length;
+            for (int i = 0; i < length; i++) {
+                DoubleVector3D start = new DoubleVector3D(x1 + i * dx, y1 + i * dy, z1 + i * dz);
+                DoubleVector3D end = new DoubleVector3D(x1 + (i + 1) * dx, y1 + (i + 1) * dy, z1 + (i + 1) * dz);
+                splitLines.add(new Tuple(start, end));
+            }
+        });
+
+        assertEquals(edges, splitLines, "The lines should consist of every edge");
+        // Rows of edges on the walls along each axis: 4 * 5 - 2 * 3, 3 * 5 - 1 * 3 and 3 * 4 - 1 * 2
+        assertEquals(14 + 12 + 10, world.getLines().size(), "There should be one line per row of edges");
+    }
+
 }
@@ -0,0 +1,63 @@
+package com.sakariaslilja.services;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.sakariaslilja.datastructures.Heading;
+
+/**
+ * Benchmarks for the arena engine.
+ * Run with: mvn test -Pbenchmark
+ */
+public class ArenaEngineBenchmarks {
+
+    private static final int WORLD_SIZE = 100;
+    private static final int TICKS = 5_000;
+
+    /**
+     * Plays arenas of random bots on one thread and on every core.
+     */
+    @Test
+    @DisplayName("Benchmark: arena ticks by snake and thread count")
+    public void ticksBySnakesAndThreads() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(cores);
+        try {
+            for (int snakes : new int[] {100, 500, 2_000}) {
+                for (boolean parallel : new boolean[] {false, true}) {
+                    // Warm up
+                    arena(snakes, parallel ? pool : null).step(TICKS / 5);
+
+                    ArenaEngine arena = arena(snakes, parallel ? pool : null);
+                    long start = System.nanoTime();
+                    arena.step(TICKS);
+                    double seconds = (System.nanoTime() - start) / 1e9;
+                    System.out.printf("ArenaEngine %d snakes, %d threads: %.0f ticks/s, %d alive%n",
+                        snakes, parallel ? cores : 1, TICKS / seconds, arena.aliveCount());
+                }
+            }
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * @param snakes The number of bots
+     * @param pool The pool of the arena
+     * @return An arena of random bots in a world of the largest size
+     */
+    private ArenaEngine arena(int snakes, ForkJoinPool pool) {
+        ArenaEngine arena = new ArenaEngine(WORLD_SIZE, WORLD_SIZE, WORLD_SIZE, snakes, 1, pool);
+        Heading[] headings = Heading.values();
+        for (int i = 0; i < snakes; i++) {
+            Heading heading = headings[i % headings.length];
+            Heading normal = heading == Heading.UP || heading == Heading.DOWN ? Heading.FORWARD : Heading.UP;
+            arena.spawnSnake(heading, normal, new RandomInputPolicy(i, 0.2));
+        }
+        return arena;
+    }
+
+}
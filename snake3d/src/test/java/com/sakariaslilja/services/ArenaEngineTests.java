@@ -0,0 +1,158 @@
+package com.sakariaslilja.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.sakariaslilja.IConstants;
+import com.sakariaslilja.datastructures.GridCell;
+import com.sakariaslilja.datastructures.Heading;
+import com.sakariaslilja.datastructures.Vector3D;
+import com.sakariaslilja.entities.Snake;
+
+public class ArenaEngineTests implements IConstants {
+
+    private static final int TICKS_PER_CELL = UNIT / STEP_SIZE;
+
+    /**
+     * @param heading The heading of every segment
+     * @param cells The grid positions of the segments, starting from the head
+     * @return The segments of a snake at the centers of the cells
+     */
+    private ArrayList<Snake> segments(Heading heading, Vector3D... cells) {
+        ArrayList<Snake> segments = new ArrayList<>();
+        Vector3D offset = new Vector3D(500, 500, 500);
+        Heading normal = heading == Heading.UP || heading == Heading.DOWN ? Heading.FORWARD : Heading.UP;
+        for (Vector3D cell : cells) { segments.add(new Snake(cell.mul(UNIT).add(offset), heading, normal)); }
+        return segments;
+    }
+
+    @Test
+    @DisplayName("ArenaEngine head-on collision")
+    public void headOn() {
+        ArenaEngine arena = new ArenaEngine(5, 1, 1, 0, 0, null);
+        arena.addSnake(segments(Heading.RIGHT, new Vector3D(0, 0, 0)), null);
+        arena.addSnake(segments(Heading.LEFT, new Vector3D(4, 0, 0)), null);
+
+        arena.step(TICKS_PER_CELL);
+        assertEquals(2, arena.aliveCount(), "The snakes shouldn't collide before meeting");
+
+        arena.step(1);
+        assertEquals(0, arena.aliveCount(), "Both heads entering the same cell should kill both snakes");
+    }
+
+    @Test
+    @DisplayName("ArenaEngine swapping cells")
+    public void swap() {
+        ArenaEngine arena = new ArenaEngine(4, 1, 1, 0, 0, null);
+        arena.addSnake(segments(Heading.RIGHT, new Vector3D(0, 0, 0)), null);
+        arena.addSnake(segments(Heading.LEFT, new Vector3D(3, 0, 0)), null);
+
+        arena.step(TICKS_PER_CELL + 1);
+        assertEquals(0, arena.aliveCount(), "Heads swapping cells should kill both snakes");
+    }
+
+    @Test
+    @DisplayName("ArenaEngine body collision")
+    public void bodyCollision() {
+        ArenaEngine arena = new ArenaEngine(7, 1, 3, 0, 0, null);
+        int runner = arena.addSnake(segments(Heading.FORWARD, new Vector3D(2, 0, 0)), null);
+        int body = arena.addSnake(segments(Heading.RIGHT,
+            new Vector3D(3, 0, 2), new Vector3D(2, 0, 2), new Vector3D(1, 0, 2), new Vector3D(0, 0, 2)), null);
+
+        arena.step(TICKS_PER_CELL + 1);
+
+        assertFalse(arena.isAlive(runner), "Running into another snake should kill the snake");
+        assertTrue(arena.isAlive(body), "The snake that was run into should live");
+        assertEquals(GridCell.pack(5, 0, 2), arena.getSnakeBody(body).cell(0), "The living snake should carry on");
+    }
+
+    @Test
+    @DisplayName("ArenaEngine eating apples")
+    public void eatApple() {
+        ArenaEngine arena = new ArenaEngine(1, 1, 5, 0, 0, null);
+        int snake = arena.addSnake(segments(Heading.FORWARD, new Vector3D(0, 0, 0)), null);
+        arena.addApple(new Vector3D(0, 0, 2));
+
+        arena.step(TICKS_PER_CELL + 1);
+
+        assertEquals(1, arena.getScore(snake), "Entering the apple's cell should eat it");
+        assertEquals(2, arena.getSnakeBody(snake).length(), "Eating an apple should grow the snake");
+        assertTrue(arena.getApples().isEmpty(), "The eaten apple should be removed");
+        assertTrue(arena.isAlive(snake), "Growing shouldn't kill the snake");
+    }
+
+    @Test
+    @DisplayName("ArenaEngine eating keeps the other apples")
+    public void eatingKeepsOtherApples() {
+        ArenaEngine arena = new ArenaEngine(1, 1, 5, 0, 0, null);
+        int snake = arena.addSnake(segments(Heading.FORWARD, new Vector3D(0, 0, 0)), null);
+        for (int z = 1; z <= 3; z++) { arena.addApple(new Vector3D(0, 0, z)); }
+
+        // The first apple is eaten first, so the last apple moves into its place
+        arena.step(1);
+        assertEquals(1, arena.getScore(snake), "Entering the apple's cell should eat it");
+        assertEquals(2, arena.getApples().size(), "Only the eaten apple should be removed");
+        assertTrue(arena.getApples().stream().noneMatch(apple -> apple.getCell() == GridCell.pack(0, 0, 1)), "The eaten apple should be removed");
+
+        arena.step(2 * TICKS_PER_CELL);
+        assertEquals(3, arena.getScore(snake), "The moved apple should still be eaten");
+        assertTrue(arena.getApples().isEmpty(), "Every eaten apple should be removed");
+    }
+
+    @Test
+    @DisplayName("ArenaEngine player input")
+    public void playerInput() {
+        ArenaEngine arena = new ArenaEngine(3, 3, 3, 0, 0, null);
+        int snake = arena.addSnake(segments(Heading.FORWARD, new Vector3D(0, 0, 0)), null);
+
+        arena.handleInput(snake, Input.RIGHT);
+        arena.step(TICKS_PER_CELL);
+        assertTrue(arena.isTurning(snake), "The snake should turn at the center of the next cell");
+
+        arena.step(90 / ROTATION_SPEED);
+        assertFalse(arena.isTurning(snake), "The turn should be done");
+        assertEquals(Heading.RIGHT, arena.getSnakeBody(snake).heading(0), "The snake should be heading right");
+    }
+
+    @Test
+    @DisplayName("ArenaEngine parallel phases are deterministic")
+    public void deterministic() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ArenaEngine sequential = arena(null);
+            ArenaEngine parallel = arena(pool);
+            for (int i = 0; i < 20; i++) {
+                sequential.step(100);
+                parallel.step(100);
+                assertEquals(sequential.stateHash(), parallel.stateHash(), "The arena should play the same on any number of threads");
+            }
+            assertTrue(sequential.aliveCount() < sequential.snakeCount(), "Some snakes should have collided");
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * @param pool The pool of the arena
+     * @return An arena of random bots
+     */
+    private ArenaEngine arena(ForkJoinPool pool) {
+        ArenaEngine arena = new ArenaEngine(20, 20, 20, 50, 3, pool);
+        Heading[] headings = Heading.values();
+        for (int i = 0; i < 200; i++) {
+            Heading heading = headings[i % headings.length];
+            Heading normal = heading == Heading.UP || heading == Heading.DOWN ? Heading.FORWARD : Heading.UP;
+            arena.spawnSnake(heading, normal, new RandomInputPolicy(i, 0.3));
+        }
+        return arena;
+    }
+
+}
@@ -0,0 +1,33 @@
+package com.sakariaslilja.services;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Benchmarks for the batch simulator.
+ * Run with: mvn test -Pbenchmark
+ */
+public class BatchSimulatorBenchmarks {
+
+    private static final int GAMES = 2_000;
+    private static final int MAX_TICKS = 50_000;
+
+    /**
+     * Plays the same batch on one thread and on every core.
+     */
+    @Test
+    @DisplayName("Benchmark: batch simulation throughput by thread count")
+    public void throughputByThreads() {
+        BatchSimulator simulator = new BatchSimulator(10, 10, 10, seed -> new RandomInputPolicy(seed, 0.2), MAX_TICKS);
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        // Warm up
+        simulator.run(0, GAMES / 4, cores);
+
+        for (int threads : new int[] {1, cores}) {
+            BatchReport report = simulator.run(0, GAMES, threads);
+            System.out.printf("BatchSimulator %d threads: %s%n", threads, report);
+        }
+    }
+
+}
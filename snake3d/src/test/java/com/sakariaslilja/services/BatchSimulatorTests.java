@@ -0,0 +1,66 @@
+package com.sakariaslilja.services;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class BatchSimulatorTests {
+
+    private static final int GAMES = 64;
+    private static final int MAX_TICKS = 20_000;
+
+    /**
+     * @return A simulator of games in a 5^3 world played by random policies
+     */
+    private static BatchSimulator simulator() {
+        return new BatchSimulator(5, 5, 5, seed -> new RandomInputPolicy(seed, 0.3), MAX_TICKS);
+    }
+
+    @Test
+    @DisplayName("BatchSimulator run")
+    public void run() {
+        BatchReport report = simulator().run(0, GAMES, 4);
+
+        assertEquals(GAMES, report.games(), "Every game should be played");
+        assertTrue(report.lengthPercentile(100) <= MAX_TICKS, "No game should run longer than the limit");
+        assertEquals(GAMES, Arrays.stream(report.scoreHistogram()).sum(), "Every game should be in the score histogram");
+        assertEquals(125, report.spawnCounts().length, "Every cell should have a spawn count");
+
+        // Every apple eaten was spawned, and each game starts with no apples
+        long eaten = 0;
+        for (int score = 0; score < report.scoreHistogram().length; score++) { eaten += (long) score * report.scoreHistogram()[score]; }
+        assertTrue(report.totalSpawns() >= eaten, "Apples can't be eaten without spawning");
+        assertTrue(report.totalSpawns() >= GAMES, "Every game should spawn an apple");
+    }
+
+    @Test
+    @DisplayName("BatchSimulator determinism")
+    public void determinism() {
+        BatchReport serial = simulator().run(42, GAMES, 1);
+        BatchReport parallel = simulator().run(42, GAMES, 4);
+
+        assertArrayEquals(serial.scoreHistogram(), parallel.scoreHistogram(), "The same seeds should play the same games on any number of threads");
+        assertEquals(serial.totalTicks(), parallel.totalTicks(), "The same seeds should play the same games on any number of threads");
+        assertArrayEquals(serial.spawnCounts(), parallel.spawnCounts(), "The same seeds should spawn the same apples on any number of threads");
+    }
+
+    @Test
+    @DisplayName("BatchReport percentiles")
+    public void percentiles() {
+        BatchReport report = new BatchReport(new int[] {3, 1, 2, 0}, new long[] {40, 10, 30, 20}, new long[] {1, 2}, 1_000_000_000);
+
+        assertEquals(0, report.scorePercentile(0), "The 0th percentile should be the smallest score");
+        assertEquals(1, report.scorePercentile(50), "The median should use the nearest rank");
+        assertEquals(3, report.scorePercentile(100), "The 100th percentile should be the largest score");
+        assertEquals(40, report.lengthPercentile(99), "The 99th percentile should be the longest game of four");
+        assertEquals(1.5, report.meanScore(), "The mean score should be the average");
+        assertEquals(100, report.ticksPerSecond(), 1e-9, "Ticks per second should use the batch time");
+        assertArrayEquals(new int[] {1, 1, 1, 1}, report.scoreHistogram(), "Each score should be counted once");
+    }
+
+}
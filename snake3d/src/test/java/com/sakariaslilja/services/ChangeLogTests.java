@@ -0,0 +1,85 @@
+package com.sakariaslilja.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ChangeLogTests {
+
+    @Test
+    @DisplayName("ChangeLog capacity")
+    public void capacity() {
+        assertEquals(8, new ChangeLog(8).capacity(), "A power of two should be kept");
+        assertEquals(16, new ChangeLog(9).capacity(), "The capacity should be rounded up to a power of two");
+    }
+
+    @Test
+    @DisplayName("ChangeLog append and read")
+    public void appendAndRead() {
+        ChangeLog log = new ChangeLog(8);
+        log.append(3, ChangeLog.Type.SEGMENT_ADDED, 42, 1);
+        log.append(4, ChangeLog.Type.APPLE_EATEN, 7, 0);
+
+        assertEquals(2, log.end(), "Every change should get a sequence number");
+        assertEquals(3, log.tick(0), "The change should keep its tick");
+        assertEquals(ChangeLog.Type.SEGMENT_ADDED, log.type(0), "The change should keep its type");
+        assertEquals(42, log.cell(0), "The change should keep its cell");
+        assertEquals(1, log.arg(0), "The change should keep its argument");
+        assertEquals(ChangeLog.Type.APPLE_EATEN, log.type(1), "The changes should be in order");
+    }
+
+    @Test
+    @DisplayName("ChangeLog wraps around")
+    public void wrapsAround() {
+        ChangeLog log = new ChangeLog(8);
+        for (int i = 0; i < 20; i++) { log.append(i, ChangeLog.Type.SEGMENT_REMOVED, i, 0); }
+
+        assertEquals(20, log.end(), "Every change should get a sequence number");
+        assertEquals(13, log.start(), "Only the latest changes should be kept");
+        assertFalse(log.isAvailable(12), "An overwritten change shouldn't be available");
+        assertFalse(log.isAvailable(20), "A future change shouldn't be available");
+        for (long seq = log.start(); seq < log.end(); seq++) {
+            assertTrue(log.isAvailable(seq), "A kept change should be available");
+            assertEquals(seq, log.cell(seq), "A kept change should read back as appended");
+        }
+    }
+
+    @Test
+    @DisplayName("ChangeLog read while writing")
+    public void readWhileWriting() throws InterruptedException {
+        ChangeLog log = new ChangeLog(8);
+        int count = 100_000;
+
+        // Each change has its sequence number as its tick and cell, so a torn read shows up as a mismatch
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < count; i++) {
+                log.append(i, ChangeLog.Type.SEGMENT_ADDED, i, i & 1);
+                if ((i & 63) == 0) { Thread.yield(); }
+            }
+        });
+        writer.start();
+
+        long next = 0;
+        while (writer.isAlive() || next < log.end()) {
+            if (next >= log.end()) { Thread.yield(); continue; }
+            long tick = log.tick(next);
+            int cell = log.cell(next);
+            int arg = log.arg(next);
+            if (log.isAvailable(next)) {
+                assertEquals(next, tick, "An available change should have its own tick");
+                assertEquals(next, cell, "An available change should have its own cell");
+                assertEquals(next & 1, arg, "An available change should have its own argument");
+                next++;
+            }
+            else {
+                next = log.start();
+            }
+        }
+        writer.join();
+        assertEquals(count, next, "The reader should catch up with the writer");
+    }
+
+}
@@ -0,0 +1,100 @@
+package com.sakariaslilja.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.sakariaslilja.datastructures.CubeTemplate;
+import com.sakariaslilja.datastructures.DoubleVector3D;
+import com.sakariaslilja.datastructures.VertexBuffer;
+
+/**
+ * Benchmarks for sorting cube entities by depth.
+ * Run with: mvn test -Pbenchmark
+ */
+public class DepthSorterBenchmarks {
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 20;
+
+    // Results are accumulated so the JIT can't remove the measured calls
+    private static long sink = 0;
+
+    // Farther cubes first by the depth of their first vertex, like the renderer used to sort
+    private static final Comparator<Object> VERTEX_ZERO_ORDER = (o1, o2) -> {
+        double z1 = vertices(o1).get(0).getZ();
+        double z2 = vertices(o2).get(0).getZ();
+        return Double.compare(z2, z1);
+    };
+
+    @SuppressWarnings("unchecked")
+    private static ArrayList<DoubleVector3D> vertices(Object entity) { return (ArrayList<DoubleVector3D>) entity; }
+
+    /**
+     * @param buffer The buffer of cubes
+     * @return The cubes as lists of their vertices, like the renderer used to sort
+     */
+    private static Object[] vertexLists(VertexBuffer buffer) {
+        Object[] entities = new Object[buffer.cubeCount()];
+        for (int cube = 0; cube < entities.length; cube++) {
+            ArrayList<DoubleVector3D> vertices = new ArrayList<>();
+            for (int i = cube * CubeTemplate.VERTICES; i < (cube + 1) * CubeTemplate.VERTICES; i++) {
+                vertices.add(new DoubleVector3D(buffer.x()[i], buffer.y()[i], buffer.z()[i]));
+            }
+            entities[cube] = vertices;
+        }
+        return entities;
+    }
+
+    /**
+     * Moves every cube slightly, like the snake moves between frames.
+     * @param buffer The buffer of cubes
+     * @param random The random generator
+     */
+    private static void jitter(VertexBuffer buffer, Random random) {
+        for (int cube = 0; cube < buffer.cubeCount(); cube++) {
+            double dz = 0.01 * random.nextGaussian();
+            for (int i = cube * CubeTemplate.VERTICES; i < (cube + 1) * CubeTemplate.VERTICES; i++) { buffer.z()[i] += dz; }
+        }
+    }
+
+    @Test
+    @DisplayName("Benchmark: depth sort by entity count")
+    public void sortByEntityCount() {
+        for (int entities : new int[] {10_000, 30_000, 100_000}) {
+            Random random = new Random(entities);
+            VertexBuffer buffer = new VertexBuffer();
+            for (int i = 0; i < entities; i++) {
+                buffer.addCube(100 * random.nextDouble(), 100 * random.nextDouble(), 100 * random.nextDouble(), 1);
+            }
+
+            Object[] lists = vertexLists(buffer);
+            DepthSorter sorter = new DepthSorter();
+
+            long comparatorTime = 0;
+            long sorterTime = 0;
+            for (int round = -WARMUP_ROUNDS; round < ROUNDS; round++) {
+                Object[] copy = lists.clone();
+                long start = System.nanoTime();
+                Arrays.parallelSort(copy, VERTEX_ZERO_ORDER);
+                long middle = System.nanoTime();
+                sink += sorter.sort(buffer)[0];
+                long end = System.nanoTime();
+
+                if (round >= 0) {
+                    comparatorTime += middle - start;
+                    sorterTime += end - middle;
+                }
+                jitter(buffer, random);
+            }
+
+            System.out.printf("%d entities: comparator sort %.3f ms, depth sorter %.3f ms%n",
+                entities, comparatorTime / 1e6 / ROUNDS, sorterTime / 1e6 / ROUNDS);
+        }
+    }
+
+}
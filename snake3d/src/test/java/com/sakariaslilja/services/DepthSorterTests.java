@@ -0,0 +1,72 @@
+package com.sakariaslilja.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.sakariaslilja.datastructures.CubeTemplate;
+import com.sakariaslilja.datastructures.VertexBuffer;
+
+public class DepthSorterTests {
+
+    /**
+     * Checks that the cubes are ordered by the depth of their centers, the farthest first.
+     * @param buffer The buffer of cubes
+     * @param order The order of the cubes
+     */
+    private void assertSorted(VertexBuffer buffer, int[] order) {
+        boolean[] seen = new boolean[buffer.cubeCount()];
+        double previous = Double.POSITIVE_INFINITY;
+
+        for (int i = 0; i < buffer.cubeCount(); i++) {
+            int cube = order[i];
+            assertTrue(!seen[cube], "Every cube should be ordered once");
+            seen[cube] = true;
+
+            // The cubes of the buffer have unit size, so the center is half a unit deeper than the corner
+            double depth = buffer.z()[cube * CubeTemplate.VERTICES] + 0.5;
+            assertTrue(depth <= previous, "The cubes should be ordered by depth, the farthest first");
+            previous = depth;
+        }
+    }
+
+    @Test
+    @DisplayName("DepthSorter sort")
+    public void sort() {
+        Random random = new Random(3);
+        VertexBuffer buffer = new VertexBuffer();
+        for (int i = 0; i < 5000; i++) {
+            buffer.addCube(random.nextDouble(), random.nextDouble(), 200 * random.nextDouble() - 100, 1);
+        }
+
+        DepthSorter sorter = new DepthSorter();
+        assertSorted(buffer, sorter.sort(buffer));
+
+        // Slightly moved cubes use the previous order
+        for (int i = 0; i < buffer.vertexCount(); i++) { buffer.z()[i] += 0.001 * (i / CubeTemplate.VERTICES % 7); }
+        assertSorted(buffer, sorter.sort(buffer));
+
+        // A changed number of cubes starts from scratch
+        buffer.addCube(0, 0, 0, 1);
+        assertSorted(buffer, sorter.sort(buffer));
+    }
+
+    @Test
+    @DisplayName("DepthSorter depthKey")
+    public void depthKey() {
+        double[] depths = {100, 2.5, 0.001, 0, -0.001, -3, -100};
+
+        for (int i = 1; i < depths.length; i++) {
+            int farther = DepthSorter.depthKey(depths[i - 1]);
+            int closer = DepthSorter.depthKey(depths[i]);
+            assertTrue(Integer.compareUnsigned(farther, closer) < 0, "Farther depths should have smaller keys");
+        }
+
+        assertEquals(DepthSorter.depthKey(1), DepthSorter.depthKey(1), "Equal depths should have equal keys");
+    }
+
+}
@@ -0,0 +1,34 @@
+package com.sakariaslilja.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class FixedTimestepTests {
+
+    @Test
+    @DisplayName("FixedTimestep advance")
+    public void advance() {
+        FixedTimestep timestep = new FixedTimestep(10, 4);
+
+        assertEquals(0, timestep.advance(1000), "The first call should only start the clock");
+        assertEquals(0, timestep.advance(1005), "Less than a tick should run no ticks");
+        assertEquals(0.5, timestep.alpha(), "Half a tick should have passed");
+        assertEquals(2, timestep.advance(1022), "The time passed should be spent on whole ticks");
+        assertEquals(0.2, timestep.alpha(), 0.000000001, "The time left over should carry over");
+        assertEquals(1, timestep.advance(1030), "The time left over should count towards the next tick");
+    }
+
+    @Test
+    @DisplayName("FixedTimestep catch-up cap")
+    public void catchUpCap() {
+        FixedTimestep timestep = new FixedTimestep(10, 4);
+        timestep.advance(0);
+
+        assertEquals(4, timestep.advance(1003), "At most the maximum number of ticks should run");
+        assertEquals(0.3, timestep.alpha(), 0.000000001, "Whole ticks beyond the maximum should be dropped");
+        assertEquals(0, timestep.advance(1005), "Dropped ticks shouldn't run later");
+    }
+
+}
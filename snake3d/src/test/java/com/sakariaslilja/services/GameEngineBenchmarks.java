@@ -0,0 +1,184 @@
+package com.sakariaslilja.services;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.sakariaslilja.IConstants;
+import com.sakariaslilja.datastructures.Vector3D;
+import com.sakariaslilja.entities.Apple;
+import com.sakariaslilja.entities.Turn;
+import com.sakariaslilja.models.GameModel;
+
+/**
+ * Benchmarks for the game engine.
+ * Run with: mvn test -Pbenchmark
+ */
+public class GameEngineBenchmarks implements IConstants {
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 200_000;
+
+    // Results are accumulated so the JIT can't remove the measured calls
+    private static int sink = 0;
+
+    /**
+     * @param size The width, height and depth of the world
+     * @return A new engine with a cubic world
+     */
+    private static GameEngine engine(int size) {
+        GameModel model = new GameModel();
+        model.worldWidth = size;
+        model.worldHeight = size;
+        model.worldDepth = size;
+        return new GameEngine(model);
+    }
+
+    /**
+     * Moves the snake and checks for collisions each tick.
+     * The snake turns at every cell, so it circles in place
+     * and each check looks at a different cell.
+     * @param engine The engine to measure
+     * @param rounds The number of ticks to run
+     * @return The average nanoseconds of a tick
+     */
+    private static double collisionCheckNanos(GameEngine engine, int rounds) {
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            engine.moveSnake();
+            if (engine.getSnakeBody().isGridAligned()) { engine.turnSnake(Turn.R); }
+            sink += engine.checkSnakeCollisions() ? 1 : 0;
+        }
+        return (System.nanoTime() - start) / (double) rounds;
+    }
+
+    /**
+     * Steps fresh engines headless until they have run enough ticks.
+     * The snake zigzags right and left, so the engine rotates the world,
+     * moves the snake and spawns apples. A new game starts when the snake dies.
+     * @param rounds The number of ticks to run
+     * @param profiling If the engines profile their ticks
+     * @return The ticks per second, counting only the time spent stepping
+     */
+    private static double stepTicksPerSecond(int rounds, boolean profiling) {
+        long nanos = 0;
+        long ticks = 0;
+        while (ticks < rounds) {
+            GameEngine engine = engine(MAX_WORLD_SIZE);
+            engine.setProfiling(profiling);
+            long start = System.nanoTime();
+            boolean right = true;
+            while (!engine.isGameOver() && ticks < rounds) {
+                engine.handleInput(right ? Input.RIGHT : Input.LEFT);
+                right = !right;
+                long before = engine.getTick();
+                engine.step(1000);
+                ticks += engine.getTick() - before;
+            }
+            nanos += System.nanoTime() - start;
+            sink += engine.getScore();
+        }
+        return ticks * 1e9 / nanos;
+    }
+
+    /**
+     * @return The bytes of heap in use after a garbage collection
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) { System.gc(); }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    @Test
+    @DisplayName("Benchmark: engine startup time and heap footprint by world size")
+    public void startupByWorldSize() {
+        int[] sizes = {MIN_WORLD_SIZE, MAX_WORLD_SIZE / 2, MAX_WORLD_SIZE};
+        for (int i = 0; i < WARMUP_ROUNDS; i++) { engine(MAX_WORLD_SIZE); }
+
+        for (int size : sizes) {
+            long heapBefore = usedHeap();
+            long start = System.nanoTime();
+            GameEngine engine = engine(size);
+            double millis = (System.nanoTime() - start) / 1e6;
+            long heapAfter = usedHeap();
+            sink += engine.gridPositionCount();
+
+            System.out.printf("GameEngine startup %d^3: %.2f ms, %.1f KiB heap%n", size, millis, (heapAfter - heapBefore) / 1024.0);
+        }
+    }
+
+    @Test
+    @DisplayName("Benchmark: headless engine ticks per second")
+    public void headlessStep() {
+        stepTicksPerSecond(WARMUP_ROUNDS * ROUNDS * 10, false);
+        double ticksPerSecond = stepTicksPerSecond(ROUNDS * 10, false);
+        System.out.printf("GameEngine step %d^3: %.2f M ticks/s%n", MAX_WORLD_SIZE, ticksPerSecond / 1e6);
+    }
+
+    @Test
+    @DisplayName("Benchmark: tick phases and the cost of profiling")
+    public void profiledStep() {
+        stepTicksPerSecond(WARMUP_ROUNDS * ROUNDS * 10, true);
+        double off = stepTicksPerSecond(ROUNDS * 10, false);
+        double on = stepTicksPerSecond(ROUNDS * 10, true);
+        System.out.printf("GameEngine step %d^3: %.2f M ticks/s unprofiled, %.2f M ticks/s profiled%n", MAX_WORLD_SIZE, off / 1e6, on / 1e6);
+
+        // One game with the zigzag of the step benchmark, for its phases
+        GameEngine engine = engine(MAX_WORLD_SIZE);
+        engine.setProfiling(true);
+        boolean right = true;
+        while (!engine.isGameOver() && engine.getTick() < ROUNDS * 10) {
+            engine.handleInput(right ? Input.RIGHT : Input.LEFT);
+            right = !right;
+            engine.step(1000);
+        }
+        System.out.print(engine.getProfiler());
+    }
+
+    @Test
+    @DisplayName("Benchmark: apple collision check cost per tick by apple count")
+    public void appleCollisionByAppleCount() {
+        int[] counts = {1, 100, 10_000};
+        double[] nanos = new double[counts.length];
+
+        for (int c = 0; c < counts.length; c++) {
+            GameEngine engine = engine(MAX_WORLD_SIZE);
+            ArrayList<Apple> apples = new ArrayList<>();
+            for (int i = 0; i < counts[c]; i++) {
+                // Apples fill the far layers, out of the snake's way
+                int x = i % MAX_WORLD_SIZE, y = (i / MAX_WORLD_SIZE) % MAX_WORLD_SIZE, z = MAX_WORLD_SIZE - 1 - i / (MAX_WORLD_SIZE * MAX_WORLD_SIZE);
+                apples.add(new Apple(new Vector3D(x, y, z).mul(UNIT).add(new Vector3D(500, 500, 500))));
+            }
+            engine.setApples(apples);
+
+            for (int i = 0; i < WARMUP_ROUNDS * ROUNDS; i++) { sink += engine.checkAppleCollisions() ? 1 : 0; }
+            long start = System.nanoTime();
+            for (int i = 0; i < ROUNDS; i++) { sink += engine.checkAppleCollisions() ? 1 : 0; }
+            nanos[c] = (System.nanoTime() - start) / (double) ROUNDS;
+            System.out.printf("checkAppleCollisions %d apples: %.1f ns/tick%n", counts[c], nanos[c]);
+        }
+
+        assertTrue(nanos[counts.length - 1] < 10 * nanos[0], "The apple check should not scale with the number of apples");
+    }
+
+    @Test
+    @DisplayName("Benchmark: collision check cost per tick by world volume")
+    public void collisionCheckByWorldVolume() {
+        int[] sizes = {MIN_WORLD_SIZE, MAX_WORLD_SIZE / 2, MAX_WORLD_SIZE};
+        double[] nanos = new double[sizes.length];
+
+        for (int i = 0; i < sizes.length; i++) {
+            GameEngine engine = engine(sizes[i]);
+            collisionCheckNanos(engine, WARMUP_ROUNDS * ROUNDS);
+            nanos[i] = collisionCheckNanos(engine, ROUNDS);
+            System.out.printf("checkSnakeCollisions %d^3: %.1f ns/tick%n", sizes[i], nanos[i]);
+        }
+
+        assertTrue(nanos[sizes.length - 1] < 10 * nanos[0], "The collision check should not scale with world volume");
+    }
+
+}
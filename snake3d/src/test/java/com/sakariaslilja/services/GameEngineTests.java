@@ -3,20 +3,26 @@ package com.sakariaslilja.services;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.HashSet;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import com.sakariaslilja.IConstants;
+import com.sakariaslilja.datastructures.DoubleVector3D;
 import com.sakariaslilja.datastructures.Heading;
+import com.sakariaslilja.datastructures.Quaternion;
 import com.sakariaslilja.datastructures.Vector3D;
 import com.sakariaslilja.entities.Apple;
 import com.sakariaslilja.entities.Snake;
 import com.sakariaslilja.entities.Turn;
 import com.sakariaslilja.models.GameModel;
+import com.sakariaslilja.models.KeyframeModel;
 
 public class GameEngineTests implements IConstants {
 
@@ -43,25 +49,6 @@ public class GameEngineTests implements IConstants {
         assertNotEquals(model.score, createdModel.score, "The score should be different after incrementation");
     }
 
-    @Test
-    @DisplayName("GameEngine getAvailableGridPositions")
-    public void getAvailableGridPositions() {
-        GameEngine engine = new GameEngine(new GameModel());
-        Vector3D position = new Vector3D(0, 0, 0);
-
-        ArrayList<Vector3D> apples = new ArrayList<>();
-        ArrayList<Vector3D> allPositions = engine.getAvailableGridPositions(apples);
-
-        Apple apple = new Apple(position);
-        apples.add(apple.getGridPos());
-        ArrayList<Vector3D> appleOccupied = engine.getAvailableGridPositions(apples);
-
-        assertNotEquals(allPositions.size(), appleOccupied.size(), "Passing elements to remove should remove said elements");
-        int index = allPositions.indexOf(position);
-        assertNotEquals(-1, index, "The position should exist in the original array");
-        assertNotEquals(allPositions.get(index), appleOccupied.get(index), "The position at the deleted index should not be the same");
-    }
-
     @Test
     @DisplayName("GameEngine apple count")
     public void appleCount() {
@@ -143,6 +130,27 @@ public class GameEngineTests implements IConstants {
         assertEquals(worldSize, engine.countApples(), "The number of apples should not exceed world size");
     }
 
+    @Test
+    @DisplayName("GameEngine seeded spawnApple")
+    public void seededSpawnApple() {
+        GameModel model = new GameModel();
+        GameEngine engine1 = new GameEngine(model);
+        GameEngine engine2 = new GameEngine(model);
+
+        int limit = model.worldWidth * model.worldHeight * model.worldDepth;
+        for (int i = 0; i < limit; i++) {
+            engine1.spawnApple(limit);
+            engine2.spawnApple(limit);
+        }
+
+        assertEquals(limit - 1, engine1.countApples(), "Every cell without the snake should have an apple");
+        for (int i = 0; i < engine1.countApples(); i++) {
+            Vector3D expected = engine1.getApples().get(i).getGridPos();
+            assertEquals(expected, engine2.getApples().get(i).getGridPos(), "Games with the same seed should spawn the same apples");
+            assertNotEquals(engine1.getSnake().get(0).getGridPos(), expected, "Apples should not spawn on the snake");
+        }
+    }
+
     @Test
     @DisplayName("GameEngine pause")
     public void pauseGame() {
@@ -168,8 +176,11 @@ public class GameEngineTests implements IConstants {
         snake.add(snakeHead);
 
         engine.setSnake(snake);
-        
-        assertEquals(snakeHead, engine.getSnake().get(0));
+
+        Snake engineHead = engine.getSnake().get(0);
+        assertEquals(snakeHead.getGridPos(), engineHead.getGridPos(), "The head should be in the same cell");
+        assertEquals(snakeHead.getHeading(), engineHead.getHeading(), "The head should have the same heading");
+        assertEquals(snakeHead.getNormal(), engineHead.getNormal(), "The head should have the same normal");
     }
 
     @Test
@@ -194,8 +205,8 @@ public class GameEngineTests implements IConstants {
     }
 
     @Test
-    @DisplayName("GameEngine applyTurns")
-    public void applyTurns() {
+    @DisplayName("GameEngine turnSnake")
+    public void turnSnake() {
         GameEngine engine = new GameEngine(new GameModel());
 
         Vector3D snakePos = new Vector3D(0, 1, 2).mul(UNIT / 2).add(new Vector3D(500, 500, 500));
@@ -206,39 +217,37 @@ public class GameEngineTests implements IConstants {
 
         engine.setSnake(snake);
         engine.growSnake();
+        engine.turnSnake(Turn.D);
 
         ArrayList<Snake> gameSnake = engine.getSnake();
 
-        for (Snake s : gameSnake) { s.setTurn(Turn.D); }
-
-        engine.applyTurns();
-
-        gameSnake = engine.getSnake();
-        for (Snake s : gameSnake) {
-            assertEquals(Heading.DOWN.vec, s.getHeading(),"The turns should be applied correctly");
-        }
+        assertEquals(Heading.DOWN.vec, gameSnake.get(0).getHeading(), "The turn should be applied to the head");
+        assertEquals(Turn.D, gameSnake.get(1).getTurn(), "The next segment should take the same turn");
     }
 
     @Test
-    @DisplayName("GameEngine propagateTurns")
-    public void propagateTurns() {
+    @DisplayName("GameEngine turns follow the head")
+    public void turnsFollowHead() {
         GameEngine engine = new GameEngine(new GameModel());
 
         Vector3D snakePos = new Vector3D(0, 1, 2).mul(UNIT / 2).add(new Vector3D(500, 500, 500));
         Snake snakeHead = new Snake(snakePos, Heading.FORWARD, Heading.UP);
-        
+
         ArrayList<Snake> snake = new ArrayList<>();
         snake.add(snakeHead);
 
         engine.setSnake(snake);
         engine.growSnake();
-        snakeHead.setTurn(Turn.D);
-        engine.propagateTurns();
+        engine.turnSnake(Turn.D);
+
+        for (int step = 0; step < UNIT / STEP_SIZE; step++) { engine.moveSnake(); }
 
         ArrayList<Snake> gameSnake = engine.getSnake();
 
-        assertEquals(Turn.N, gameSnake.get(0).getTurn(), "The head's next move should be reset");
-        assertEquals(Turn.D, gameSnake.get(1).getTurn(), "The next turn should have propagated to the next one");
+        assertEquals(snakeHead.getGridPos().add(Heading.DOWN.vec), gameSnake.get(0).getGridPos(), "The head should have moved down");
+        assertEquals(snakeHead.getGridPos(), gameSnake.get(1).getGridPos(), "The next segment should take the head's place");
+        assertEquals(Heading.DOWN.vec, gameSnake.get(1).getHeading(), "The next segment should have turned where the head turned");
+        assertEquals(Turn.N, gameSnake.get(1).getTurn(), "The turn should not be taken twice");
     }
 
     @Test
@@ -262,6 +271,7 @@ public class GameEngineTests implements IConstants {
         snakeHead.setPosition(new Vector3D(-2, 0, 0).mul(UNIT / 2).add(new Vector3D(500, 500, 500)));
         snake.clear();
         snake.add(snakeHead);
+        engine.setSnake(snake);
 
         assertTrue(engine.checkSnakeCollisions(), "Player should not be allowed out of bounds");
     }
@@ -284,14 +294,35 @@ public class GameEngineTests implements IConstants {
         engine.setSnake(snake);
         engine.setApples(apples);
 
-        snake = engine.getSnake();
-
         assertEquals(1, engine.countApples(), "There should be an apple present to start");
-        assertEquals(1, snake.size(), "There should be a snake of length one at start");
+        assertEquals(1, engine.getSnake().size(), "There should be a snake of length one at start");
         assertTrue(engine.checkAppleCollisions(), "The apple should be collided with");
         assertEquals(0, engine.countApples(), "The apple should be removed when eaten");
         assertEquals(1, engine.getScore(), "The score should increment properly");
-        assertEquals(2, snake.size(), "The snake should've grown");
+        assertEquals(2, engine.getSnake().size(), "The snake should've grown");
+    }
+
+    @Test
+    @DisplayName("GameEngine eating keeps the other apples")
+    public void eatingKeepsOtherApples() {
+        GameEngine engine = new GameEngine(new GameModel());
+        Vector3D offset = new Vector3D(500, 500, 500);
+        ArrayList<Apple> apples = new ArrayList<>();
+        for (int i = 0; i < 3; i++) { apples.add(new Apple(new Vector3D(i, i, 4).mul(UNIT).add(offset))); }
+        Apple first = apples.get(0), last = apples.get(2);
+        engine.setApples(apples);
+
+        // Eats the middle apple, then the last one from its new position
+        for (int i : new int[] {1, 2}) {
+            ArrayList<Snake> snake = new ArrayList<>();
+            snake.add(new Snake(new Vector3D(i, i, 4).mul(UNIT).add(offset), Heading.FORWARD, Heading.UP));
+            engine.setSnake(snake);
+            assertTrue(engine.checkAppleCollisions(), "The apple in the head's cell should be eaten");
+        }
+
+        assertEquals(1, engine.countApples(), "Only the eaten apples should be removed");
+        assertEquals(first, engine.getApples().get(0), "The uneaten apple should stay");
+        assertFalse(engine.getApples().contains(last), "The moved apple should be found when eaten");
     }
 
     @Test
@@ -303,5 +334,227 @@ public class GameEngineTests implements IConstants {
         GameModel gameModel = game.toGameModel();
         assertEquals(oldSize + 1, gameModel.snake.length, "The growth should be present in the new game model");
     }
-    
+
+    @Test
+    @DisplayName("GameEngine interpolation")
+    public void interpolation() {
+        GameEngine engine = new GameEngine(new GameModel());
+        DoubleVector3D before = engine.camera();
+        assertEquals(before, engine.camera(0.5), "A new engine should have nothing to interpolate");
+
+        engine.update();
+        DoubleVector3D after = engine.camera();
+        DoubleVector3D halfway = engine.camera(0.5);
+        double error = 0.000000001;
+        assertEquals(0.5 * (before.getX() + after.getX()), halfway.getX(), error, "The camera should be halfway between the ticks");
+        assertEquals(0.5 * (before.getY() + after.getY()), halfway.getY(), error, "The camera should be halfway between the ticks");
+        assertEquals(0.5 * (before.getZ() + after.getZ()), halfway.getZ(), error, "The camera should be halfway between the ticks");
+        assertEquals(0.5 * STEP_SIZE, engine.snakeLag(0.5), "The snake should lag half a step behind");
+        assertEquals(0, engine.snakeLag(1), "The snake shouldn't lag behind after the last tick");
+
+        engine.togglePause();
+        engine.update();
+        assertEquals(engine.camera(), engine.camera(0.5), "A paused engine should have nothing to interpolate");
+        assertEquals(0, engine.snakeLag(0.5), "A paused snake shouldn't lag behind");
+    }
+
+    @Test
+    @DisplayName("GameEngine queued turns")
+    public void queuedTurns() {
+        GameEngine engine = new GameEngine(new GameModel());
+        Heading heading = engine.getSnakeBody().heading(0);
+
+        // The second turn is pressed while the first one is still waiting
+        engine.handleInput(Input.RIGHT);
+        engine.update();
+        engine.handleInput(Input.LEFT);
+
+        int ticksPerCell = UNIT / STEP_SIZE;
+        int ticksPerTurn = 90 / ROTATION_SPEED;
+        for (int i = 0; i < 2 * ticksPerCell + 2 * ticksPerTurn; i++) { engine.update(); }
+
+        LatencyStats latency = engine.getTurnLatency();
+        assertEquals(2, latency.count(), "Both turns should be taken");
+        assertEquals(heading, engine.getSnakeBody().heading(0), "Turning right and then left should keep the heading");
+        assertEquals(2 * (ticksPerCell + ticksPerTurn) - 1, latency.last(), "The second turn should wait for the next cell");
+    }
+
+    @Test
+    @DisplayName("GameEngine step")
+    public void step() {
+        GameEngine updated = new GameEngine(new GameModel());
+        GameEngine stepped = new GameEngine(new GameModel());
+        updated.handleInput(Input.RIGHT);
+        stepped.handleInput(Input.RIGHT);
+
+        for (int i = 0; i < 100; i++) { updated.update(); }
+        stepped.step(100);
+
+        assertEquals(100, stepped.getTick(), "Stepping should run every tick");
+        assertEquals(updated.camera(), stepped.camera(), "Stepping should be the same as updating");
+        assertEquals(updated.quaternion(), stepped.quaternion(), "Stepping should be the same as updating");
+
+        stepped.handleInput(Input.PAUSE);
+        stepped.step(100);
+        assertEquals(100, stepped.getTick(), "A paused engine shouldn't tick");
+    }
+
+    @Test
+    @DisplayName("GameEngine listener")
+    public void listener() {
+        GameEngine engine = new GameEngine(new GameModel());
+        int[] deaths = {0};
+        engine.setListener(() -> deaths[0]++);
+
+        // The snake heads straight out of the world
+        engine.step(10 * UNIT / STEP_SIZE);
+
+        assertTrue(engine.isGameOver(), "The snake should leave the world");
+        assertEquals(1, deaths[0], "The listener should be told once about the player's death");
+    }
+
+    @Test
+    @DisplayName("GameEngine keyframe and restore")
+    public void keyframe() {
+        GameModel model = new GameModel();
+        GameEngine engine = new GameEngine(model);
+        engine.handleInput(Input.RIGHT);
+        engine.step(60);
+        engine.handleInput(Input.UP);
+        engine.handleInput(Input.LEFT);
+
+        GameEngine restored = new GameEngine(model);
+        restored.restore(engine.keyframe());
+        assertEquals(engine.stateHash(), restored.stateHash(), "A restored engine should be in the saved state");
+        assertEquals(engine.getApples().size(), restored.getApples().size(), "A restored engine should have the saved apples");
+
+        engine.step(200);
+        restored.step(200);
+        assertEquals(engine.stateHash(), restored.stateHash(), "A restored engine should continue like the saved engine");
+        assertEquals(engine.camera(), restored.camera(), "A restored engine should continue like the saved engine");
+    }
+
+    @Test
+    @DisplayName("GameEngine stateHash covers the random state and queued turns")
+    public void stateHashCoversRandomAndTurns() {
+        GameModel model = new GameModel();
+        GameEngine engine = new GameEngine(model);
+        GameEngine other = new GameEngine(model);
+        assertEquals(engine.stateHash(), other.stateHash(), "Games in the same state should have the same hash");
+
+        KeyframeModel keyframe = engine.keyframe();
+        keyframe.random++;
+        other.restore(keyframe);
+        assertNotEquals(engine.stateHash(), other.stateHash(), "The random generator's position should change the hash");
+
+        other.restore(engine.keyframe());
+        engine.handleInput(Input.RIGHT);
+        other.handleInput(Input.LEFT);
+        assertNotEquals(engine.stateHash(), other.stateHash(), "The queued turns should change the hash");
+    }
+
+    @Test
+    @DisplayName("GameEngine turns snap the rotation")
+    public void turnsSnapRotation() {
+        GameEngine engine = new GameEngine(new GameModel());
+        int ticksPerCell = UNIT / STEP_SIZE;
+        int ticksPerTurn = 90 / ROTATION_SPEED;
+
+        engine.handleInput(Input.RIGHT);
+        engine.step(ticksPerCell + ticksPerTurn);
+        assertEquals(1, engine.getTurnLatency().count(), "The turn should be taken");
+        Quaternion expected = new Quaternion(Math.sqrt(0.5), 0, -Math.sqrt(0.5), 0);
+        assertEquals(expected, engine.quaternion(), "A completed turn should be exactly a quarter turn");
+
+        engine.handleInput(Input.LEFT);
+        engine.step(ticksPerCell + ticksPerTurn);
+        assertEquals(2, engine.getTurnLatency().count(), "The turn should be taken");
+        assertEquals(new Quaternion(1, 0, 0, 0), engine.quaternion(), "Turning back should be exactly no rotation");
+    }
+
+    @Test
+    @DisplayName("GameEngine change log")
+    public void changeLog() {
+        GameEngine engine = new GameEngine(new GameModel());
+        ChangeLog changes = engine.getChanges();
+        ArrayDeque<Integer> cells = new ArrayDeque<>();
+        HashSet<Integer> apples = new HashSet<>();
+        long next = changes.end();
+        mirror(engine, cells, apples);
+
+        Input[] zigzag = {Input.RIGHT, Input.LEFT, Input.UP, Input.DOWN};
+        int ticksPerCell = UNIT / STEP_SIZE;
+        for (int i = 0; !engine.isGameOver() && i < 50 * ticksPerCell; i++) {
+            if (i % (2 * ticksPerCell) == 0) { engine.handleInput(zigzag[i / (2 * ticksPerCell) % zigzag.length]); }
+            engine.update();
+
+            for (; next < changes.end(); next++) {
+                assertTrue(changes.isAvailable(next), "A consumer following every tick shouldn't fall behind");
+                int cell = changes.cell(next);
+                switch (changes.type(next)) {
+                    case SEGMENT_ADDED:
+                        if (changes.arg(next) == 0) { cells.addFirst(cell); }
+                        else { cells.addLast(cell); }
+                        break;
+                    case SEGMENT_REMOVED:
+                        assertEquals(cell, cells.removeLast(), "The removed segment should be the tail");
+                        break;
+                    case APPLE_SPAWNED:
+                        apples.add(cell);
+                        break;
+                    case APPLE_EATEN:
+                        apples.remove(cell);
+                        break;
+                    case ROTATED:
+                        assertEquals(cells.peekFirst(), cell, "A turn should be taken at the head");
+                        break;
+                    case RESET:
+                        mirror(engine, cells, apples);
+                        break;
+                }
+            }
+
+            ArrayDeque<Integer> expectedCells = new ArrayDeque<>();
+            HashSet<Integer> expectedApples = new HashSet<>();
+            mirror(engine, expectedCells, expectedApples);
+            assertEquals(new ArrayList<>(expectedCells), new ArrayList<>(cells), "The changes should rebuild the snake");
+            assertEquals(expectedApples, apples, "The changes should rebuild the apples");
+        }
+    }
+
+    /**
+     * Copies the full state of the engine's snake and apples.
+     */
+    private static void mirror(GameEngine engine, ArrayDeque<Integer> cells, HashSet<Integer> apples) {
+        cells.clear();
+        apples.clear();
+        for (int i = 0; i < engine.getSnakeBody().length(); i++) { cells.addLast(engine.getSnakeBody().cell(i)); }
+        for (Apple apple : engine.getApples()) { apples.add(apple.getCell()); }
+    }
+
+    @Test
+    @DisplayName("GameEngine profiling")
+    public void profiling() {
+        GameEngine engine = new GameEngine(new GameModel());
+        assertFalse(engine.isProfiling(), "Profiling should be off by default");
+        assertNull(engine.getProfiler(), "An engine that isn't profiling shouldn't have timings");
+
+        int ticksPerCell = UNIT / STEP_SIZE;
+        int ticksPerTurn = 90 / ROTATION_SPEED;
+        engine.setProfiling(true);
+        engine.handleInput(Input.RIGHT);
+        engine.step(ticksPerCell + ticksPerTurn);
+
+        TickProfiler profiler = engine.getProfiler();
+        for (TickProfiler.Phase phase : new TickProfiler.Phase[] {TickProfiler.Phase.MOVE, TickProfiler.Phase.APPLE_COLLISIONS,
+                TickProfiler.Phase.SPAWN_APPLE, TickProfiler.Phase.SNAKE_COLLISIONS}) {
+            assertEquals(ticksPerCell, profiler.histogram(phase).count(), "Every moving tick should time the phase");
+        }
+        assertEquals(ticksPerCell + ticksPerTurn, profiler.histogram(TickProfiler.Phase.TURNS).count(), "Every tick should time the turns");
+
+        engine.setProfiling(false);
+        engine.step(10);
+        assertNull(engine.getProfiler(), "Profiling should turn off");
+        assertEquals(ticksPerCell, profiler.histogram(TickProfiler.Phase.MOVE).count(), "An engine that isn't profiling shouldn't record timings");
+    }
 }
@@ -0,0 +1,77 @@
+package com.sakariaslilja.services;
+
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.sakariaslilja.datastructures.Heading;
+
+/**
+ * Benchmarks for the game server on the loopback address.
+ * Run with: mvn test -Pbenchmark
+ */
+public class GameServerBenchmarks {
+
+    private static final int WORLD_SIZE = 50;
+    private static final int BOTS = 200;
+    private static final int TICKS = 5_000;
+
+    /**
+     * Ticks the server as fast as it can with more and more clients,
+     * each read on its own thread, and measures the bytes sent per tick.
+     */
+    @Test
+    @DisplayName("Benchmark: server ticks and bytes by client count")
+    public void ticksByClients() throws Exception {
+        for (int clientCount : new int[] {1, 10, 100}) {
+            ArenaEngine arena = new ArenaEngine(WORLD_SIZE, WORLD_SIZE, WORLD_SIZE, BOTS, 1, null);
+            for (int i = 0; i < BOTS; i++) {
+                arena.spawnSnake(Heading.RIGHT, Heading.UP, new RandomInputPolicy(i, 0.2));
+            }
+            // No wait between ticks
+            GameServer server = new GameServer(arena, 0);
+            int port = server.bind(0);
+            Thread serverThread = new Thread(() -> {
+                try {
+                    server.run();
+                }
+                catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            serverThread.start();
+
+            ArrayList<Thread> readers = new ArrayList<>();
+            for (int i = 0; i < clientCount; i++) {
+                GameClient client = GameClient.connect(port);
+                Thread reader = new Thread(() -> {
+                    try {
+                        while (client.receive()) {}
+                        client.close();
+                    }
+                    catch (Exception e) {
+                        // The server dropped the client
+                    }
+                });
+                reader.start();
+                readers.add(reader);
+            }
+
+            long startTicks = server.getTicks();
+            long startBytes = server.getBytesSent();
+            long start = System.nanoTime();
+            while (server.getTicks() - startTicks < TICKS) { Thread.sleep(1); }
+            long ticks = server.getTicks() - startTicks;
+            long bytes = server.getBytesSent() - startBytes;
+            double seconds = (System.nanoTime() - start) / 1e9;
+            server.close();
+            serverThread.join();
+            for (Thread reader : readers) { reader.join(); }
+
+            System.out.printf("GameServer %d clients, %d bots: %.0f ticks/s, %.1f bytes/tick per client%n",
+                clientCount, BOTS, ticks / seconds, (double) bytes / ticks / clientCount);
+        }
+    }
+
+}
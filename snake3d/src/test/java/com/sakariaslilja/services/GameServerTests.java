@@ -0,0 +1,167 @@
+package com.sakariaslilja.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.sakariaslilja.datastructures.GridCell;
+import com.sakariaslilja.datastructures.Heading;
+import com.sakariaslilja.entities.Apple;
+import com.sakariaslilja.entities.SnakeBody;
+import com.sakariaslilja.entities.Turn;
+
+public class GameServerTests {
+
+    @Test
+    @DisplayName("DeltaProtocol varints")
+    public void varints() {
+        ByteBuffer buffer = ByteBuffer.allocate(32);
+        long[] values = {0, 1, 127, 128, 300, 1_000_000, Integer.MAX_VALUE};
+        for (long value : values) { DeltaProtocol.writeVarint(buffer, value); }
+        buffer.flip();
+        for (long value : values) { assertEquals(value, DeltaProtocol.readVarint(buffer), "A varint should read back as written"); }
+    }
+
+    @Test
+    @DisplayName("DeltaProtocol cell indices")
+    public void cellIndices() {
+        int cell = GridCell.pack(3, 4, 5);
+        int index = DeltaProtocol.index(cell, 7, 8);
+        assertEquals(3 + 4 * 7 + 5 * 7 * 8, index, "The index should be in the order of the world's cells");
+        assertEquals(cell, DeltaProtocol.cell(index, 7, 8), "The index should unpack to the cell");
+    }
+
+    @Test
+    @DisplayName("GameServer clients follow the arena")
+    public void clientsFollowArena() throws Exception {
+        ArenaEngine arena = new ArenaEngine(12, 12, 12, 10, 5, null);
+        arena.spawnSnake(Heading.FORWARD, Heading.UP, new RandomInputPolicy(1, 0.3));
+        GameServer server = new GameServer(arena, TimeUnit.MICROSECONDS.toNanos(200));
+        int port = server.bind(0);
+        Thread serverThread = new Thread(() -> {
+            try {
+                server.run();
+            }
+            catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        serverThread.start();
+
+        GameClient first = GameClient.connect(port);
+        GameClient second = GameClient.connect(port);
+        assertNotEquals(first.getSnake(), second.getSnake(), "Every client should get a snake of its own");
+        assertEquals(12, first.getWorldWidth(), "The welcome should tell the size of the world");
+
+        first.sendTurn(Turn.R);
+        while (first.getTick() < 2_000) { first.receive(); }
+        server.close();
+        serverThread.join();
+
+        // Every frame ticked before closing is still sent
+        while (first.receive()) {}
+        while (second.receive()) {}
+        first.close();
+        second.close();
+
+        for (GameClient client : new GameClient[] {first, second}) {
+            assertEquals(arena.getTick(), client.getTick(), "The client should have every tick");
+            for (int i = 0; i < arena.snakeCount(); i++) {
+                if (!arena.isAlive(i)) {
+                    assertNull(client.snakeCells(i), "A dead snake should be removed");
+                    continue;
+                }
+                SnakeBody body = arena.getSnakeBody(i);
+                List<Integer> cells = new ArrayList<>();
+                for (int j = 0; j < body.length(); j++) { cells.add(body.cell(j)); }
+                assertEquals(cells, client.snakeCells(i), "The client's snake should match the arena");
+            }
+            HashSet<Integer> apples = new HashSet<>();
+            for (Apple apple : arena.getApples()) { apples.add(apple.getCell()); }
+            assertEquals(apples, client.getApples(), "The client's apples should match the arena");
+        }
+
+        assertTrue(server.bytesPerTick() < 16, "An idle tick should cost a few bytes per client");
+    }
+
+    @Test
+    @DisplayName("GameServer joins a client's snake once")
+    public void joinsOnce() throws Exception {
+        ArenaEngine arena = new ArenaEngine(8, 8, 8, 2, 5, null);
+        GameServer server = new GameServer(arena, TimeUnit.MICROSECONDS.toNanos(200));
+        int port = server.bind(0);
+        Thread serverThread = new Thread(() -> {
+            try {
+                server.run();
+            }
+            catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        serverThread.start();
+
+        int snake = -1;
+        int joins = 0;
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            // The welcome and a few ticks after it
+            for (int frames = 0; frames < 10; frames++) {
+                ByteBuffer frame = readFrame(in);
+                while (frame.hasRemaining()) {
+                    int type = DeltaProtocol.type(frame.get());
+                    if (type == DeltaProtocol.WELCOME) {
+                        snake = (int) DeltaProtocol.readVarint(frame);
+                        for (int i = 0; i < 4; i++) { DeltaProtocol.readVarint(frame); }
+                    }
+                    else if (type == DeltaProtocol.JOINED) {
+                        if (DeltaProtocol.readVarint(frame) == snake) { joins++; }
+                        DeltaProtocol.readVarint(frame);
+                    }
+                    else {
+                        DeltaProtocol.readVarint(frame);
+                    }
+                }
+            }
+        }
+        finally {
+            server.close();
+            serverThread.join();
+        }
+
+        assertNotEquals(-1, snake, "The client should be welcomed");
+        assertEquals(1, joins, "The client's snake should join once");
+    }
+
+    /**
+     * Reads a frame prefixed with its varint length.
+     * @param in The stream to read from
+     * @return The payload of the frame
+     */
+    private static ByteBuffer readFrame(DataInputStream in) throws IOException {
+        int length = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.readByte();
+            length |= (b & 0x7F) << shift;
+            if (b >= 0) { break; }
+        }
+        byte[] payload = new byte[length];
+        in.readFully(payload);
+        return ByteBuffer.wrap(payload);
+    }
+
+}
@@ -1,7 +1,9 @@
 package com.sakariaslilja.services;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.File;
@@ -14,6 +16,7 @@ import org.junit.jupiter.api.Test;
 
 import com.sakariaslilja.App;
 import com.sakariaslilja.models.GameModel;
+import com.sakariaslilja.models.ReplayModel;
 
 public class GamesServiceTests {
     
@@ -54,4 +57,36 @@ public class GamesServiceTests {
         assertFalse(deletedSuccesfully, "The deleteGame method should work as expected");
     }
 
+    @Test
+    @DisplayName("GamesService save and delete replay")
+    public void saveReplayTest() {
+        ReplayModel replay = new ReplayModel();
+        replay.game.seed = 0;
+        replay.inputs = "AQI=";
+        replay.hash = 42;
+        GamesService.saveReplay(replay);
+        ArrayList<ReplayModel> savedReplays = GamesService.getReplays();
+        boolean savedSuccessfully = savedReplays.removeIf(r -> r.game.seed == 0l && r.inputs.equals("AQI=") && r.hash == 42);
+        assertTrue(savedSuccessfully, "The saveReplay method should work as expected");
+
+        GamesService.deleteReplay(0);
+        savedReplays = GamesService.getReplays();
+        boolean deletedSuccesfully = savedReplays.removeIf(r -> r.game.seed == 0l);
+        assertFalse(deletedSuccesfully, "The deleteReplay method should work as expected");
+    }
+
+    @Test
+    @DisplayName("GamesService save and delete snapshot")
+    public void saveSnapshotTest() {
+        GameModel model = new GameModel();
+        model.seed = 0;
+        byte[] snapshot = {1, 2, 3};
+        GamesService.saveGame(model);
+        GamesService.saveSnapshot(0, snapshot);
+        assertArrayEquals(snapshot, GamesService.getSnapshot(0), "The saveSnapshot method should work as expected");
+
+        GamesService.deleteGame(model);
+        assertNull(GamesService.getSnapshot(0), "Deleting a game should delete its snapshot");
+    }
+
 }
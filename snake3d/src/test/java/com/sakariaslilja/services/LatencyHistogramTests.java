@@ -0,0 +1,52 @@
+package com.sakariaslilja.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class LatencyHistogramTests {
+
+    @Test
+    @DisplayName("LatencyHistogram small values are exact")
+    public void smallValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 20; i++) { histogram.record(i); }
+
+        assertEquals(20, histogram.count(), "Every latency should be counted");
+        assertEquals(10, histogram.percentile(50), "Small latencies should have exact percentiles");
+        assertEquals(20, histogram.percentile(100), "The last percentile should be the largest latency");
+        assertEquals(20, histogram.max(), "The largest latency should be kept");
+    }
+
+    @Test
+    @DisplayName("LatencyHistogram percentiles")
+    public void percentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100_000; i++) { histogram.record(i); }
+
+        for (double percentile : new double[] {50, 90, 99, 99.9}) {
+            double expected = percentile * 1000;
+            double error = Math.abs(histogram.percentile(percentile) - expected) / expected;
+            assertTrue(error < 0.07, "A percentile should be within the precision of its bucket");
+        }
+        assertEquals(100_000, histogram.max(), "The largest latency should be kept");
+    }
+
+    @Test
+    @DisplayName("LatencyHistogram reset")
+    public void reset() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.percentile(50), "An empty histogram should have no latencies");
+        histogram.record(Long.MAX_VALUE);
+        histogram.record(-5);
+        assertEquals(0, histogram.percentile(50), "A negative latency should count as 0");
+        assertEquals(Long.MAX_VALUE, histogram.percentile(100), "The largest latency should fit a bucket");
+
+        histogram.reset();
+        assertEquals(0, histogram.count(), "A reset histogram should be empty");
+        assertEquals(0, histogram.max(), "A reset histogram should be empty");
+    }
+
+}
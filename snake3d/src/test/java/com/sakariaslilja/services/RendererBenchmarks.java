@@ -0,0 +1,94 @@
+package com.sakariaslilja.services;
+
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.sakariaslilja.IConstants;
+import com.sakariaslilja.datastructures.DoubleVector3D;
+import com.sakariaslilja.datastructures.Quaternion;
+import com.sakariaslilja.models.GameModel;
+
+/**
+ * Benchmarks for the renderer.
+ * Run with: mvn test -Pbenchmark
+ */
+public class RendererBenchmarks implements IConstants {
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int VERTICES = 100_000;
+    private static final int ROUNDS = 20;
+
+    // Results are accumulated so the JIT can't remove the measured calls
+    private static double sink = 0;
+
+    /**
+     * @return Vertices spread out in front of the camera
+     */
+    private static DoubleVector3D[] vertices() {
+        DoubleVector3D[] vertices = new DoubleVector3D[VERTICES];
+        for (int i = 0; i < VERTICES; i++) {
+            vertices[i] = new DoubleVector3D(i % 50, (i / 50) % 50, 1 + i / 2500);
+        }
+        return vertices;
+    }
+
+    /**
+     * @param vertices The vertices to transform
+     * @param transform The transform to apply to each vertex
+     * @return The number of vertices transformed per second
+     */
+    private static double verticesPerSecond(DoubleVector3D[] vertices, Consumer<DoubleVector3D> transform) {
+        DoubleVector3D vertex = new DoubleVector3D(0, 0, 0);
+        long start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            for (DoubleVector3D v : vertices) {
+                vertex.setX(v.getX());
+                vertex.setY(v.getY());
+                vertex.setZ(v.getZ());
+                transform.accept(vertex);
+                sink += vertex.getX();
+            }
+        }
+        return (double) ROUNDS * vertices.length / ((System.nanoTime() - start) / 1e9);
+    }
+
+    @Test
+    @DisplayName("Benchmark: vertices transformed per second")
+    public void vertexTransform() {
+        GameModel model = new GameModel();
+        model.qW = Math.cos(0.2);
+        model.qY = Math.sin(0.2);
+        GameEngine engine = new GameEngine(model);
+
+        // The matrices the renderer used to apply one by one to every vertex,
+        // without the screen centering which needs a window
+        Consumer<DoubleVector3D> perVertex = v -> {
+            DoubleVector3D offset = engine.camera().duplicate();
+            offset.neg();
+            v.add(offset);
+            engine.quaternion().applyRotation(v);
+            double oneOverZ = 1.0 / v.getZ();
+            v.setX(v.getX() * oneOverZ);
+            v.setY(v.getY() * oneOverZ);
+        };
+
+        ViewTransform view = new ViewTransform();
+        DoubleVector3D camera = engine.camera();
+        Quaternion q = engine.quaternion();
+        Consumer<DoubleVector3D> perFrame = v -> view.apply(v);
+
+        DoubleVector3D[] vertices = vertices();
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            verticesPerSecond(vertices, perVertex);
+            view.update(camera, q, 800, 400);
+            verticesPerSecond(vertices, perFrame);
+        }
+
+        System.out.printf("Per vertex matrices: %.1f M vertices/s%n", verticesPerSecond(vertices, perVertex) / 1e6);
+        view.update(camera, q, 800, 400);
+        System.out.printf("Per frame view transform: %.1f M vertices/s%n", verticesPerSecond(vertices, perFrame) / 1e6);
+    }
+
+}
@@ -1,59 +1,93 @@
 package com.sakariaslilja.services;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import java.util.ArrayList;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import com.sakariaslilja.datastructures.CubeTemplate;
 import com.sakariaslilja.datastructures.DoubleVector3D;
+import com.sakariaslilja.datastructures.Heading;
+import com.sakariaslilja.datastructures.Quaternion;
+import com.sakariaslilja.datastructures.Vector3D;
+import com.sakariaslilja.entities.Apple;
+import com.sakariaslilja.entities.Snake;
 import com.sakariaslilja.models.GameModel;
+import com.sun.management.ThreadMXBean;
 
 public class RendererTests {
 
-    // TODO: re-implement w/ correct camera
-    /*@Test
-    @DisplayName("Renderer translate")
-    public void renderTranslate() {
-        DoubleVector3D camera = new DoubleVector3D(1, 1, 1);
-        GameEngine engine = new GameEngine(new GameModel(), camera);
-        Renderer renderer = new Renderer(null, engine);
+    /**
+     * Renders a cube and counts the faces facing the camera.
+     * @param position The position of the cube
+     * @param camera The position of the camera
+     * @return The number of faces facing the camera
+     */
+    private int frontFaces(Vector3D position, DoubleVector3D camera) {
+        ViewTransform view = new ViewTransform();
+        view.update(camera, new Quaternion(1, 0, 0, 0), 800, 400);
 
-        DoubleVector3D vertex = new DoubleVector3D(0, 0, 0);
-        DoubleVector3D expected = new DoubleVector3D(-1, -1, -1);
+        ArrayList<DoubleVector3D> vertices = new Apple(position).getVertices();
+        vertices.forEach(view::apply);
 
-        assertEquals(expected, renderer.translate(vertex), "The translate method should work as expected");
-    }*/
+        int count = 0;
+        double[] xPoints = new double[4];
+        double[] yPoints = new double[4];
+        for (int[] face : CubeTemplate.FACES) {
+            for (int i = 0; i < face.length; i++) {
+                xPoints[i] = vertices.get(face[i]).getX();
+                yPoints[i] = vertices.get(face[i]).getY();
+            }
+            if (Renderer.isFrontFacing(xPoints, yPoints)) { count++; }
+        }
+        return count;
+    }
 
     @Test
-    @DisplayName("Renderer rotations")
-    public void renderRotations() {
-        GameModel model = new GameModel();
-        model.qW = 0;
-        model.qY = 1;
-        GameEngine engine = new GameEngine(model);
-        Renderer renderer = new Renderer(null, engine);
+    @DisplayName("Renderer back-face culling")
+    public void rendererBackFaceCulling() {
+        DoubleVector3D camera = new DoubleVector3D(0.5, 0.5, 0.5);
 
-        DoubleVector3D vertex = new DoubleVector3D(1, 2, 3);
-        renderer.rotate(vertex);
-        vertex.round();
-
-        DoubleVector3D expected = new DoubleVector3D(-1, 2, -3);
-
-        assertEquals(expected, vertex, "The rotate method should apply the matrices correctly");
+        assertEquals(1, frontFaces(new Vector3D(500, 500, 3500), camera), "Only the front face should face the camera");
+        assertEquals(2, frontFaces(new Vector3D(2500, 500, 3500), camera), "The front and left faces should face the camera");
+        assertEquals(3, frontFaces(new Vector3D(2500, 2500, 3500), camera), "The front, top and left faces should face the camera");
     }
 
     @Test
-    @DisplayName("Renderer perspectiveCorrection")
-    public void rendererPerspectiveCorrection() {
+    @DisplayName("Renderer snapshot allocation")
+    public void fillVertexBufferAllocation() {
+        int length = 10_000;
+        ArrayList<Snake> segments = new ArrayList<>();
+        for (int i = 0; i < length; i++) {
+            segments.add(new Snake(new Vector3D(500 + 1000 * (i % 100), 500 + 1000 * (i / 100), 500), Heading.FORWARD, Heading.UP));
+        }
+
         GameEngine engine = new GameEngine(new GameModel());
+        engine.setSnake(segments);
         Renderer renderer = new Renderer(null, engine);
 
-        DoubleVector3D vertex = new DoubleVector3D(8, -4, 2);
-        renderer.perspectiveCorrection(vertex);
+        GameSnapshot snapshot = new GameSnapshot();
+
+        // The first frames grow the vertex buffers
+        for (int i = 0; i < 5; i++) {
+            snapshot.capture(engine, 0);
+            renderer.fillVertexBuffer(snapshot, 0.5);
+        }
 
-        DoubleVector3D expected = new DoubleVector3D(4, -2, 2);
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < 10; i++) {
+            snapshot.capture(engine, 0);
+            renderer.fillVertexBuffer(snapshot, 0.5);
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
 
-        assertEquals(expected, vertex, "The perspective correction should work as expected");
+        assertTrue(allocated < length, "Capturing and filling the vertex buffer should allocate close to nothing, allocated " + allocated + " bytes");
     }
-    
 }
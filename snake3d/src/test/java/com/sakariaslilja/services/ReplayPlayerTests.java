@@ -0,0 +1,192 @@
+package com.sakariaslilja.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.sakariaslilja.IConstants;
+import com.sakariaslilja.models.GameModel;
+import com.sakariaslilja.models.ReplayModel;
+
+public class ReplayPlayerTests implements IConstants, Snake3DGson {
+
+    private static final int MAX_TICKS = 20_000;
+
+    /**
+     * Plays and records a game with a random policy.
+     * @param seed The seed of the game and its policy
+     * @return The engine of the finished game
+     */
+    private static GameEngine playGame(long seed, ReplayRecorder[] recorder) {
+        GameModel model = new GameModel();
+        model.seed = seed;
+        GameEngine engine = new GameEngine(model);
+        recorder[0] = new ReplayRecorder(engine, 500);
+        engine.setRecorder(recorder[0]);
+
+        InputPolicy policy = new RandomInputPolicy(seed, 0.5);
+        for (int i = 0; i < MAX_TICKS && !engine.isGameOver(); i++) {
+            Input input = policy.next(engine);
+            if (input != null) { engine.handleInput(input); }
+            engine.update();
+        }
+        return engine;
+    }
+
+    /**
+     * @param seed The seed of the game and its policy
+     * @return The replay of a game played with a random policy
+     */
+    private static ReplayModel record(long seed) {
+        ReplayRecorder[] recorder = new ReplayRecorder[1];
+        GameEngine engine = playGame(seed, recorder);
+        return recorder[0].finish(engine);
+    }
+
+    @Test
+    @DisplayName("ReplayPlayer play")
+    public void play() {
+        ReplayRecorder[] recorder = new ReplayRecorder[1];
+        GameEngine recorded = playGame(7, recorder);
+        ReplayModel replay = recorder[0].finish(recorded);
+
+        ReplayPlayer player = new ReplayPlayer(replay);
+        GameEngine replayed = player.play();
+
+        assertTrue(player.isFinished(), "The whole replay should be played");
+        assertTrue(player.matches(), "The replay should end in the recorded state");
+        assertEquals(recorded.stateHash(), replayed.stateHash(), "The replay should end in the recorded state");
+        assertEquals(gson.toJson(recorded.toGameModel()), gson.toJson(replayed.toGameModel()), "The replay should save the same game");
+        assertEquals(recorded.getTurnLatency().count(), replayed.getTurnLatency().count(), "The replay should take the same turns");
+    }
+
+    @Test
+    @DisplayName("ReplayPlayer pauses aren't recorded")
+    public void pauses() {
+        GameEngine engine = new GameEngine(new GameModel());
+        ReplayRecorder recorder = new ReplayRecorder(engine);
+        engine.setRecorder(recorder);
+
+        engine.handleInput(Input.RIGHT);
+        engine.step(10);
+        engine.handleInput(Input.PAUSE);
+        engine.step(10);
+        engine.handleInput(Input.PAUSE);
+        engine.step(100);
+
+        ReplayModel replay = recorder.finish(engine);
+        assertEquals(1, Base64.getDecoder().decode(replay.inputs).length, "Only the turn should be recorded");
+
+        ReplayPlayer player = new ReplayPlayer(replay);
+        player.play();
+        assertTrue(player.matches(), "The replay should end in the recorded state without the pauses");
+    }
+
+    @Test
+    @DisplayName("ReplayRecorder can't go back in time")
+    public void backInTime() {
+        GameEngine engine = new GameEngine(new GameModel());
+        ReplayRecorder recorder = new ReplayRecorder(engine);
+
+        recorder.record(10, Input.RIGHT);
+        recorder.record(10, Input.LEFT);
+        assertThrows(IllegalArgumentException.class, () -> recorder.record(5, Input.UP), "An input before the previous one should be rejected");
+    }
+
+    @Test
+    @DisplayName("ReplayPlayer rejects other versions")
+    public void otherVersion() {
+        ReplayModel replay = record(5);
+        replay.version = ReplayModel.VERSION - 1;
+
+        assertThrows(IllegalArgumentException.class, () -> new ReplayPlayer(replay), "A replay of another version should be rejected");
+        List<ReplayModel> failed = ReplayPlayer.verify(List.of(replay), 1);
+        assertEquals(1, failed.size(), "A replay of another version should fail verification");
+    }
+
+    @Test
+    @DisplayName("ReplayPlayer verify")
+    public void verify() {
+        List<ReplayModel> replays = new ArrayList<>();
+        for (long seed = 0; seed < 500; seed++) { replays.add(record(seed)); }
+
+        assertTrue(ReplayPlayer.verify(replays, 4).isEmpty(), "Every replay should end in its recorded state");
+
+        ReplayModel tampered = replays.get(42);
+        tampered.hash++;
+        List<ReplayModel> failed = ReplayPlayer.verify(replays, 4);
+        assertEquals(1, failed.size(), "Only the tampered replay should fail");
+        assertSame(tampered, failed.get(0), "The tampered replay should fail");
+    }
+
+    @Test
+    @DisplayName("ReplayPlayer replays are small")
+    public void size() {
+        ReplayModel replay = record(3);
+        ReplayPlayer player = new ReplayPlayer(replay);
+        player.play();
+
+        assertFalse(replay.inputs.isEmpty(), "The game should have turned");
+        long turns = player.getEngine().getTurnLatency().count();
+        assertTrue(replay.inputs.length() <= 4 * (turns + 4), "Each input should take a few characters");
+    }
+
+    @Test
+    @DisplayName("ReplayPlayer seek")
+    public void seek() {
+        GameModel model = new GameModel();
+        model.seed = 11;
+        model.worldWidth = 20;
+        model.worldHeight = 20;
+        model.worldDepth = 20;
+        GameEngine engine = new GameEngine(model);
+        ReplayRecorder recorder = new ReplayRecorder(engine, 100);
+        engine.setRecorder(recorder);
+
+        // Zigzags right and left every third cell, so the snake stays in the world for a while
+        int[] cells = {0};
+        InputPolicy policy = e -> {
+            if (e.getSnakeBody().progress() != STEP_SIZE || ++cells[0] % 3 != 0) { return null; }
+            return cells[0] % 6 == 0 ? Input.LEFT : Input.RIGHT;
+        };
+
+        // Remembers the state of every tick
+        ArrayList<Long> hashes = new ArrayList<>();
+        hashes.add(engine.stateHash());
+        while (!engine.isGameOver() && engine.getTick() < MAX_TICKS) {
+            Input input = policy.next(engine);
+            if (input != null) { engine.handleInput(input); }
+            engine.update();
+            hashes.add(engine.stateHash());
+        }
+        ReplayModel replay = recorder.finish(engine);
+        assertTrue(replay.ticks > 300, "The game should last a few keyframes");
+        assertEquals(replay.ticks / 100 + 1, replay.keyframes.size(), "Every 100th tick should have a keyframe");
+
+        ReplayPlayer player = new ReplayPlayer(replay);
+        long[] targets = {replay.ticks / 2, 5, replay.ticks, 250, 199, 200, 0, replay.ticks - 1, 1};
+        for (long target : targets) {
+            player.seek(target);
+            assertEquals(target, player.getEngine().getTick(), "The replay should seek to the tick");
+            assertEquals((long) hashes.get((int) target), player.getEngine().stateHash(), "The replay should be in the state of the tick");
+        }
+
+        player.seek(100);
+        player.fastForward(150);
+        assertEquals((long) hashes.get(250), player.getEngine().stateHash(), "Fast forwarding should play the replay forward");
+        player.rewind(60);
+        assertEquals((long) hashes.get(190), player.getEngine().stateHash(), "Rewinding should move the replay back");
+        player.seek(replay.ticks);
+        assertTrue(player.matches(), "Seeking to the end should end in the recorded state");
+    }
+
+}
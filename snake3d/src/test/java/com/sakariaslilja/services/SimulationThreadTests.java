@@ -0,0 +1,49 @@
+package com.sakariaslilja.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.sakariaslilja.models.GameModel;
+
+public class SimulationThreadTests {
+
+    /**
+     * Waits until the simulation has published a snapshot of the tick.
+     * @param simulation The simulation to wait for
+     * @param tick The tick to wait for
+     * @return The snapshot of the tick or a later one
+     */
+    private GameSnapshot awaitTick(SimulationThread simulation, long tick) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        GameSnapshot snapshot = simulation.snapshot();
+        while (snapshot.getTick() < tick && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+            snapshot = simulation.snapshot();
+        }
+        return snapshot;
+    }
+
+    @Test
+    @DisplayName("SimulationThread ticks and publishes snapshots")
+    public void ticks() throws InterruptedException {
+        GameEngine engine = new GameEngine(new GameModel());
+        SimulationThread simulation = new SimulationThread(engine);
+        assertEquals(0, simulation.snapshot().getTick(), "The initial state should be published");
+
+        simulation.start();
+        GameSnapshot snapshot = awaitTick(simulation, 5);
+        assertTrue(snapshot.getTick() >= 5, "The engine should tick on its own thread");
+
+        simulation.offer(Input.PAUSE);
+        Thread.sleep(50);
+        long paused = simulation.snapshot().getTick();
+        Thread.sleep(50);
+        assertEquals(paused, simulation.snapshot().getTick(), "A paused engine shouldn't advance");
+
+        simulation.stop();
+    }
+
+}
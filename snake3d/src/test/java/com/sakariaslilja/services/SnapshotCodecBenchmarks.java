@@ -0,0 +1,65 @@
+package com.sakariaslilja.services;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.sakariaslilja.models.GameModel;
+import com.sakariaslilja.models.SnakeModel;
+
+/**
+ * Benchmarks for the snapshot codec.
+ * Run with: mvn test -Pbenchmark
+ */
+public class SnapshotCodecBenchmarks {
+
+    private static final int WARMUP_ROUNDS = 5_000;
+    private static final int ROUNDS = 20_000;
+
+    // Results are accumulated so the JIT can't remove the measured calls
+    private static long sink = 0;
+
+    /**
+     * @param length The number of segments of the snake
+     * @return An engine with a straight snake of the given length
+     */
+    private static GameEngine engine(int length) {
+        GameModel model = new GameModel();
+        model.worldWidth = 100;
+        model.worldHeight = 100;
+        model.worldDepth = 100;
+        model.snake = new SnakeModel[length];
+        for (int i = 0; i < length; i++) {
+            model.snake[i] = new SnakeModel();
+            model.snake[i].z = 500 + 1000 * (length - 1 - i);
+        }
+        GameEngine engine = new GameEngine(model);
+        engine.step(10);
+        return engine;
+    }
+
+    @Test
+    @DisplayName("Benchmark: snapshot encode and restore time by snake length")
+    public void encodeAndRestore() {
+        for (int length : new int[] {1, 100, 1000}) {
+            GameEngine engine = engine(length);
+            byte[] snapshot = SnapshotCodec.encode(engine);
+
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                sink += SnapshotCodec.encode(engine).length;
+                SnapshotCodec.restore(engine, snapshot);
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < ROUNDS; i++) { sink += SnapshotCodec.encode(engine).length; }
+            double encodeMicros = (System.nanoTime() - start) / 1e3 / ROUNDS;
+
+            start = System.nanoTime();
+            for (int i = 0; i < ROUNDS; i++) { SnapshotCodec.restore(engine, snapshot); }
+            double restoreMicros = (System.nanoTime() - start) / 1e3 / ROUNDS;
+            sink += engine.stateHash();
+
+            System.out.printf("SnapshotCodec %d segments (%d bytes): encode %.2f us, restore %.2f us%n", length, snapshot.length, encodeMicros, restoreMicros);
+        }
+    }
+
+}
@@ -0,0 +1,160 @@
+package com.sakariaslilja.services;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.sakariaslilja.IConstants;
+import com.sakariaslilja.entities.Turn;
+import com.sakariaslilja.models.GameModel;
+import com.sakariaslilja.models.KeyframeModel;
+
+public class SnapshotCodecTests implements IConstants {
+
+    /**
+     * @param seed The seed of the game
+     * @return An engine a while into a game, with apples and a turn being taken
+     */
+    private static GameEngine playedEngine(long seed) {
+        GameModel model = new GameModel();
+        model.seed = seed;
+        GameEngine engine = new GameEngine(model);
+        engine.handleInput(Input.RIGHT);
+        engine.step(50);
+        engine.handleInput(Input.UP);
+        return engine;
+    }
+
+    /**
+     * Takes a snapshot of a state the engine wouldn't reach by itself.
+     * The engine trusts the keyframes it restores, so the state is written as is.
+     * @param engine The engine of the game
+     * @param keyframe The state to take a snapshot of
+     * @return The snapshot
+     */
+    private static byte[] snapshotOf(GameEngine engine, KeyframeModel keyframe) {
+        engine.restore(keyframe);
+        return SnapshotCodec.encode(engine);
+    }
+
+    @Test
+    @DisplayName("SnapshotCodec decode")
+    public void decode() {
+        GameEngine engine = playedEngine(5);
+        byte[] snapshot = SnapshotCodec.encode(engine);
+        GameEngine decoded = SnapshotCodec.decode(snapshot);
+
+        assertEquals(engine.stateHash(), decoded.stateHash(), "A decoded engine should be in the saved state");
+        assertArrayEquals(snapshot, SnapshotCodec.encode(decoded), "A decoded engine should encode to the same snapshot");
+    }
+
+    @Test
+    @DisplayName("SnapshotCodec restore")
+    public void restore() {
+        GameEngine engine = playedEngine(5);
+        byte[] snapshot = SnapshotCodec.encode(engine);
+        engine.step(100);
+        long hash = engine.stateHash();
+
+        // A game loaded from its model starts its apples over
+        GameEngine loaded = new GameEngine(engine.toGameModel());
+        loaded.step(0);
+        SnapshotCodec.restore(loaded, snapshot);
+        assertNotEquals(hash, loaded.stateHash(), "The restored engine should be back at the snapshot");
+        loaded.step(100);
+        assertEquals(hash, loaded.stateHash(), "A restored engine should continue exactly like the saved engine");
+    }
+
+    @Test
+    @DisplayName("SnapshotCodec invalid snapshots")
+    public void invalid() {
+        GameEngine engine = playedEngine(5);
+        byte[] snapshot = SnapshotCodec.encode(engine);
+
+        assertThrows(IllegalArgumentException.class, () -> SnapshotCodec.restore(playedEngine(6), snapshot), "A snapshot of another game should be rejected");
+        assertThrows(IllegalArgumentException.class, () -> SnapshotCodec.decode(new byte[] {1, 2, 3}), "A buffer without a snapshot should be rejected");
+        byte[] corrupted = snapshot.clone();
+        corrupted[0]++;
+        assertThrows(IllegalArgumentException.class, () -> SnapshotCodec.decode(corrupted), "A snapshot with the wrong header should be rejected");
+
+        // The world size is the three shorts at the end of the header
+        byte[] huge = snapshot.clone();
+        ByteBuffer.wrap(huge).putShort(4 + 2 + 8, Short.MAX_VALUE);
+        assertThrows(IllegalArgumentException.class, () -> SnapshotCodec.decode(huge), "A world too big to play in should be rejected");
+    }
+
+    @Test
+    @DisplayName("SnapshotCodec truncated and corrupt states")
+    public void corruptState() {
+        GameEngine engine = playedEngine(5);
+        byte[] snapshot = SnapshotCodec.encode(engine);
+        long hash = engine.stateHash();
+
+        // Every truncation and every corrupted byte either restores or is rejected, never half restored
+        for (int length = 0; length < snapshot.length; length++) {
+            byte[] truncated = Arrays.copyOf(snapshot, length);
+            assertThrows(IllegalArgumentException.class, () -> SnapshotCodec.restore(engine, truncated), "A truncated snapshot should be rejected");
+            assertEquals(hash, engine.stateHash(), "A rejected snapshot shouldn't change the engine");
+        }
+        // Going straight isn't a turn that can be taken
+        GameEngine straight = playedEngine(5);
+        KeyframeModel keyframe = straight.keyframe();
+        keyframe.turn = Turn.N.ordinal();
+        byte[] straightTurn = snapshotOf(straight, keyframe);
+        assertThrows(IllegalArgumentException.class, () -> SnapshotCodec.restore(engine, straightTurn), "Going straight as the turn should be rejected");
+        keyframe = engine.keyframe();
+        keyframe.pendingTurns = new int[] {Turn.N.ordinal()};
+        keyframe.pendingTicks = new long[] {keyframe.tick};
+        byte[] straightPending = snapshotOf(straight, keyframe);
+        assertThrows(IllegalArgumentException.class, () -> SnapshotCodec.restore(engine, straightPending), "Going straight as a pending turn should be rejected");
+        assertEquals(hash, engine.stateHash(), "A rejected snapshot shouldn't change the engine");
+
+        for (int i = 0; i < snapshot.length; i++) {
+            byte[] corrupted = snapshot.clone();
+            corrupted[i] = (byte) 0xFF;
+            try {
+                SnapshotCodec.restore(engine, corrupted);
+                SnapshotCodec.restore(engine, snapshot);
+            }
+            catch (IllegalArgumentException e) {
+                assertEquals(hash, engine.stateHash(), "A rejected snapshot shouldn't change the engine");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("SnapshotCodec progress off the steps")
+    public void offStep() {
+        GameEngine engine = playedEngine(5);
+        KeyframeModel keyframe = engine.keyframe();
+
+        for (int progress : new int[] {0, 7, UNIT + STEP_SIZE}) {
+            keyframe.progress = progress;
+            byte[] snapshot = snapshotOf(engine, keyframe);
+            assertThrows(IllegalArgumentException.class, () -> SnapshotCodec.decode(snapshot), "Snake progress off the steps should be rejected");
+        }
+        keyframe.progress = STEP_SIZE;
+        keyframe.turnDegrees = ROTATION_SPEED + 1;
+        byte[] snapshot = snapshotOf(engine, keyframe);
+        assertThrows(IllegalArgumentException.class, () -> SnapshotCodec.decode(snapshot), "Turn progress off the steps should be rejected");
+    }
+
+    @Test
+    @DisplayName("SnapshotCodec two apples in a cell")
+    public void duplicateApples() {
+        GameEngine engine = playedEngine(5);
+        KeyframeModel keyframe = engine.keyframe();
+        keyframe.apples = new int[] {keyframe.apples[0], keyframe.apples[0]};
+        byte[] snapshot = snapshotOf(engine, keyframe);
+
+        assertThrows(IllegalArgumentException.class, () -> SnapshotCodec.decode(snapshot), "Two apples in a cell should be rejected");
+    }
+
+}
@@ -0,0 +1,31 @@
+package com.sakariaslilja.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.sakariaslilja.entities.Turn;
+
+public class TurnBufferTests {
+
+    @Test
+    @DisplayName("TurnBuffer offer and poll")
+    public void offerAndPoll() {
+        TurnBuffer buffer = new TurnBuffer(2);
+
+        assertEquals(true, buffer.offer(Turn.L, 3), "A buffer with room should queue turns");
+        assertEquals(true, buffer.offer(Turn.U, 5), "A buffer with room should queue turns");
+        assertEquals(false, buffer.offer(Turn.R, 6), "A full buffer should drop turns");
+
+        assertEquals(3, buffer.peekTick(), "The tick of the oldest turn should be kept");
+        assertEquals(Turn.L, buffer.poll(), "Turns should be taken in order");
+        assertEquals(true, buffer.offer(Turn.D, 7), "Taking a turn should make room");
+        assertEquals(Turn.U, buffer.poll(), "Turns should be taken in order");
+        assertEquals(7, buffer.peekTick(), "The tick of the oldest turn should be kept");
+        assertEquals(Turn.D, buffer.poll(), "Turns should be taken in order");
+        assertNull(buffer.poll(), "An empty buffer should have no turns");
+    }
+
+}
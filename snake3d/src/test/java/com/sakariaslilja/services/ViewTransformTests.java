@@ -0,0 +1,92 @@
+package com.sakariaslilja.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.sakariaslilja.IConstants;
+import com.sakariaslilja.datastructures.DoubleVector3D;
+import com.sakariaslilja.datastructures.Quaternion;
+
+public class ViewTransformTests implements IConstants {
+
+    @Test
+    @DisplayName("ViewTransform apply")
+    public void apply() {
+        DoubleVector3D camera = new DoubleVector3D(0.5, 0.5, 0.5);
+        Quaternion q = new Quaternion(new DoubleVector3D(0, 1, 0), 0.3);
+        double width = 800;
+        double height = 400;
+
+        ViewTransform view = new ViewTransform();
+        view.update(camera, q, width, height);
+
+        DoubleVector3D vertex = new DoubleVector3D(1, 2, 3);
+        view.apply(vertex);
+
+        DoubleVector3D expected = new DoubleVector3D(1 - 0.5, 2 - 0.5, 3 - 0.5);
+        q.applyRotation(expected);
+        double scale = FOCAL_LENGTH / (0.0001 * 2) / expected.getZ();
+
+        double error = 0.000001;
+        assertEquals(expected.getX() * scale + 0.5 * width, vertex.getX(), error, "The x-coordinate should be on the screen");
+        assertEquals(expected.getY() * scale + 0.5 * height, vertex.getY(), error, "The y-coordinate should be on the screen");
+        assertEquals(expected.getZ(), vertex.getZ(), error, "The z-coordinate should be the depth");
+    }
+
+    @Test
+    @DisplayName("ViewTransform toCamera translation")
+    public void toCameraTranslation() {
+        ViewTransform view = new ViewTransform();
+        view.update(new DoubleVector3D(1, 1, 1), new Quaternion(1, 0, 0, 0), 0, 0);
+
+        DoubleVector3D vertex = new DoubleVector3D(0, 0, 0);
+        view.toCamera(vertex);
+
+        assertEquals(new DoubleVector3D(-1, -1, -1), vertex, "The camera should be moved to the origin");
+    }
+
+    @Test
+    @DisplayName("ViewTransform toCamera rotation")
+    public void toCameraRotation() {
+        ViewTransform view = new ViewTransform();
+        view.update(new DoubleVector3D(0, 0, 0), new Quaternion(0, 0, 1, 0), 0, 0);
+
+        DoubleVector3D vertex = new DoubleVector3D(1, 2, 3);
+        view.toCamera(vertex);
+        vertex.round();
+
+        assertEquals(new DoubleVector3D(-1, 2, -3), vertex, "The rotation should be applied to the vertex");
+    }
+
+    @Test
+    @DisplayName("ViewTransform project")
+    public void project() {
+        ViewTransform view = new ViewTransform();
+        view.update(new DoubleVector3D(0, 0, 0), new Quaternion(1, 0, 0, 0), 0, 0);
+
+        DoubleVector3D vertex = new DoubleVector3D(8, -4, 2);
+        view.project(vertex);
+
+        double scale = FOCAL_LENGTH / (0.0001 * 2) / 2;
+        assertEquals(new DoubleVector3D(8 * scale, -4 * scale, 2), vertex, "The vertex should be divided by its depth");
+    }
+
+    @Test
+    @DisplayName("ViewTransform clipToNearPlane")
+    public void clipToNearPlane() {
+        DoubleVector3D start = new DoubleVector3D(0, 0, -1);
+        DoubleVector3D end = new DoubleVector3D(2, 4, 3);
+
+        assertEquals(true, ViewTransform.clipToNearPlane(start, end), "A line crossing the near plane should be visible");
+        double t = (ViewTransform.NEAR_PLANE + 1) / 4;
+        assertEquals(new DoubleVector3D(2 * t, 4 * t, ViewTransform.NEAR_PLANE), start, "The end behind the camera should be moved onto the near plane");
+        assertEquals(new DoubleVector3D(2, 4, 3), end, "The end in front of the camera should not move");
+
+        DoubleVector3D behind1 = new DoubleVector3D(1, 1, -1);
+        DoubleVector3D behind2 = new DoubleVector3D(1, 1, 0);
+        assertEquals(false, ViewTransform.clipToNearPlane(behind1, behind2), "A line behind the camera should not be visible");
+    }
+
+}